@@ -0,0 +1,42 @@
+package benchmark;
+
+import model.Task;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+// Generates deterministic task data sets for the benchmarks
+public final class BenchmarkData {
+
+    public static final String[] CATEGORIES = {"Personal", "Work", "Study"};
+    public static final String[] TAGS = {"urgent", "home", "office", "exam", "later", "review"};
+
+    private BenchmarkData() {
+    }
+
+    // Builds n tasks spread over roughly a year around today, a third of them completed
+    public static List<Task> tasks(int n) {
+        Random random = new Random(42);
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        long today = calendar.getTimeInMillis();
+        long day = 24L * 60 * 60 * 1000;
+
+        List<Task> tasks = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Date dueDate = new Date(today + (random.nextInt(365) - 180) * day);
+            String status = random.nextInt(3) == 0 ? "Completed" : "Pending";
+            Task task = new Task(i + 1, "Task " + i, "Description for task number " + i,
+                    dueDate, CATEGORIES[random.nextInt(CATEGORIES.length)], status);
+            task.addTag(TAGS[random.nextInt(TAGS.length)]);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+}
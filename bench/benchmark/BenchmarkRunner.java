@@ -0,0 +1,94 @@
+package benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.*;
+
+/**
+ * Runs the JMH benchmarks and archives the JSON results under bench/results,
+ * one file per run, then compares the new scores with the previous run.
+ * Usage: BenchmarkRunner [include regex]   (default: every *Benchmark class)
+ */
+public class BenchmarkRunner {
+
+    private static final File RESULTS_DIR = new File("bench/results");
+
+    // Score changes beyond this fraction in the bad direction are reported as regressions
+    private static final double REGRESSION_THRESHOLD = 0.10;
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String include = args.length > 0 ? args[0] : ".*Benchmark.*";
+        RESULTS_DIR.mkdirs();
+
+        File previous = latestResult();
+        File current = new File(RESULTS_DIR, new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".json");
+
+        new Runner(new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(current.getPath())
+                .build()).run();
+
+        System.out.println("Results archived to " + current.getPath());
+        if (previous != null) {
+            compare(previous, current);
+        }
+    }
+
+    // Finds the most recent archived run; file names sort chronologically
+    private static File latestResult() {
+        File[] files = RESULTS_DIR.listFiles((dir, name) -> name.endsWith(".json"));
+        if (files == null || files.length == 0) return null;
+        Arrays.sort(files);
+        return files[files.length - 1];
+    }
+
+    // Prints the relative change of every benchmark present in both runs
+    private static void compare(File previous, File current) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, JsonNode> before = index(mapper.readTree(previous));
+        Map<String, JsonNode> after = index(mapper.readTree(current));
+
+        System.out.println("Comparison with " + previous.getName() + ":");
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entry : after.entrySet()) {
+            JsonNode old = before.get(entry.getKey());
+            if (old == null) continue;
+
+            double oldScore = old.path("primaryMetric").path("score").asDouble();
+            double newScore = entry.getValue().path("primaryMetric").path("score").asDouble();
+            if (oldScore == 0) continue;
+
+            double change = (newScore - oldScore) / oldScore;
+            // Throughput is better when higher, time-based modes when lower
+            boolean higherIsBetter = "thrpt".equals(entry.getValue().path("mode").asText());
+            boolean regressed = higherIsBetter ? change < -REGRESSION_THRESHOLD : change > REGRESSION_THRESHOLD;
+            if (regressed) regressions++;
+
+            System.out.printf("%s %-80s %12.3f -> %12.3f %s (%+.1f%%)%n",
+                    regressed ? "REGRESSION" : "          ", entry.getKey(), oldScore, newScore,
+                    entry.getValue().path("primaryMetric").path("scoreUnit").asText(), change * 100);
+        }
+        System.out.println(regressions + " regression(s) beyond " + (int) (REGRESSION_THRESHOLD * 100) + "%.");
+    }
+
+    // Keys each result by benchmark name plus its parameters
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> byKey = new TreeMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            JsonNode params = result.path("params");
+            params.fieldNames().forEachRemaining(name -> key.append(' ').append(name).append('=').append(params.path(name).asText()));
+            byKey.put(key.toString(), result);
+        }
+        return byKey;
+    }
+}
@@ -0,0 +1,53 @@
+package benchmark;
+
+import model.Task;
+import networking.DatabaseConfig;
+import networking.DatabaseManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Measures DatabaseManager row mapping and tag queries against an in-memory embedded database
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DatabaseManagerBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        System.setProperty(DatabaseConfig.MODE, "embedded");
+        System.setProperty(DatabaseConfig.URL, "jdbc:h2:mem:bench;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        try (Connection conn = DatabaseManager.getConnection();
+             Statement stmt = conn.createStatement()) {
+            // Not TRUNCATE: task_tags references tasks, and the delete cascades to it
+            stmt.execute("DELETE FROM tasks");
+        }
+        // One tag per task out of six, as in BenchmarkData
+        DatabaseManager.bulkInsertTasks(BenchmarkData.tasks(size));
+    }
+
+    @Benchmark
+    public List<Task> getTasks() {
+        return DatabaseManager.getTasks();
+    }
+
+    @Benchmark
+    public List<Task> getTaskSummaries() {
+        return DatabaseManager.getTaskSummaries();
+    }
+
+    @Benchmark
+    public List<Task> getTaskSummariesByTag() {
+        return DatabaseManager.getTaskSummariesByTag("urgent");
+    }
+}
@@ -0,0 +1,52 @@
+package benchmark;
+
+import model.ReminderScheduler;
+import model.Task;
+import model.TaskManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Measures rescheduling a reminder while the scheduler tracks every task of the list
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReminderSchedulerBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private List<Task> tasks;
+    private ReminderScheduler reminders;
+    private long day = 24L * 60 * 60 * 1000;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tasks = BenchmarkData.tasks(size);
+        reminders = new ReminderScheduler();
+        reminders.attach(new TaskManager(new ArrayList<>(tasks)));
+    }
+
+    // Moves a task's due date, which goes through the TaskManager listener
+    @Benchmark
+    public int setDueDate() {
+        Task task = tasks.get(next++ % size);
+        task.setDueDate(new Date(System.currentTimeMillis() + (next % 300) * day));
+        return reminders.size();
+    }
+
+    @Benchmark
+    public int cancelAndSchedule() {
+        Task task = tasks.get(next++ % size);
+        reminders.cancel(task.getId());
+        reminders.schedule(task);
+        return reminders.size();
+    }
+}
@@ -0,0 +1,65 @@
+package benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import model.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Type;
+import java.text.SimpleDateFormat;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Compares Jackson and Gson for serializing a batch of tasks to and from JSON
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"100", "10000"})
+    public int size;
+
+    // Same configuration as TaskStorage, minus pretty printing
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .setDateFormat(new SimpleDateFormat("MMM dd, yyyy, hh:mm:ss a"));
+    private final Gson gson = new Gson();
+    private final Type taskListType = new TypeToken<List<Task>>() {}.getType();
+
+    private List<Task> tasks;
+    private String jacksonJson;
+    private String gsonJson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        tasks = BenchmarkData.tasks(size);
+        jacksonJson = objectMapper.writeValueAsString(tasks);
+        gsonJson = gson.toJson(tasks);
+    }
+
+    @Benchmark
+    public String jacksonWrite() throws Exception {
+        return objectMapper.writeValueAsString(tasks);
+    }
+
+    @Benchmark
+    public List<Task> jacksonRead() throws Exception {
+        return objectMapper.readValue(jacksonJson,
+                objectMapper.getTypeFactory().constructCollectionType(List.class, Task.class));
+    }
+
+    @Benchmark
+    public String gsonWrite() {
+        return gson.toJson(tasks);
+    }
+
+    @Benchmark
+    public List<Task> gsonRead() {
+        return gson.fromJson(gsonJson, taskListType);
+    }
+}
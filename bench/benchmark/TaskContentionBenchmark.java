@@ -0,0 +1,84 @@
+package benchmark;
+
+import model.Task;
+import model.TaskField;
+import model.TaskQuery;
+import model.TaskUpdate;
+import networking.ConcurrentTaskStore;
+import networking.DatabaseConfig;
+import networking.DatabaseManager;
+import org.openjdk.jmh.annotations.*;
+import persistence.JdbcTaskRepository;
+import persistence.TaskRepository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent editors saving versioned updates through ConcurrentTaskStore on the embedded
+ * database, with 1, 8 and 64 writer threads. One stripe is the same as a global lock;
+ * with a single hot task every writer edits the same row and most updates conflict.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskContentionBenchmark {
+
+    @Param({"1", "64"})
+    public int stripes;
+
+    // Tasks the writers pick from at random
+    @Param({"1", "1000"})
+    public int hotTasks;
+
+    private ConcurrentTaskStore store;
+    private int[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        System.setProperty(DatabaseConfig.MODE, "embedded");
+        System.setProperty(DatabaseConfig.URL, "jdbc:h2:mem:contention;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        try (Connection conn = DatabaseManager.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM tasks");
+        }
+        TaskRepository repository = new JdbcTaskRepository();
+        repository.insertAll(BenchmarkData.tasks(hotTasks));
+        List<Task> stored = repository.find(new TaskQuery().summaries());
+        ids = stored.stream().mapToInt(Task::getId).toArray();
+        store = new ConcurrentTaskStore(repository, stripes);
+    }
+
+    // Reads a task and flips its status at the version just read, as an editing client does
+    private ConcurrentTaskStore.Outcome edit() {
+        int id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        Task task = store.get(id);
+        String status = "Completed".equals(task.getStatus()) ? "Pending" : "Completed";
+        return store.update(id, new TaskUpdate().set(TaskField.STATUS, status), task.getVersion()).getOutcome();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ConcurrentTaskStore.Outcome writers1() {
+        return edit();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public ConcurrentTaskStore.Outcome writers8() {
+        return edit();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public ConcurrentTaskStore.Outcome writers64() {
+        return edit();
+    }
+}
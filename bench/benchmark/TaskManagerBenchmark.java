@@ -0,0 +1,87 @@
+package benchmark;
+
+import model.Task;
+import model.TaskManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Measures the in-memory query methods of TaskManager at increasing list sizes
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskManagerBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private List<Task> tasks;
+    private TaskManager taskManager;
+    private String lastTitle;
+    private String searchQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tasks = BenchmarkData.tasks(size);
+        taskManager = new TaskManager(new ArrayList<>(tasks));
+        lastTitle = tasks.get(size - 1).getTitle();
+        searchQuery = "number " + (size - 1) / 10;
+        // Builds the search index before measuring
+        taskManager.search("task", 1);
+    }
+
+    @Benchmark
+    public Task getTaskByTitle() {
+        return taskManager.getTaskByTitle(lastTitle);
+    }
+
+    // Two words, the last one completed as a prefix
+    @Benchmark
+    public List<Task> search() {
+        return taskManager.search(searchQuery, 20);
+    }
+
+    // A word every task contains, so ranking has to cut the top results from the whole list
+    @Benchmark
+    public List<Task> searchCommonWord() {
+        return taskManager.search("task", 20);
+    }
+
+    @Benchmark
+    public List<Task> getCompletedTasks() {
+        return taskManager.getCompletedTasks();
+    }
+
+    @Benchmark
+    public List<Task> getPendingTasks() {
+        return taskManager.getPendingTasks();
+    }
+
+    @Benchmark
+    public List<Task> getDueTodayTasks() {
+        return taskManager.getDueTodayTasks();
+    }
+
+    @Benchmark
+    public List<Task> getTasksByCategory() {
+        return taskManager.getTasksByCategory("Work");
+    }
+
+    @Benchmark
+    public List<Task> getTasksByTag() {
+        return taskManager.getTasksByTag("urgent");
+    }
+
+    // Sorting mutates the list, so each invocation starts from the unsorted copy
+    @Benchmark
+    public List<Task> sortByDueDate() {
+        TaskManager copy = new TaskManager(new ArrayList<>(tasks));
+        copy.sortByDueDate();
+        return copy.getAllTasks();
+    }
+}
@@ -0,0 +1,98 @@
+package benchmark;
+
+import model.Task;
+import model.TaskField;
+import model.TaskQuery;
+import model.TaskUpdate;
+import networking.DatabaseConfig;
+import networking.DatabaseManager;
+import org.openjdk.jmh.annotations.*;
+import persistence.InMemoryTaskRepository;
+import persistence.JdbcTaskRepository;
+import persistence.JsonTaskRepository;
+import persistence.TaskRepository;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Compares the task stores behind the same TaskRepository calls
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskRepositoryBenchmark {
+
+    @Param({"memory", "json", "jdbc"})
+    public String store;
+
+    @Param({"10000"})
+    public int size;
+
+    private TaskRepository repository;
+    private List<Integer> batchIds;
+    private int probeId;
+    private boolean completed;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        List<Task> tasks = BenchmarkData.tasks(size);
+        switch (store) {
+            case "memory":
+                repository = new InMemoryTaskRepository(tasks);
+                break;
+            case "json":
+                File file = File.createTempFile("tasks-bench", ".json");
+                file.deleteOnExit();
+                repository = new JsonTaskRepository(file);
+                repository.insertAll(tasks);
+                break;
+            default:
+                System.setProperty(DatabaseConfig.MODE, "embedded");
+                System.setProperty(DatabaseConfig.URL, "jdbc:h2:mem:repository;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+                try (Connection conn = DatabaseManager.getConnection();
+                     Statement stmt = conn.createStatement()) {
+                    stmt.execute("DELETE FROM tasks");
+                }
+                repository = new JdbcTaskRepository();
+                repository.insertAll(tasks);
+        }
+
+        List<Task> stored = repository.find(new TaskQuery().summaries());
+        probeId = stored.get(stored.size() / 2).getId();
+        batchIds = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            batchIds.add(stored.get(i * (stored.size() / 100)).getId());
+        }
+    }
+
+    @Benchmark
+    public Task findById() {
+        return repository.findById(probeId);
+    }
+
+    // One 100-row page from the middle of the list
+    @Benchmark
+    public List<Task> findPage() {
+        return repository.find(new TaskQuery().summaries().page(size / 2, 100));
+    }
+
+    @Benchmark
+    public List<Task> findByTag() {
+        return repository.find(new TaskQuery().tag("urgent").summaries().page(0, 100));
+    }
+
+    // Alternates the status so every call really changes the rows
+    @Benchmark
+    public int updateBatch() {
+        completed = !completed;
+        return repository.updateAll(batchIds, new TaskUpdate().set(TaskField.STATUS, completed ? "Completed" : "Pending"));
+    }
+}
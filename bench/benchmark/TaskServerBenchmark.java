@@ -0,0 +1,77 @@
+package benchmark;
+
+import networking.TaskServer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+
+// Measures request/response round-trips against a TaskServer on an ephemeral local port
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskServerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Server {
+        ServerSocket serverSocket;
+
+        @Setup(Level.Trial)
+        public void start() throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread thread = new Thread(() -> TaskServer.serve(serverSocket), "bench-task-server");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() throws IOException {
+            serverSocket.close();
+        }
+    }
+
+    // One connection per benchmark thread, reused across invocations
+    @State(Scope.Thread)
+    public static class Client {
+        Socket socket;
+        BufferedReader in;
+        PrintWriter out;
+
+        @Setup(Level.Trial)
+        public void connect(Server server) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), server.serverSocket.getLocalPort());
+            socket.setTcpNoDelay(true);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            out = new PrintWriter(socket.getOutputStream(), true);
+            in.readLine(); // greeting
+        }
+
+        @TearDown(Level.Trial)
+        public void disconnect() throws IOException {
+            socket.close();
+        }
+    }
+
+    @Benchmark
+    public String roundTrip(Client client) throws IOException {
+        client.out.println("ping");
+        return client.in.readLine();
+    }
+
+    // Opens a fresh connection per request, as TaskClient does
+    @Benchmark
+    public String connectAndRoundTrip(Server server) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.serverSocket.getLocalPort());
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true)) {
+            in.readLine();
+            out.println("ping");
+            return in.readLine();
+        }
+    }
+}
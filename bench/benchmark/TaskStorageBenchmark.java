@@ -0,0 +1,51 @@
+package benchmark;
+
+import model.Task;
+import org.openjdk.jmh.annotations.*;
+import persistence.TaskStorage;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Measures JSON backup and recovery throughput of TaskStorage
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskStorageBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private List<Task> tasks;
+    private File saveFile;
+    private File loadFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        tasks = BenchmarkData.tasks(size);
+        saveFile = File.createTempFile("bench-save", ".json");
+        loadFile = File.createTempFile("bench-load", ".json");
+        TaskStorage.saveTasks(tasks, loadFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        saveFile.delete();
+        loadFile.delete();
+    }
+
+    @Benchmark
+    public void saveTasks() {
+        TaskStorage.saveTasks(tasks, saveFile);
+    }
+
+    @Benchmark
+    public List<Task> loadTasks() {
+        return TaskStorage.loadTasks(loadFile);
+    }
+}
@@ -7,8 +7,8 @@ import ui.TaskManagerFX;
 public class Main {
     public static void main(String[] args) {
 
-        // CS202: Threading – running server logic in parallel
-        new Thread(() -> {
+        // CS202: Threading – running server logic in parallel, once the window has its tasks
+        TaskManagerFX.runAfterStartup(() -> new Thread(() -> {
             try {
                 // CS202: Optional – Simulated Client-Server Communication
                 TaskServer.main(new String[]{});
@@ -16,7 +16,7 @@ public class Main {
                 // CS202: Exception Handling
                 e.printStackTrace();
             }
-        }).start();
+        }).start());
 
         // CS202: JavaFX – Application Entry Point
         TaskManagerFX.main(new String[]{});
@@ -0,0 +1,140 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Repeat rule of a recurring task, written like "WEEKLY;INTERVAL=2;COUNT=10" or
+ * "DAILY;INTERVAL=3;UNTIL=2025-12-31". The task's due date is the first occurrence.
+ *
+ * Occurrences are computed from their index rather than by stepping through the series,
+ * so asking for a window costs the same however far it lies from the start, and only
+ * the occurrences inside the window are ever created.
+ */
+public final class Recurrence {
+
+    public enum Frequency { DAILY, WEEKLY, MONTHLY }
+
+    private final Frequency frequency;
+    private final int interval;
+    // Last possible occurrence date, or null
+    private final LocalDate until;
+    // Number of occurrences, or 0 when unbounded
+    private final int count;
+
+    public Recurrence(Frequency frequency, int interval, LocalDate until, int count) {
+        if (interval < 1) throw new IllegalArgumentException("Interval must be at least 1");
+        if (count < 0) throw new IllegalArgumentException("Count cannot be negative");
+        this.frequency = frequency;
+        this.interval = interval;
+        this.until = until;
+        this.count = count;
+    }
+
+    // Parses the text form; throws IllegalArgumentException for anything else
+    public static Recurrence parse(String text) {
+        String[] parts = text.trim().toUpperCase(Locale.ROOT).split("\\s*;\\s*");
+        Frequency frequency;
+        try {
+            frequency = Frequency.valueOf(parts[0]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown repeat frequency: " + parts[0]);
+        }
+        int interval = 1;
+        LocalDate until = null;
+        int count = 0;
+        for (int i = 1; i < parts.length; i++) {
+            String[] pair = parts[i].split("\\s*=\\s*", 2);
+            if (pair.length != 2) throw new IllegalArgumentException("Invalid repeat rule part: " + parts[i]);
+            try {
+                switch (pair[0]) {
+                    case "INTERVAL": interval = Integer.parseInt(pair[1]); break;
+                    case "COUNT": count = Integer.parseInt(pair[1]); break;
+                    case "UNTIL": until = LocalDate.parse(pair[1]); break;
+                    default: throw new IllegalArgumentException("Unknown repeat rule part: " + pair[0]);
+                }
+            } catch (java.time.format.DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value in repeat rule: " + parts[i]);
+            }
+        }
+        return new Recurrence(frequency, interval, until, count);
+    }
+
+    public Frequency getFrequency() { return frequency; }
+    public int getInterval() { return interval; }
+    public LocalDate getUntil() { return until; }
+    public int getCount() { return count; }
+
+    // Occurrences of the series starting on start that fall within [from, to]
+    public List<LocalDate> between(LocalDate start, LocalDate from, LocalDate to) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (long k = firstIndexOnOrAfter(start, from); ; k++) {
+            LocalDate date = occurrence(start, k);
+            if (date == null || date.isAfter(to)) break;
+            dates.add(date);
+        }
+        return dates;
+    }
+
+    // First occurrence on or after the given day, or null when the series has ended by then
+    public LocalDate next(LocalDate start, LocalDate onOrAfter) {
+        return occurrence(start, firstIndexOnOrAfter(start, onOrAfter));
+    }
+
+    // Final occurrence, or null for a series without an end
+    public LocalDate last(LocalDate start) {
+        if (count == 0 && until == null) return null;
+        long k = count > 0 ? count - 1 : Long.MAX_VALUE;
+        if (until != null) {
+            long lastBeforeUntil = firstIndexOnOrAfter(start, until);
+            if (dateAt(start, lastBeforeUntil).isAfter(until)) lastBeforeUntil--;
+            k = Math.min(k, lastBeforeUntil);
+        }
+        return k < 0 ? null : dateAt(start, k);
+    }
+
+    // The k-th occurrence (0 is the start), or null if it lies past the end of the series
+    private LocalDate occurrence(LocalDate start, long k) {
+        if (count > 0 && k >= count) return null;
+        LocalDate date = dateAt(start, k);
+        return until != null && date.isAfter(until) ? null : date;
+    }
+
+    private LocalDate dateAt(LocalDate start, long k) {
+        switch (frequency) {
+            case DAILY: return start.plusDays(k * interval);
+            case WEEKLY: return start.plusWeeks(k * interval);
+            default: return start.plusMonths(k * interval);
+        }
+    }
+
+    private long firstIndexOnOrAfter(LocalDate start, LocalDate day) {
+        if (!day.isAfter(start)) return 0;
+        switch (frequency) {
+            case DAILY: return ceilDiv(ChronoUnit.DAYS.between(start, day), interval);
+            case WEEKLY: return ceilDiv(ChronoUnit.DAYS.between(start, day), 7L * interval);
+            default:
+                // Shorter months clamp the day (Jan 31 + 1 month = Feb 28), so step forward from an estimate
+                long k = ChronoUnit.MONTHS.between(start, day) / interval;
+                while (dateAt(start, k).isBefore(day)) k++;
+                return k;
+        }
+    }
+
+    private static long ceilDiv(long a, long b) {
+        return (a + b - 1) / b;
+    }
+
+    // The text form accepted by parse
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(frequency.name());
+        if (interval != 1) text.append(";INTERVAL=").append(interval);
+        if (count > 0) text.append(";COUNT=").append(count);
+        if (until != null) text.append(";UNTIL=").append(until);
+        return text.toString();
+    }
+}
@@ -0,0 +1,8 @@
+package model;
+
+// Receives due and overdue reminders from a ReminderScheduler, on its ticker thread
+@FunctionalInterface
+public interface ReminderListener {
+
+    void reminder(Task task, ReminderScheduler.Kind kind);
+}
@@ -0,0 +1,185 @@
+package model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fires a DUE reminder when a pending task's due day starts and an OVERDUE reminder
+ * when it ends. All reminders share one timing wheel, so scheduling, rescheduling
+ * and cancelling a task is constant time however many tasks are tracked.
+ *
+ * Only future moments are scheduled: a task already due or overdue when it is
+ * scheduled does not fire for the part that has passed, so rescheduling after a
+ * reload never repeats a reminder. Recurring tasks get the reminders of one
+ * occurrence at a time, the next one scheduled as the previous one fires.
+ */
+public class ReminderScheduler implements TaskListener {
+
+    public enum Kind { DUE, OVERDUE }
+
+    private static final Logger LOG = Logger.getLogger(ReminderScheduler.class.getName());
+
+    private static final long TICK_MS = 1000;
+
+    private static final class Reminder {
+        final Task task;
+        final Kind kind;
+        final long at;
+
+        Reminder(Task task, Kind kind, long at) {
+            this.task = task;
+            this.kind = kind;
+            this.at = at;
+        }
+    }
+
+    private final LongSupplier clock;
+    private final TimingWheel<Reminder> wheel;
+    // The one pending reminder of each task, by task id
+    private final Map<Integer, TimingWheel.Timeout<Reminder>> pending = new HashMap<>();
+    private final List<ReminderListener> listeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService ticker;
+
+    public ReminderScheduler() {
+        this(System::currentTimeMillis);
+    }
+
+    // Uses the given clock for the current time in milliseconds
+    public ReminderScheduler(LongSupplier clock) {
+        this.clock = clock;
+        this.wheel = new TimingWheel<>(TICK_MS, clock.getAsLong());
+    }
+
+    public void addReminderListener(ReminderListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeReminderListener(ReminderListener listener) {
+        listeners.remove(listener);
+    }
+
+    // Schedules the manager's tasks and follows their changes from now on
+    public void attach(TaskManager taskManager) {
+        setTasks(taskManager.getAllTasks());
+        taskManager.addTaskListener(this);
+    }
+
+    public void detach(TaskManager taskManager) {
+        taskManager.removeTaskListener(this);
+    }
+
+    // Replaces every scheduled reminder with reminders for the given tasks
+    public synchronized void setTasks(Collection<Task> tasks) {
+        wheel.clear();
+        pending.clear();
+        for (Task task : tasks) {
+            schedule(task);
+        }
+    }
+
+    // Schedules the next reminder of the task, replacing any it already had
+    public synchronized void schedule(Task task) {
+        scheduleAfter(task, clock.getAsLong(), false);
+    }
+
+    /**
+     * Schedules the first reminder of the task later than the given time. A DUE exactly
+     * at that time also counts when it follows an OVERDUE firing at the same moment,
+     * as when one occurrence of a daily series ends and the next begins.
+     */
+    private void scheduleAfter(Task task, long since, boolean dueAtSince) {
+        cancel(task.getId());
+        if (task.getDueDate() == null || "Completed".equalsIgnoreCase(task.getStatus())) return;
+
+        LocalDate dueDay = task.nextDueDate(Instant.ofEpochMilli(since).atZone(ZoneId.systemDefault()).toLocalDate());
+        long dueAt = startOfDay(dueDay);
+        long overdueAt = startOfDay(dueDay.plusDays(1));
+        if (dueAt > since || dueAtSince && dueAt == since) {
+            pending.put(task.getId(), wheel.schedule(new Reminder(task, Kind.DUE, dueAt), dueAt));
+        } else if (overdueAt > since) {
+            pending.put(task.getId(), wheel.schedule(new Reminder(task, Kind.OVERDUE, overdueAt), overdueAt));
+        }
+    }
+
+    public synchronized void cancel(int taskId) {
+        TimingWheel.Timeout<Reminder> timeout = pending.remove(taskId);
+        if (timeout != null) {
+            wheel.cancel(timeout);
+        }
+    }
+
+    // Number of tasks with a reminder still to come
+    public synchronized int size() {
+        return wheel.size();
+    }
+
+    // Fires every reminder that has come due; called by the ticker, or directly when driving the clock by hand
+    public void advance() {
+        List<Reminder> fired;
+        synchronized (this) {
+            fired = wheel.advance(clock.getAsLong());
+            for (Reminder reminder : fired) {
+                pending.remove(reminder.task.getId());
+                scheduleAfter(reminder.task, reminder.at, reminder.kind == Kind.OVERDUE);
+            }
+        }
+        for (Reminder reminder : fired) {
+            for (ReminderListener listener : listeners) {
+                listener.reminder(reminder.task, reminder.kind);
+            }
+        }
+    }
+
+    // Starts advancing once a second on a daemon thread
+    public synchronized void start() {
+        if (ticker != null) return;
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "reminder-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(() -> {
+            try {
+                advance();
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "Error firing reminders: " + e.getMessage(), e);
+            }
+        }, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    @Override
+    public void taskAdded(Task task) {
+        schedule(task);
+    }
+
+    // A new due date or status moves or cancels the reminder
+    @Override
+    public void taskUpdated(Task task) {
+        schedule(task);
+    }
+
+    @Override
+    public void taskRemoved(Task task) {
+        cancel(task.getId());
+    }
+
+    private static long startOfDay(LocalDate day) {
+        return day.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -2,9 +2,15 @@ package model;
 
 import java.io.Serializable;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 // Implements Serializable to enable object serialization for file storage
 public class Task implements Serializable {
@@ -20,14 +26,25 @@ public class Task implements Serializable {
     private String assignedUser;
     private String status;
     private String category;
-    private List<String> tags;
+    // Insertion-ordered set: constant-time membership checks, tags still listed in the order added
+    private Set<String> tags;
+    // Incremented by the database on every update, used for optimistic concurrency checks
+    private int version;
+    // When the task was last inserted or changed in its store, for change-since queries
+    private Date updatedAt;
+    // Repeat rule text such as "WEEKLY;INTERVAL=2", or null for a one-off task
+    private String recurrence;
+    // Parsed form of the rule, rebuilt on demand after deserialization
+    private transient Recurrence recurrenceRule;
+    // Notified when a setter changes the task; not part of the saved state
+    private transient TaskListener listener;
 
     // Static formatter for consistent date formatting
     private static final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
 
-    // Default constructor with empty tag list
+    // Default constructor with empty tag set
     public Task() {
-        this.tags = new ArrayList<>();
+        this.tags = new LinkedHashSet<>();
     }
 
     // Overloaded constructor for initializing core task fields
@@ -38,6 +55,7 @@ public class Task implements Serializable {
         this.dueDate = dueDate;
         this.category = category;
         this.status = (status == null || status.isEmpty()) ? "Pending" : status;
+        this.tags = new LinkedHashSet<>();
     }
 
     // Getters for encapsulated fields
@@ -47,26 +65,123 @@ public class Task implements Serializable {
     public String getAssignedUser() { return assignedUser; }
     public String getStatus() { return status; }
     public String getCategory() { return category; }
-    public List<String> getTags() { return tags; }
+    public Set<String> getTags() { return tags; }
     public int getId() { return id; }
+    public int getVersion() { return version; }
+    public Date getUpdatedAt() { return updatedAt; }
+    public String getRecurrence() { return recurrence; }
 
     // Setters for updating task fields
-    public void setTitle(String title) { this.title = title; }
-    public void setDescription(String description) { this.description = description; }
-    public void setDueDate(Date dueDate) { this.dueDate = dueDate; }
-    public void setAssignedUser(String assignedUser) { this.assignedUser = assignedUser; }
-    public void setStatus(String status) { this.status = status; }
-    public void setCategory(String category) { this.category = category; }
-
-    // List operations to manage task tags
+    public void setId(int id) { this.id = id; }
+    public void setTitle(String title) { this.title = title; changed(); }
+    public void setDescription(String description) { this.description = description; changed(); }
+    public void setDueDate(Date dueDate) { this.dueDate = dueDate; changed(); }
+    public void setAssignedUser(String assignedUser) { this.assignedUser = assignedUser; changed(); }
+    public void setStatus(String status) { this.status = status; changed(); }
+    public void setCategory(String category) { this.category = category; changed(); }
+    public void setVersion(int version) { this.version = version; }
+    public void setUpdatedAt(Date updatedAt) { this.updatedAt = updatedAt; }
+
+    // Makes the task repeat from its due date; null or blank makes it a one-off task again
+    public void setRecurrence(String recurrence) {
+        this.recurrenceRule = recurrence == null || recurrence.isBlank() ? null : Recurrence.parse(recurrence);
+        this.recurrence = recurrenceRule == null ? null : recurrenceRule.toString();
+        changed();
+    }
+
+    public boolean hasRecurrence() {
+        return recurrence != null;
+    }
+
+    /**
+     * Due day of the first occurrence on or after the given day. One-off tasks return
+     * their due date whatever the day; a finished series returns its last occurrence.
+     */
+    public LocalDate nextDueDate(LocalDate onOrAfter) {
+        if (dueDate == null) return null;
+        LocalDate start = toLocalDate(dueDate);
+        Recurrence rule = recurrenceRule();
+        if (rule == null) return start;
+        LocalDate next = rule.next(start, onOrAfter);
+        if (next != null) return next;
+        LocalDate last = rule.last(start);
+        return last != null ? last : start;
+    }
+
+    /**
+     * The task once per occurrence due within [from, to]. A one-off task is returned
+     * itself; occurrences of a recurring task are copies with the occurrence's due date
+     * and the same id, created only for the requested window.
+     */
+    public List<Task> occurrencesBetween(LocalDate from, LocalDate to) {
+        if (dueDate == null) return Collections.emptyList();
+        LocalDate start = toLocalDate(dueDate);
+        Recurrence rule = recurrenceRule();
+        if (rule == null) {
+            return start.isBefore(from) || start.isAfter(to) ? Collections.emptyList() : Collections.singletonList(this);
+        }
+        List<LocalDate> dates = rule.between(start, from, to);
+        List<Task> occurrences = new ArrayList<>(dates.size());
+        for (LocalDate date : dates) {
+            Task occurrence = copy();
+            occurrence.dueDate = Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+            occurrences.add(occurrence);
+        }
+        return occurrences;
+    }
+
+    private Recurrence recurrenceRule() {
+        if (recurrenceRule == null && recurrence != null) {
+            recurrenceRule = Recurrence.parse(recurrence);
+        }
+        return recurrenceRule;
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    // Set operations to manage task tags
     public void addTag(String tag) {
-        if (!tags.contains(tag)) {
-            tags.add(tag);
+        if (tags.add(tag)) {
+            changed();
         }
     }
 
+    // Replaces all tags at once, e.g. with the tags loaded from the database
+    public void setTags(Collection<String> tags) {
+        this.tags = new LinkedHashSet<>(tags);
+        changed();
+    }
+
     public void removeTag(String tag) {
-        tags.remove(tag);
+        if (tags.remove(tag)) {
+            changed();
+        }
+    }
+
+    // Detached copy with the same field values and its own tag set; listeners are not copied
+    public Task copy() {
+        Task copy = new Task(id, title, description, dueDate, category, status);
+        copy.status = status;
+        copy.assignedUser = assignedUser;
+        copy.tags = new LinkedHashSet<>(tags);
+        copy.version = version;
+        copy.updatedAt = updatedAt;
+        copy.recurrence = recurrence;
+        copy.recurrenceRule = recurrenceRule;
+        return copy;
+    }
+
+    // Set by the TaskManager that owns this task
+    void setListener(TaskListener listener) {
+        this.listener = listener;
+    }
+
+    private void changed() {
+        if (listener != null) {
+            listener.taskUpdated(this);
+        }
     }
 
     // Formats tags as a single string
@@ -77,6 +192,7 @@ public class Task implements Serializable {
     // Marks task as completed
     public void markCompleted() {
         this.status = "Completed";
+        changed();
     }
 
     // Formats the due date to a readable string
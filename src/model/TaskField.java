@@ -0,0 +1,78 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+// Editable task fields with their database column names; the only columns an update may touch
+public enum TaskField {
+    TITLE("title", String.class),
+    DESCRIPTION("description", String.class),
+    DUE_DATE("due_date", Date.class),
+    CATEGORY("category", String.class),
+    STATUS("status", String.class),
+    RECURRENCE("recurrence", String.class),
+    ASSIGNED_USER("assigned_user", String.class);
+
+    private final String column;
+    private final Class<?> type;
+
+    TaskField(String column, Class<?> type) {
+        this.column = column;
+        this.type = type;
+    }
+
+    public String getColumn() { return column; }
+    public Class<?> getType() { return type; }
+
+    // Looks up a field by column name, rejecting anything outside the whitelist
+    public static TaskField fromColumn(String column) {
+        for (TaskField field : values()) {
+            if (field.column.equals(column)) return field;
+        }
+        throw new IllegalArgumentException("Unknown task column: " + column);
+    }
+
+    // Copies a value of this field onto a task
+    public void applyTo(Task task, Object value) {
+        switch (this) {
+            case TITLE: task.setTitle((String) value); break;
+            case DESCRIPTION: task.setDescription((String) value); break;
+            case DUE_DATE: task.setDueDate((Date) value); break;
+            case CATEGORY: task.setCategory((String) value); break;
+            case STATUS: task.setStatus((String) value); break;
+            case RECURRENCE: task.setRecurrence((String) value); break;
+            case ASSIGNED_USER: task.setAssignedUser((String) value); break;
+        }
+    }
+
+    // Reads this field's current value from a task
+    public Object valueOf(Task task) {
+        switch (this) {
+            case TITLE: return task.getTitle();
+            case DESCRIPTION: return task.getDescription();
+            case DUE_DATE: return task.getDueDate();
+            case CATEGORY: return task.getCategory();
+            case RECURRENCE: return task.getRecurrence();
+            case ASSIGNED_USER: return task.getAssignedUser();
+            default: return task.getStatus();
+        }
+    }
+
+    // Text form used in journals and wire formats; dates as yyyy-MM-dd
+    public String format(Object value) {
+        if (value == null) return null;
+        if (this == DUE_DATE) {
+            return ((Date) value).toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toString();
+        }
+        return (String) value;
+    }
+
+    public Object parse(String text) {
+        if (text == null) return null;
+        if (this == DUE_DATE) {
+            return Date.from(LocalDate.parse(text).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        }
+        return text;
+    }
+}
@@ -0,0 +1,12 @@
+package model;
+
+// Receives changes to tasks held by a TaskManager, e.g. to keep indexes and caches current
+public interface TaskListener {
+
+    default void taskAdded(Task task) { }
+
+    // Called after a field of the task changed through one of its setters
+    default void taskUpdated(Task task) { }
+
+    default void taskRemoved(Task task) { }
+}
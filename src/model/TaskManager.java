@@ -3,30 +3,183 @@ package model;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import persistence.TaskStorage;
+import monitoring.TaskQueryEvent;
+import persistence.JsonTaskRepository;
+import persistence.TaskRepository;
 
 // TaskManager handles business logic and task filtering/sorting operations
 public class TaskManager {
 
     // Stores all tasks in memory
     private List<Task> taskList;
+    // Store behind the list, or null when wrapping a plain list
+    private final TaskRepository repository;
+    // Ids of tasks changed through their setters since the last saveTasks
+    private final Set<Integer> dirty = new LinkedHashSet<>();
+    // Listeners told about every added, changed and removed task
+    private final List<TaskListener> listeners = new CopyOnWriteArrayList<>();
+    // Forwards changes made through a task's setters to the listeners
+    private final TaskListener taskChanges = new TaskListener() {
+        @Override
+        public void taskUpdated(Task task) {
+            dirty.add(task.getId());
+            refile(task);
+            statistics.add(task);
+            listeners.forEach(listener -> listener.taskUpdated(task));
+        }
+    };
+    // Full-text index over titles, descriptions and tags; built on the first search, then kept current as a listener
+    private final TaskSearchIndex searchIndex = new TaskSearchIndex();
+    private boolean indexed;
+    // Counts for analytics, kept current with every change
+    private final TaskStatistics statistics = new TaskStatistics();
+    private final Map<Integer, Task> tasksById = new HashMap<>();
+    // Tasks per assigned username (null for unassigned) keyed by id, so one user's tasks are found without a scan
+    private final Map<String, Map<Integer, Task>> partitions = new HashMap<>();
+    // Partition each task is filed under, to move it when its assignee changes
+    private final Map<Integer, String> partitionOf = new HashMap<>();
+    private int nextId = 1;
 
-    // Loads tasks from persistent storage on initialization
+    // Loads tasks from tasks.json, as it always has; pass TaskRepositories.getDefault() for the configured store
     public TaskManager() {
-        taskList = TaskStorage.loadTasks();
+        this(new JsonTaskRepository());
+    }
+
+    // Loads tasks from the given store and writes changes back to it
+    public TaskManager(TaskRepository repository) {
+        this.repository = repository;
+        setTasks(new ArrayList<>(repository.findAll()));
+    }
+
+    // Wraps an existing task list without touching persistent storage
+    public TaskManager(List<Task> tasks) {
+        this.repository = null;
+        setTasks(tasks);
+    }
+
+    // Registers a listener for task changes
+    public void addTaskListener(TaskListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeTaskListener(TaskListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Live view of the tasks matching the filter, sorted by order, or in list order when
+     * order is null. The view holds references to this manager's tasks and follows later
+     * changes until it is closed.
+     */
+    public TaskView view(Predicate<Task> filter, Comparator<Task> order) {
+        TaskView view = new TaskView(this, filter, order);
+        addTaskListener(view);
+        return view;
     }
 
-    // Adds a task and persists the updated list
+    // Adds a task and persists it; the store assigns its id
     public void addTask(Task task) {
+        if (repository != null && !repository.insert(task)) return;
         taskList.add(task);
-        TaskStorage.saveTasks(taskList);
+        track(task);
+        listeners.forEach(listener -> listener.taskAdded(task));
     }
 
     // Removes a task by title and updates storage
     public void removeTask(String title) {
-        taskList.removeIf(task -> task.getTitle().equals(title));
-        TaskStorage.saveTasks(taskList);
+        List<Task> removed = taskList.stream()
+                .filter(task -> task.getTitle().equals(title))
+                .collect(Collectors.toList());
+        if (removed.isEmpty()) return;
+        taskList.removeAll(removed);
+        for (Task task : removed) {
+            untrack(task);
+            listeners.forEach(listener -> listener.taskRemoved(task));
+        }
+        if (repository != null) {
+            repository.deleteAll(removed.stream().map(Task::getId).collect(Collectors.toList()));
+        }
+    }
+
+    // Removes a task by id and updates storage; false if there is no such task
+    public boolean removeTaskById(int id) {
+        Task task = tasksById.get(id);
+        if (task == null) return false;
+        taskList.remove(task);
+        untrack(task);
+        listeners.forEach(listener -> listener.taskRemoved(task));
+        if (repository != null) {
+            repository.delete(id);
+        }
+        return true;
+    }
+
+    // Returns up to limit tasks matching every word of the query, best matches first
+    public List<Task> search(String query, int limit) {
+        if (!indexed) {
+            taskList.forEach(searchIndex::index);
+            listeners.add(searchIndex);
+            indexed = true;
+        }
+        TaskQueryEvent event = TaskQueryEvent.start("search", taskList.size());
+        List<Task> result = new ArrayList<>();
+        for (int id : searchIndex.search(query, limit)) {
+            Task task = tasksById.get(id);
+            if (task != null) {
+                result.add(task);
+            }
+        }
+        event.end(result.size());
+        return result;
+    }
+
+    public Task getTaskById(int id) {
+        return tasksById.get(id);
+    }
+
+    // Tasks assigned to the user, in the order they were added; only that user's partition is read
+    public List<Task> getTasksForUser(String username) {
+        Map<Integer, Task> partition = partitions.getOrDefault(username, Collections.emptyMap());
+        TaskQueryEvent event = TaskQueryEvent.start("user", partition.size());
+        List<Task> result = new ArrayList<>(partition.values());
+        event.end(result.size());
+        return result;
+    }
+
+    public List<Task> getTasksForUser(User user) {
+        return getTasksForUser(user.getUsername());
+    }
+
+    // Pending tasks assigned to the user, filtered within that user's partition
+    public List<Task> getPendingTasksForUser(String username) {
+        Map<Integer, Task> partition = partitions.getOrDefault(username, Collections.emptyMap());
+        TaskQueryEvent event = TaskQueryEvent.start("userPending", partition.size());
+        List<Task> result = new ArrayList<>();
+        for (Task task : partition.values()) {
+            if (!"Completed".equalsIgnoreCase(task.getStatus())) result.add(task);
+        }
+        event.end(result.size());
+        return result;
+    }
+
+    public int countTasksForUser(String username) {
+        Map<Integer, Task> partition = partitions.get(username);
+        return partition == null ? 0 : partition.size();
+    }
+
+    // Usernames with at least one assigned task
+    public Set<String> getAssignedUsers() {
+        Set<String> users = new HashSet<>(partitions.keySet());
+        users.remove(null);
+        return users;
+    }
+
+    // Totals, status and category counts of the current tasks, read without a scan
+    public TaskStatistics getStatistics() {
+        return statistics;
     }
 
     // Returns all tasks
@@ -36,68 +189,181 @@ public class TaskManager {
 
     // Searches for a task by title using Stream API
     public Task getTaskByTitle(String title) {
-        return taskList.stream()
+        TaskQueryEvent event = TaskQueryEvent.start("title", taskList.size());
+        Task result = taskList.stream()
                 .filter(task -> task.getTitle().equals(title))
                 .findFirst()
                 .orElse(null);
+        event.end(result == null ? 0 : 1);
+        return result;
     }
 
-    // Sorts tasks by due date
+    // Sorts tasks by due date; recurring tasks sort by their next occurrence from today
     public void sortByDueDate() {
-        taskList.sort(Comparator.comparing(Task::getDueDate));
+        TaskQueryEvent event = TaskQueryEvent.start("sortByDueDate", taskList.size());
+        // Next occurrences are worked out once per task rather than on every comparison
+        LocalDate today = LocalDate.now();
+        Map<Task, Long> nextDue = new IdentityHashMap<>();
+        for (Task task : taskList) {
+            if (task.hasRecurrence()) {
+                nextDue.put(task, startOfDay(task.nextDueDate(today)));
+            }
+        }
+        if (nextDue.isEmpty()) {
+            taskList.sort(Comparator.comparing(Task::getDueDate));
+        } else {
+            taskList.sort(Comparator.comparingLong(task -> {
+                Long next = nextDue.get(task);
+                return next != null ? next : task.getDueDate().getTime();
+            }));
+        }
+        event.end(taskList.size());
     }
 
     // Filters and returns only completed tasks
     public List<Task> getCompletedTasks() {
-        return taskList.stream()
+        TaskQueryEvent event = TaskQueryEvent.start("completed", taskList.size());
+        List<Task> result = taskList.stream()
                 .filter(task -> "Completed".equalsIgnoreCase(task.getStatus()))
                 .collect(Collectors.toList());
+        event.end(result.size());
+        return result;
     }
 
     // Filters and returns only pending tasks
     public List<Task> getPendingTasks() {
-        return taskList.stream()
+        TaskQueryEvent event = TaskQueryEvent.start("pending", taskList.size());
+        List<Task> result = taskList.stream()
                 .filter(task -> !"Completed".equalsIgnoreCase(task.getStatus()))
                 .collect(Collectors.toList());
+        event.end(result.size());
+        return result;
     }
 
-    // Marks a task as completed by title and saves changes
-    public void markTaskAsCompleted(String title) {
+    // Marks a task as completed by title and saves changes; false if someone else changed it first
+    public boolean markTaskAsCompleted(String title) {
         Task task = getTaskByTitle(title);
-        if (task != null) {
-            task.setStatus("Completed");
-            TaskStorage.saveTasks(taskList);
-        }
+        if (task == null) return false;
+        task.setStatus("Completed");
+        return !saveTasks().contains(task.getId());
     }
 
-    // Returns tasks that are due today
+    // Returns tasks that are due today, including today's occurrence of recurring tasks
     public List<Task> getDueTodayTasks() {
         LocalDate today = LocalDate.now();
-        return taskList.stream()
-                .filter(task -> {
-                    LocalDate taskDate = task.getDueDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-                    return taskDate.isEqual(today);
-                })
-                .collect(Collectors.toList());
+        return getTasksDueBetween(today, today);
+    }
+
+    /**
+     * Returns the tasks due within [from, to]. Recurring tasks appear once per occurrence
+     * in the window, as copies carrying the occurrence's due date; occurrences outside
+     * the window are never created.
+     */
+    public List<Task> getTasksDueBetween(LocalDate from, LocalDate to) {
+        TaskQueryEvent event = TaskQueryEvent.start("dueBetween", taskList.size());
+        long fromMillis = startOfDay(from);
+        long toMillis = startOfDay(to.plusDays(1));
+        List<Task> result = new ArrayList<>();
+        for (Task task : taskList) {
+            if (task.hasRecurrence()) {
+                result.addAll(task.occurrencesBetween(from, to));
+            } else if (task.getDueDate() != null) {
+                long due = task.getDueDate().getTime();
+                if (due >= fromMillis && due < toMillis) result.add(task);
+            }
+        }
+        event.end(result.size());
+        return result;
+    }
+
+    private static long startOfDay(LocalDate day) {
+        return day.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
     }
 
     // Filters tasks by category
     public List<Task> getTasksByCategory(String category) {
-        return taskList.stream()
+        TaskQueryEvent event = TaskQueryEvent.start("category", taskList.size());
+        List<Task> result = taskList.stream()
                 .filter(task -> task.getCategory().equalsIgnoreCase(category))
                 .collect(Collectors.toList());
+        event.end(result.size());
+        return result;
     }
 
     // Filters tasks by tag
     public List<Task> getTasksByTag(String tag) {
-        return taskList.stream()
+        TaskQueryEvent event = TaskQueryEvent.start("tag", taskList.size());
+        List<Task> result = taskList.stream()
                 .filter(task -> task.getTags().contains(tag))
                 .collect(Collectors.toList());
+        event.end(result.size());
+        return result;
     }
 
-    // Saves the current state of task list
-    public void saveTasks() {
-        TaskStorage.saveTasks(taskList);
+    /**
+     * Writes tasks changed through their setters back to the store. A task is only
+     * written while the store still has the version this manager last read, so an edit
+     * made meanwhile by another client is not overwritten; such tasks are reloaded,
+     * dropping the local change, and their ids returned. Listeners hear about every
+     * saved or reloaded task once more, since its version is only known after the write.
+     */
+    public List<Integer> saveTasks() {
+        List<Integer> conflicts = new ArrayList<>();
+        if (repository == null) {
+            dirty.clear();
+            return conflicts;
+        }
+        List<Task> changed = new ArrayList<>();
+        for (int id : dirty) {
+            Task task = tasksById.get(id);
+            if (task != null) changed.add(task);
+        }
+        dirty.clear();
+        // One batch, so a file-backed store is written once rather than twice per task
+        Set<Integer> written = repository.saveAll(changed);
+        List<Task> saved = new ArrayList<>();
+        for (Task task : changed) {
+            if (written.contains(task.getId())) {
+                task.setVersion(task.getVersion() + 1);
+                saved.add(task);
+            } else {
+                conflicts.add(task.getId());
+            }
+        }
+        for (int id : conflicts) {
+            reload(id);
+            if (tasksById.containsKey(id)) saved.add(tasksById.get(id));
+        }
+        // Reloading goes through the setters, which marked the tasks dirty again
+        dirty.clear();
+        // Setting the version does not notify, so e.g. a replication log would ship the old one
+        for (Task task : saved) {
+            listeners.forEach(listener -> listener.taskUpdated(task));
+        }
+        return conflicts;
+    }
+
+    // Replaces a task's fields with the stored ones, or drops it if it was deleted from the store
+    private void reload(int id) {
+        Task task = tasksById.get(id);
+        Task stored = repository.findById(id);
+        if (stored == null) {
+            taskList.remove(task);
+            untrack(task);
+            listeners.forEach(listener -> listener.taskRemoved(task));
+            return;
+        }
+        for (TaskField field : TaskField.values()) {
+            Object value = field.valueOf(stored);
+            if (!Objects.equals(field.valueOf(task), value)) {
+                field.applyTo(task, value);
+            }
+        }
+        if (!task.getTags().equals(stored.getTags())) {
+            task.setTags(stored.getTags());
+        }
+        task.setVersion(stored.getVersion());
+        task.setUpdatedAt(stored.getUpdatedAt());
     }
 
     // Converts the task list into a readable string
@@ -110,6 +376,68 @@ public class TaskManager {
 
     // Replaces the current task list with a new one
     public void setTasks(List<Task> tasks) {
+        if (taskList != null) {
+            for (Task task : taskList) {
+                task.setListener(null);
+            }
+        }
         this.taskList = tasks;
+        tasksById.clear();
+        partitions.clear();
+        partitionOf.clear();
+        statistics.clear();
+        dirty.clear();
+        nextId = 1;
+        for (Task task : tasks) {
+            nextId = Math.max(nextId, task.getId() + 1);
+        }
+        for (Task task : tasks) {
+            track(task);
+        }
+        if (indexed) {
+            searchIndex.clear();
+            tasks.forEach(searchIndex::index);
+        }
+    }
+
+    // Gives the task an id if it has none and starts listening to it
+    private void track(Task task) {
+        if (task.getId() <= 0 || tasksById.containsKey(task.getId())) {
+            task.setId(nextId);
+        }
+        nextId = Math.max(nextId, task.getId() + 1);
+        tasksById.put(task.getId(), task);
+        file(task);
+        statistics.add(task);
+        task.setListener(taskChanges);
+    }
+
+    private void untrack(Task task) {
+        task.setListener(null);
+        tasksById.remove(task.getId());
+        unfile(task.getId());
+        statistics.remove(task.getId());
+    }
+
+    private void file(Task task) {
+        partitions.computeIfAbsent(task.getAssignedUser(), user -> new LinkedHashMap<>()).put(task.getId(), task);
+        partitionOf.put(task.getId(), task.getAssignedUser());
+    }
+
+    private void unfile(int id) {
+        if (!partitionOf.containsKey(id)) return;
+        String user = partitionOf.remove(id);
+        Map<Integer, Task> partition = partitions.get(user);
+        partition.remove(id);
+        // Users without tasks leave no empty partitions behind
+        if (partition.isEmpty()) partitions.remove(user);
+    }
+
+    // Moves a changed task to its assignee's partition if the assignee changed
+    private void refile(Task task) {
+        if (!Objects.equals(partitionOf.get(task.getId()), task.getAssignedUser())) {
+            unfile(task.getId());
+            file(task);
+        }
     }
 }
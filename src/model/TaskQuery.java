@@ -0,0 +1,132 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Filter and page for task lookups. Unset criteria match everything.
+ * Results are ordered by id, so offset/limit pages are stable.
+ * With a due window, a recurring task matches when any occurrence falls inside it
+ * and is returned once per occurrence; paging counts tasks, not occurrences.
+ */
+public class TaskQuery {
+
+    private String status;
+    private String category;
+    private String tag;
+    private String assignedUser;
+    private Date dueFrom;
+    private Date dueTo;
+    private boolean includeDescriptions = true;
+    private boolean includeArchive;
+    private int offset;
+    private int limit;
+
+    public TaskQuery status(String status) {
+        this.status = status;
+        return this;
+    }
+
+    public TaskQuery category(String category) {
+        this.category = category;
+        return this;
+    }
+
+    public TaskQuery tag(String tag) {
+        this.tag = tag;
+        return this;
+    }
+
+    // Tasks assigned to the user with this username, compared exactly
+    public TaskQuery assignedUser(String username) {
+        this.assignedUser = username;
+        return this;
+    }
+
+    // Due dates within [from, to], both inclusive; either end may be null
+    public TaskQuery dueBetween(Date from, Date to) {
+        this.dueFrom = from;
+        this.dueTo = to;
+        return this;
+    }
+
+    // Leaves descriptions out, for list views
+    public TaskQuery summaries() {
+        this.includeDescriptions = false;
+        return this;
+    }
+
+    // Also searches archived tasks; by default only active tasks are returned
+    public TaskQuery includeArchive() {
+        this.includeArchive = true;
+        return this;
+    }
+
+    // A limit of 0 means no limit
+    public TaskQuery page(int offset, int limit) {
+        this.offset = Math.max(0, offset);
+        this.limit = Math.max(0, limit);
+        return this;
+    }
+
+    public String getStatus() { return status; }
+    public String getCategory() { return category; }
+    public String getTag() { return tag; }
+    public String getAssignedUser() { return assignedUser; }
+    public Date getDueFrom() { return dueFrom; }
+    public Date getDueTo() { return dueTo; }
+    public boolean isIncludeDescriptions() { return includeDescriptions; }
+    public boolean isIncludeArchive() { return includeArchive; }
+    public int getOffset() { return offset; }
+    public int getLimit() { return limit; }
+
+    // Same rules as the SQL filter, for stores that filter in memory
+    public boolean matches(Task task) {
+        if (status != null && !status.equalsIgnoreCase(task.getStatus())) return false;
+        if (category != null && !category.equalsIgnoreCase(task.getCategory())) return false;
+        if (tag != null && !task.getTags().contains(tag)) return false;
+        if (assignedUser != null && !assignedUser.equals(task.getAssignedUser())) return false;
+        if (dueFrom == null && dueTo == null) return true;
+        if (task.getDueDate() == null) return false;
+        if (task.hasRecurrence()) {
+            return !expand(task).isEmpty();
+        }
+        if (dueFrom != null && task.getDueDate().before(dueFrom)) return false;
+        if (dueTo != null && task.getDueDate().after(dueTo)) return false;
+        return true;
+    }
+
+    /**
+     * Replaces each recurring task by its occurrences within the due window, dropping
+     * series with none. Without a due window the tasks are returned unchanged.
+     */
+    public List<Task> expandOccurrences(List<Task> tasks) {
+        if (dueFrom == null && dueTo == null) return tasks;
+        List<Task> result = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            if (task.hasRecurrence()) {
+                result.addAll(expand(task));
+            } else {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    // Occurrences in the window; an open end only keeps the first one, the series stands for the rest
+    private List<Task> expand(Task task) {
+        LocalDate from = dueFrom == null ? LocalDate.MIN : toLocalDate(dueFrom);
+        if (dueTo != null) {
+            return task.occurrencesBetween(from, toLocalDate(dueTo));
+        }
+        LocalDate next = task.nextDueDate(from);
+        return next.isBefore(from) ? new ArrayList<>() : task.occurrencesBetween(next, next);
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+}
@@ -0,0 +1,231 @@
+package model;
+
+import java.util.*;
+
+/**
+ * Inverted index over task titles, descriptions and tags.
+ *
+ * Text is split into lower-case alphanumeric tokens. Each token maps to the ids
+ * of the tasks containing it, weighted by where it occurs (title 3, tag 2,
+ * description 1). Updates are incremental: re-indexing a task only touches the
+ * tokens it had before and has now. A query matches tasks containing every query
+ * token; the last token also matches as a prefix, to support search-as-you-type.
+ * Results are ranked by total weight. Postings are bucketed by weight, so a search
+ * can stop once the best possible remaining score cannot enter the top results.
+ */
+public class TaskSearchIndex implements TaskListener {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int TAG_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int MAX_WEIGHT = TITLE_WEIGHT;
+    // Prefixes shorter than this only match whole tokens, and wide prefixes are capped
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    // Ids of the tasks containing one token, grouped by weight
+    private static final class Posting {
+        // Indexed by weight; null until a task has the token at that weight
+        private final List<Set<Integer>> byWeight = new ArrayList<>(Collections.nCopies(MAX_WEIGHT + 1, null));
+        private int size;
+
+        void put(int id, int weight) {
+            if (byWeight.get(weight) == null) {
+                byWeight.set(weight, new HashSet<>());
+            }
+            if (byWeight.get(weight).add(id)) size++;
+        }
+
+        void remove(int id, int weight) {
+            Set<Integer> ids = byWeight.get(weight);
+            if (ids != null && ids.remove(id)) size--;
+        }
+
+        // 0 when the task does not contain the token
+        int weightOf(int id) {
+            for (int weight = MAX_WEIGHT; weight > 0; weight--) {
+                Set<Integer> ids = byWeight.get(weight);
+                if (ids != null && ids.contains(id)) return weight;
+            }
+            return 0;
+        }
+
+        int size() { return size; }
+    }
+
+    // Sorted so the tokens sharing a prefix are a contiguous range
+    private final TreeMap<String, Posting> postings = new TreeMap<>();
+    // Task id -> its tokens and weights, so an update can remove exactly what it added
+    private final Map<Integer, Map<String, Integer>> tokensById = new HashMap<>();
+
+    // Adds or re-indexes a task
+    public synchronized void index(int id, String title, String description, Collection<String> tags) {
+        Map<String, Integer> tokens = new HashMap<>();
+        addTokens(tokens, title, TITLE_WEIGHT);
+        addTokens(tokens, description, DESCRIPTION_WEIGHT);
+        if (tags != null) {
+            for (String tag : tags) {
+                addTokens(tokens, tag, TAG_WEIGHT);
+            }
+        }
+
+        Map<String, Integer> previous = tokensById.put(id, tokens);
+        if (previous != null) {
+            for (Map.Entry<String, Integer> entry : previous.entrySet()) {
+                if (!entry.getValue().equals(tokens.get(entry.getKey()))) {
+                    removePosting(entry.getKey(), id, entry.getValue());
+                }
+            }
+        }
+        for (Map.Entry<String, Integer> entry : tokens.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), k -> new Posting()).put(id, entry.getValue());
+        }
+    }
+
+    public void index(Task task) {
+        index(task.getId(), task.getTitle(), task.getDescription(), task.getTags());
+    }
+
+    public synchronized void remove(int id) {
+        Map<String, Integer> previous = tokensById.remove(id);
+        if (previous == null) return;
+        for (Map.Entry<String, Integer> entry : previous.entrySet()) {
+            removePosting(entry.getKey(), id, entry.getValue());
+        }
+    }
+
+    public synchronized void clear() {
+        postings.clear();
+        tokensById.clear();
+    }
+
+    public synchronized int size() {
+        return tokensById.size();
+    }
+
+    /**
+     * Returns the ids of up to limit tasks matching every token of the query,
+     * best matches first. An empty query returns nothing.
+     */
+    public synchronized List<Integer> search(String query, int limit) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty() || limit <= 0) return Collections.emptyList();
+
+        // Postings per query token; the last one may be a prefix
+        List<Posting> matches = new ArrayList<>(queryTokens.size());
+        for (int i = 0; i < queryTokens.size(); i++) {
+            String token = queryTokens.get(i);
+            boolean prefix = i == queryTokens.size() - 1 && token.length() >= MIN_PREFIX_LENGTH;
+            Posting match = prefix ? prefixMatches(token) : postings.get(token);
+            if (match == null || match.size() == 0) return Collections.emptyList();
+            matches.add(match);
+        }
+
+        // Walk the smallest posting from its highest weight down and probe the others
+        matches.sort(Comparator.comparingInt(Posting::size));
+        Posting smallest = matches.get(0);
+        int othersMax = MAX_WEIGHT * (matches.size() - 1);
+        PriorityQueue<int[]> top = new PriorityQueue<>(limit + 1, Comparator.comparingInt((int[] hit) -> hit[1]));
+        for (int weight = MAX_WEIGHT; weight > 0; weight--) {
+            if (top.size() == limit && top.peek()[1] >= weight + othersMax) break;
+            Set<Integer> ids = smallest.byWeight.get(weight);
+            if (ids == null) continue;
+            for (int id : ids) {
+                int score = weight;
+                for (int m = 1; m < matches.size() && score > 0; m++) {
+                    int other = matches.get(m).weightOf(id);
+                    score = other == 0 ? 0 : score + other;
+                }
+                if (score == 0) continue;
+                if (top.size() < limit) {
+                    top.add(new int[]{id, score});
+                } else if (score > top.peek()[1]) {
+                    top.poll();
+                    top.add(new int[]{id, score});
+                }
+                // Nothing later in this bucket can score higher than a full top list of perfect matches
+                if (top.size() == limit && top.peek()[1] >= weight + othersMax) break;
+            }
+        }
+
+        List<Integer> result = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            result.add(top.poll()[0]);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    @Override
+    public void taskAdded(Task task) {
+        index(task);
+    }
+
+    @Override
+    public void taskUpdated(Task task) {
+        index(task);
+    }
+
+    @Override
+    public void taskRemoved(Task task) {
+        remove(task.getId());
+    }
+
+    // Splits text into lower-case runs of letters and digits
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static void addTokens(Map<String, Integer> tokens, String text, int weight) {
+        for (String token : tokenize(text)) {
+            tokens.merge(token, weight, Math::max);
+        }
+    }
+
+    // Best weight per task over the tokens starting with prefix
+    private Posting prefixMatches(String prefix) {
+        SortedMap<String, Posting> range = postings.subMap(prefix, prefix + Character.MAX_VALUE);
+        if (range.size() == 1) return range.values().iterator().next();
+
+        List<Posting> expansions = new ArrayList<>();
+        for (Posting posting : range.values()) {
+            expansions.add(posting);
+            if (expansions.size() == MAX_PREFIX_EXPANSIONS) break;
+        }
+        Posting merged = new Posting();
+        Set<Integer> seen = new HashSet<>();
+        for (int weight = MAX_WEIGHT; weight > 0; weight--) {
+            for (Posting posting : expansions) {
+                Set<Integer> ids = posting.byWeight.get(weight);
+                if (ids == null) continue;
+                for (int id : ids) {
+                    if (seen.add(id)) {
+                        merged.put(id, weight);
+                    }
+                }
+            }
+        }
+        return merged;
+    }
+
+    private void removePosting(String token, int id, int weight) {
+        Posting posting = postings.get(token);
+        if (posting == null) return;
+        posting.remove(id, weight);
+        if (posting.size() == 0) {
+            postings.remove(token);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package model;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Task counts for the analytics view, kept current as tasks are added, changed and
+ * removed instead of being recomputed from the full list: total, completed, pending,
+ * overdue and tasks per category. Each task's last counted status, category and due day
+ * are remembered so a change only moves the task between counters.
+ *
+ * A pending task is overdue once its due day has passed. Pending tasks that are not
+ * overdue yet are counted per due day; when the date changes, the days now in the past
+ * move into the overdue count in one step, so reads stay constant-time however many
+ * tasks there are.
+ */
+public class TaskStatistics implements TaskListener {
+
+    // What one task contributes to the counters
+    private static final class Counted {
+        final String status;
+        final String category;
+        final LocalDate dueDay;
+
+        Counted(Task task, Clock clock) {
+            this.status = task.getStatus();
+            this.category = task.getCategory();
+            this.dueDay = task.getDueDate() == null ? null
+                    : task.getDueDate().toInstant().atZone(clock.getZone()).toLocalDate();
+        }
+
+        boolean isCompleted() { return "Completed".equalsIgnoreCase(status); }
+        boolean isPending() { return "Pending".equalsIgnoreCase(status); }
+    }
+
+    private final Clock clock;
+    private final Map<Integer, Counted> counted = new HashMap<>();
+    private final Map<String, Integer> categories = new TreeMap<>();
+    // Pending tasks due today or later, by due day
+    private final TreeMap<LocalDate, Integer> pendingByDueDay = new TreeMap<>();
+    private int completed;
+    private int pending;
+    private int overdue;
+    private LocalDate today;
+
+    public TaskStatistics() {
+        this(Clock.systemDefaultZone());
+    }
+
+    // Reads the date from the given clock, so tests can move it past midnight
+    TaskStatistics(Clock clock) {
+        this.clock = clock;
+        this.today = LocalDate.now(clock);
+    }
+
+    // Counts a task, or recounts one already counted
+    public synchronized void add(Task task) {
+        rollOver();
+        Counted before = counted.put(task.getId(), new Counted(task, clock));
+        if (before != null) apply(before, -1);
+        apply(counted.get(task.getId()), 1);
+    }
+
+    public synchronized void remove(int id) {
+        rollOver();
+        Counted before = counted.remove(id);
+        if (before != null) apply(before, -1);
+    }
+
+    // Starts over with the given tasks
+    public synchronized void setTasks(Collection<Task> tasks) {
+        clear();
+        for (Task task : tasks) {
+            Counted c = new Counted(task, clock);
+            counted.put(task.getId(), c);
+            apply(c, 1);
+        }
+    }
+
+    public synchronized void clear() {
+        counted.clear();
+        categories.clear();
+        pendingByDueDay.clear();
+        completed = 0;
+        pending = 0;
+        overdue = 0;
+        today = LocalDate.now(clock);
+    }
+
+    @Override
+    public void taskAdded(Task task) {
+        add(task);
+    }
+
+    @Override
+    public void taskUpdated(Task task) {
+        add(task);
+    }
+
+    @Override
+    public void taskRemoved(Task task) {
+        remove(task.getId());
+    }
+
+    public synchronized int getTotal() {
+        return counted.size();
+    }
+
+    public synchronized int getCompleted() {
+        return completed;
+    }
+
+    public synchronized int getPending() {
+        return pending;
+    }
+
+    // Pending tasks whose due day is before today
+    public synchronized int getOverdue() {
+        rollOver();
+        return overdue;
+    }
+
+    // Tasks per category, alphabetically
+    public synchronized Map<String, Integer> getCategoryCounts() {
+        return new TreeMap<>(categories);
+    }
+
+    private void apply(Counted c, int delta) {
+        if (c.isCompleted()) completed += delta;
+        if (c.isPending()) {
+            pending += delta;
+            if (c.dueDay != null && c.dueDay.isBefore(today)) {
+                overdue += delta;
+            } else if (c.dueDay != null) {
+                add(pendingByDueDay, c.dueDay, delta);
+            }
+        }
+        if (c.category != null) add(categories, c.category, delta);
+    }
+
+    private static <K> void add(Map<K, Integer> counts, K key, int delta) {
+        counts.merge(key, delta, Integer::sum);
+        if (counts.get(key) == 0) counts.remove(key);
+    }
+
+    // Moves pending tasks of the days that have passed since the last call to overdue
+    private void rollOver() {
+        LocalDate now = LocalDate.now(clock);
+        if (!now.isAfter(today)) return;
+        today = now;
+        Map<LocalDate, Integer> passed = pendingByDueDay.headMap(today);
+        for (int count : passed.values()) {
+            overdue += count;
+        }
+        passed.clear();
+    }
+}
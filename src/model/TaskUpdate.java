@@ -0,0 +1,61 @@
+package model;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+// A set of changed task fields applied together as one partial update
+public class TaskUpdate {
+
+    private final EnumMap<TaskField, Object> values = new EnumMap<>(TaskField.class);
+
+    // An update setting every field to the task's current value
+    public static TaskUpdate of(Task task) {
+        TaskUpdate update = new TaskUpdate();
+        for (TaskField field : TaskField.values()) {
+            update.set(field, field.valueOf(task));
+        }
+        return update;
+    }
+
+    // Records a new value for a field; the value must match the field's type
+    public TaskUpdate set(TaskField field, Object value) {
+        if (value != null && !field.getType().isInstance(value)) {
+            throw new IllegalArgumentException(field + " expects " + field.getType().getSimpleName()
+                    + " but got " + value.getClass().getSimpleName());
+        }
+        values.put(field, value);
+        return this;
+    }
+
+    public Object get(TaskField field) {
+        return values.get(field);
+    }
+
+    // Fields in declaration order, which keeps generated SQL stable per combination
+    public Set<TaskField> getFields() {
+        return Collections.unmodifiableSet(values.keySet());
+    }
+
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    // Folds a later update into this one; the later value wins per field
+    public void merge(TaskUpdate later) {
+        values.putAll(later.values);
+    }
+
+    // Copies every changed field onto the task
+    public void applyTo(Task task) {
+        for (Map.Entry<TaskField, Object> entry : values.entrySet()) {
+            entry.getKey().applyTo(task, entry.getValue());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return values.toString();
+    }
+}
@@ -0,0 +1,146 @@
+package model;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Live, filtered and optionally sorted index over the tasks of a TaskManager.
+ * Rows are the manager's own Task objects, not copies. The view follows tasks added,
+ * changed and removed through the manager and reports each change as a row event,
+ * so a table can repaint single rows instead of reloading everything.
+ */
+public class TaskView implements TaskListener {
+
+    // Row-level changes of a view, reported after the view has been updated
+    public interface Listener {
+        void rowInserted(int row);
+        void rowUpdated(int row);
+        void rowRemoved(int row);
+    }
+
+    private final TaskManager taskManager;
+    private final Predicate<Task> filter;
+    // Null keeps the manager's order, new tasks going to the end
+    private final Comparator<Task> order;
+    private final List<Task> rows;
+    // Row of each task, by identity; kept in step with rows so lookups do not scan
+    private final Map<Task, Integer> positions = new IdentityHashMap<>();
+    private final List<Listener> listeners = new ArrayList<>();
+
+    TaskView(TaskManager taskManager, Predicate<Task> filter, Comparator<Task> order) {
+        this.taskManager = taskManager;
+        this.filter = filter;
+        this.order = order;
+        this.rows = new ArrayList<>();
+        for (Task task : taskManager.getAllTasks()) {
+            if (filter.test(task)) rows.add(task);
+        }
+        if (order != null) {
+            rows.sort(order);
+        }
+        renumber(0);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    public Task get(int row) {
+        return rows.get(row);
+    }
+
+    // Stops following the manager; the view keeps its last rows
+    public void close() {
+        taskManager.removeTaskListener(this);
+    }
+
+    @Override
+    public void taskAdded(Task task) {
+        if (filter.test(task)) {
+            insert(task);
+        }
+    }
+
+    // A change can move the task in or out of the view, or to another position in a sorted view
+    @Override
+    public void taskUpdated(Task task) {
+        int row = indexOf(task);
+        boolean matches = filter.test(task);
+        if (row < 0) {
+            if (matches) insert(task);
+            return;
+        }
+        if (!matches) {
+            remove(row);
+            return;
+        }
+        if (order != null && !inOrderAt(row)) {
+            remove(row);
+            insert(task);
+            return;
+        }
+        listeners.forEach(listener -> listener.rowUpdated(row));
+    }
+
+    @Override
+    public void taskRemoved(Task task) {
+        int row = indexOf(task);
+        if (row >= 0) {
+            remove(row);
+        }
+    }
+
+    private void insert(Task task) {
+        int row;
+        if (order == null) {
+            row = rows.size();
+        } else {
+            row = Collections.binarySearch(rows, task, order);
+            // Equal keys go after the existing ones, as a stable sort would have put them
+            if (row < 0) {
+                row = -row - 1;
+            } else {
+                while (row < rows.size() && order.compare(rows.get(row), task) == 0) row++;
+            }
+        }
+        rows.add(row, task);
+        renumber(row);
+        int inserted = row;
+        listeners.forEach(listener -> listener.rowInserted(inserted));
+    }
+
+    private void remove(int row) {
+        positions.remove(rows.remove(row));
+        renumber(row);
+        listeners.forEach(listener -> listener.rowRemoved(row));
+    }
+
+    private boolean inOrderAt(int row) {
+        Task task = rows.get(row);
+        return (row == 0 || order.compare(rows.get(row - 1), task) <= 0)
+                && (row == rows.size() - 1 || order.compare(task, rows.get(row + 1)) <= 0);
+    }
+
+    // Rows are the tasks themselves, so they are found by identity. A sorted view cannot
+    // binary-search instead: a task is changed before it is reported, so its sort key may
+    // no longer match its row.
+    private int indexOf(Task task) {
+        Integer row = positions.get(task);
+        return row == null ? -1 : row;
+    }
+
+    // Rows from the given one on have moved; an append renumbers only itself
+    private void renumber(int from) {
+        for (int i = from; i < rows.size(); i++) {
+            positions.put(rows.get(i), i);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel: five levels of 64 slots, each level covering 64 times
+ * the span of the one below. Scheduling and cancelling are constant time; advancing
+ * costs one slot per tick plus re-placing timeouts as they cascade to lower levels.
+ * Not thread-safe, callers synchronize.
+ */
+final class TimingWheel<T> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 5;
+
+    // A scheduled value; also the handle used to cancel it
+    static final class Timeout<T> {
+        final T value;
+        final long deadline;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(T value, long deadline) {
+            this.value = value;
+            this.deadline = deadline;
+        }
+
+        boolean isScheduled() {
+            return prev != null;
+        }
+    }
+
+    private final long tickMs;
+    // One circular list per slot, each headed by a sentinel
+    private final Timeout<T>[][] wheels;
+    // Timeouts whose deadline had already passed when they were placed
+    private final Timeout<T> expired = sentinel();
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long tickMs, long startMs) {
+        this.tickMs = tickMs;
+        this.currentTick = startMs / tickMs;
+        // Arrays of a generic type can only be created raw; this one only ever holds Timeout<T>
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Timeout<T>[][] slots = new Timeout[LEVELS][SLOTS];
+        this.wheels = slots;
+        for (Timeout<T>[] wheel : wheels) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheel[slot] = sentinel();
+            }
+        }
+    }
+
+    // Schedules the value to expire on the first tick at or after deadlineMs
+    Timeout<T> schedule(T value, long deadlineMs) {
+        Timeout<T> timeout = new Timeout<>(value, (deadlineMs + tickMs - 1) / tickMs);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    void cancel(Timeout<T> timeout) {
+        if (timeout.isScheduled()) {
+            unlink(timeout);
+            size--;
+        }
+    }
+
+    // Moves the wheel forward to nowMs and returns the values that expired, earliest first
+    List<T> advance(long nowMs) {
+        long target = nowMs / tickMs;
+        List<T> result = new ArrayList<>();
+        drain(expired, result);
+        while (currentTick < target) {
+            if (size == 0) {
+                currentTick = target;
+                break;
+            }
+            currentTick++;
+            // Timeouts in a higher level's slot move down once the tick enters that slot's span
+            for (int level = LEVELS - 1; level > 0; level--) {
+                int shift = BITS * level;
+                if ((currentTick & ((1L << shift) - 1)) == 0) {
+                    cascade(wheels[level][(int) ((currentTick >>> shift) & MASK)]);
+                }
+            }
+            drain(wheels[0][(int) (currentTick & MASK)], result);
+            drain(expired, result);
+        }
+        return result;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        for (Timeout<T>[] wheel : wheels) {
+            for (Timeout<T> head : wheel) {
+                detachAll(head);
+            }
+        }
+        detachAll(expired);
+        size = 0;
+    }
+
+    private void place(Timeout<T> timeout) {
+        long deadline = timeout.deadline;
+        if (deadline <= currentTick) {
+            link(expired, timeout);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = BITS * level;
+            if ((deadline >>> shift) - (currentTick >>> shift) < SLOTS) {
+                link(wheels[level][(int) ((deadline >>> shift) & MASK)], timeout);
+                return;
+            }
+        }
+        // Further out than the top level spans: park it in the top level's last slot,
+        // it is placed again with its real deadline when that slot cascades
+        int shift = BITS * (LEVELS - 1);
+        link(wheels[LEVELS - 1][(int) (((currentTick >>> shift) + SLOTS - 1) & MASK)], timeout);
+    }
+
+    private void cascade(Timeout<T> head) {
+        Timeout<T> timeout = detachAll(head);
+        while (timeout != null) {
+            Timeout<T> next = timeout.next;
+            timeout.next = null;
+            place(timeout);
+            timeout = next;
+        }
+    }
+
+    private void drain(Timeout<T> head, List<T> result) {
+        Timeout<T> timeout = detachAll(head);
+        while (timeout != null) {
+            Timeout<T> next = timeout.next;
+            timeout.next = null;
+            result.add(timeout.value);
+            size--;
+            timeout = next;
+        }
+    }
+
+    // Empties the slot and returns its timeouts as a null-terminated chain, all marked unscheduled
+    private Timeout<T> detachAll(Timeout<T> head) {
+        if (head.next == head) return null;
+        Timeout<T> first = head.next;
+        head.prev.next = null;
+        head.next = head;
+        head.prev = head;
+        for (Timeout<T> timeout = first; timeout != null; timeout = timeout.next) {
+            timeout.prev = null;
+        }
+        return first;
+    }
+
+    private static <T> void link(Timeout<T> head, Timeout<T> timeout) {
+        timeout.prev = head.prev;
+        timeout.next = head;
+        head.prev.next = timeout;
+        head.prev = timeout;
+    }
+
+    private static <T> void unlink(Timeout<T> timeout) {
+        timeout.prev.next = timeout.next;
+        timeout.next.prev = timeout.prev;
+        timeout.prev = null;
+        timeout.next = null;
+    }
+
+    private static <T> Timeout<T> sentinel() {
+        Timeout<T> head = new Timeout<>(null, 0);
+        head.prev = head;
+        head.next = head;
+        return head;
+    }
+}
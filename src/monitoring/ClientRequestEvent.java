@@ -0,0 +1,32 @@
+package monitoring;
+
+import jdk.jfr.*;
+
+// JFR event for one request line handled by a TaskServer client connection
+@Name("taskmanager.ClientRequest")
+@Label("Client Request")
+@Category({"Task Manager", "Server"})
+public class ClientRequestEvent extends Event {
+
+    @Label("Client")
+    public String client;
+
+    @Label("Command")
+    @Description("First word of the request line")
+    public String command;
+
+    @Label("Request Size")
+    @DataAmount
+    public int bytes;
+
+    // Starts timing a request; commit it once the reply is sent
+    public static ClientRequestEvent start(String client, String request) {
+        ClientRequestEvent event = new ClientRequestEvent();
+        event.client = client;
+        int space = request.indexOf(' ');
+        event.command = space < 0 ? request : request.substring(0, space);
+        event.bytes = request.length();
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,55 @@
+package monitoring;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event for one DatabaseManager call, from getting the connection to the last row read.
+ * Rows is the number of rows returned or changed. Every call is also counted in Metrics.
+ */
+@Name("taskmanager.Database")
+@Label("Database Call")
+@Category({"Task Manager", "Database"})
+public class DatabaseEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("SQL Kind")
+    @Description("SELECT, INSERT, UPDATE, DELETE or TRANSACTION for calls running several statements")
+    public String kind;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("Failed")
+    public boolean failed;
+
+    // Not recorded; times the call for Metrics when no recording is running
+    private transient long startNanos;
+
+    // Starts timing a call; finish it with end or fail
+    public static DatabaseEvent start(String operation, String kind) {
+        DatabaseEvent event = new DatabaseEvent();
+        event.operation = operation;
+        event.kind = kind;
+        event.startNanos = System.nanoTime();
+        Metrics.databaseCallStarted();
+        event.begin();
+        return event;
+    }
+
+    public void end(long rows) {
+        this.rows = rows;
+        finish();
+    }
+
+    public void fail() {
+        this.failed = true;
+        finish();
+    }
+
+    private void finish() {
+        Metrics.databaseCallFinished(System.nanoTime() - startNanos, failed);
+        commit();
+    }
+}
@@ -0,0 +1,76 @@
+package monitoring;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with four buckets per power of two of microseconds,
+ * so any percentile read from it is within 25% of the real value. Recording is a
+ * single atomic increment. Counts only grow; callers wanting a window subtract an
+ * earlier snapshot.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 4;
+    // Covers up to 2^40 microseconds, far more than any call takes
+    private static final int BUCKETS = 40 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void record(long nanos) {
+        counts.incrementAndGet(bucket(Math.max(0, nanos / 1000)));
+    }
+
+    // Current count of every bucket
+    public long[] snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return copy;
+    }
+
+    // Bucket counts recorded between two snapshots
+    public static long[] delta(long[] later, long[] earlier) {
+        long[] delta = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            delta[i] = later[i] - (earlier == null ? 0 : earlier[i]);
+        }
+        return delta;
+    }
+
+    public static long count(long[] counts) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    // Upper bound in microseconds of the given percentile (0-100), or 0 when nothing was recorded
+    public static long percentile(long[] counts, double percentile) {
+        long total = count(counts);
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(rank, 1)) return upperBound(i);
+        }
+        return upperBound(counts.length - 1);
+    }
+
+    // Values below SUB_BUCKETS get a bucket each, larger ones keep their top three bits
+    static int bucket(long micros) {
+        if (micros < SUB_BUCKETS) return (int) micros;
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int index = (exponent - 2) * SUB_BUCKETS + (int) (micros >> (exponent - 2));
+        return Math.min(index, BUCKETS - 1);
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = bucket / SUB_BUCKETS + 1;
+        long mantissa = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return ((mantissa + 1) << (exponent - 2)) - 1;
+    }
+}
@@ -0,0 +1,131 @@
+package monitoring;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process counters behind the diagnostics window, always on. They are fed by the
+ * same helpers that emit the JFR events, so every instrumented call is counted whether
+ * or not a recording is running; each update is one or two atomic operations.
+ */
+public final class Metrics {
+
+    // Duration of every DatabaseManager call
+    public static final LatencyHistogram DATABASE_LATENCY = new LatencyHistogram();
+    private static final AtomicInteger databaseCallsInFlight = new AtomicInteger();
+    private static final LongAdder databaseFailures = new LongAdder();
+    private static final LongAdder connectionsOpened = new LongAdder();
+
+    // Duration of in-memory TaskManager queries
+    public static final LatencyHistogram QUERY_LATENCY = new LatencyHistogram();
+    private static final AtomicInteger lastQueryTasks = new AtomicInteger();
+
+    // Time work waited in each WorkScheduler lane before a thread picked it up
+    public static final LatencyHistogram INTERACTIVE_QUEUE_TIME = new LatencyHistogram();
+    public static final LatencyHistogram BACKGROUND_QUEUE_TIME = new LatencyHistogram();
+    public static final LatencyHistogram BULK_QUEUE_TIME = new LatencyHistogram();
+    private static final LongAdder connectionWaits = new LongAdder();
+
+    // Last successful TaskStorage save, published as one object so the fields always match
+    private static volatile SaveStats lastSave;
+
+    // How far a replication replica trails its primary, as of the last message from it
+    private static volatile long replicationLagMillis;
+    private static volatile long replicationEntriesBehind;
+
+    private Metrics() {
+    }
+
+    public static final class SaveStats {
+        private final String file;
+        private final long nanos;
+        private final long bytes;
+        private final int tasks;
+        private final long finishedAt;
+
+        SaveStats(String file, long nanos, long bytes, int tasks, long finishedAt) {
+            this.file = file;
+            this.nanos = nanos;
+            this.bytes = bytes;
+            this.tasks = tasks;
+            this.finishedAt = finishedAt;
+        }
+
+        public String getFile() { return file; }
+        public long getNanos() { return nanos; }
+        public long getBytes() { return bytes; }
+        public int getTasks() { return tasks; }
+        public long getFinishedAt() { return finishedAt; }
+    }
+
+    static void databaseCallStarted() {
+        databaseCallsInFlight.incrementAndGet();
+    }
+
+    static void databaseCallFinished(long nanos, boolean failed) {
+        databaseCallsInFlight.decrementAndGet();
+        DATABASE_LATENCY.record(nanos);
+        if (failed) databaseFailures.increment();
+    }
+
+    // Called for every JDBC connection DatabaseManager opens
+    public static void connectionOpened() {
+        connectionsOpened.increment();
+    }
+
+    // Called when a database call has to wait for a free connection
+    public static void connectionWaited() {
+        connectionWaits.increment();
+    }
+
+    static void querySearched(long nanos, int tasks) {
+        QUERY_LATENCY.record(nanos);
+        lastQueryTasks.set(tasks);
+    }
+
+    static void saved(String file, long nanos, long bytes, int tasks) {
+        lastSave = new SaveStats(file, nanos, bytes, tasks, System.currentTimeMillis());
+    }
+
+    // Called by a replication replica for every entry or heartbeat it receives
+    public static void replicationLag(long millis, long entriesBehind) {
+        replicationLagMillis = millis;
+        replicationEntriesBehind = entriesBehind;
+    }
+
+    // DatabaseManager calls running right now; connections in use are counted by WorkScheduler
+    public static int getDatabaseCallsInFlight() {
+        return databaseCallsInFlight.get();
+    }
+
+    public static long getConnectionsOpened() {
+        return connectionsOpened.sum();
+    }
+
+    public static long getDatabaseFailures() {
+        return databaseFailures.sum();
+    }
+
+    public static long getConnectionWaits() {
+        return connectionWaits.sum();
+    }
+
+    // Size of the task list the last TaskManager query ran over
+    public static int getLastQueryTasks() {
+        return lastQueryTasks.get();
+    }
+
+    public static long getReplicationLagMillis() {
+        return replicationLagMillis;
+    }
+
+    public static long getReplicationEntriesBehind() {
+        return replicationEntriesBehind;
+    }
+
+    // Null until the first save of this run
+    public static SaveStats getLastSave() {
+        return lastSave;
+    }
+}
@@ -0,0 +1,47 @@
+package monitoring;
+
+import jdk.jfr.*;
+
+// JFR event for saving or loading a JSON task file with TaskStorage
+@Name("taskmanager.Storage")
+@Label("Task File I/O")
+@Category({"Task Manager", "Storage"})
+public class StorageEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("File")
+    public String file;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Tasks")
+    public int tasks;
+
+    @Label("Failed")
+    public boolean failed;
+
+    private transient long startNanos;
+
+    public static StorageEvent start(String operation, String file) {
+        StorageEvent event = new StorageEvent();
+        event.operation = operation;
+        event.file = file;
+        event.startNanos = System.nanoTime();
+        event.begin();
+        return event;
+    }
+
+    public void end(long bytes, int tasks, boolean failed) {
+        this.bytes = bytes;
+        this.tasks = tasks;
+        this.failed = failed;
+        if (!failed && "save".equals(operation)) {
+            Metrics.saved(file, System.nanoTime() - startNanos, bytes, tasks);
+        }
+        commit();
+    }
+}
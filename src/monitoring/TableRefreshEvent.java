@@ -0,0 +1,28 @@
+package monitoring;
+
+import jdk.jfr.*;
+
+// JFR event for filling the TaskManagerFX table, from loading the rows to handing them to the TableView
+@Name("taskmanager.TableRefresh")
+@Label("Table Refresh")
+@Category({"Task Manager", "UI"})
+public class TableRefreshEvent extends Event {
+
+    @Label("View")
+    public String view;
+
+    @Label("Rows")
+    public int rows;
+
+    public static TableRefreshEvent start(String view) {
+        TableRefreshEvent event = new TableRefreshEvent();
+        event.view = view;
+        event.begin();
+        return event;
+    }
+
+    public void end(int rows) {
+        this.rows = rows;
+        commit();
+    }
+}
@@ -0,0 +1,36 @@
+package monitoring;
+
+import jdk.jfr.*;
+
+// JFR event for an in-memory query on a TaskManager
+@Name("taskmanager.TaskQuery")
+@Label("Task Query")
+@Category({"Task Manager", "Model"})
+public class TaskQueryEvent extends Event {
+
+    @Label("Query")
+    public String query;
+
+    @Label("Tasks Searched")
+    public int tasks;
+
+    @Label("Result Size")
+    public int results;
+
+    private transient long startNanos;
+
+    public static TaskQueryEvent start(String query, int tasks) {
+        TaskQueryEvent event = new TaskQueryEvent();
+        event.query = query;
+        event.tasks = tasks;
+        event.startNanos = System.nanoTime();
+        event.begin();
+        return event;
+    }
+
+    public void end(int results) {
+        this.results = results;
+        Metrics.querySearched(System.nanoTime() - startNanos, tasks);
+        commit();
+    }
+}
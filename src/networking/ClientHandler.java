@@ -2,26 +2,282 @@ package networking;
 
 import java.io.*;
 import java.net.*;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import model.Task;
+import model.TaskField;
+import model.TaskQuery;
+import model.TaskUpdate;
+import monitoring.ClientRequestEvent;
+import persistence.TaskRepositories;
 
 public class ClientHandler extends Thread {
+    private static final Logger LOG = Logger.getLogger(ClientHandler.class.getName());
+
+    // Subscribers that did not log in are filed under this key and get every reminder
+    private static final String ANONYMOUS = "";
+    // Clients that sent SUBSCRIBE REMINDERS, by the user they logged in as
+    private static final Map<String, Set<ClientHandler>> subscribers = new ConcurrentHashMap<>();
+
     private Socket clientSocket;
+    private PrintWriter out;
+    // Set by LOGIN; routes the session to that user's tasks and reminders
+    private String user;
+    private boolean subscribed;
 
     public ClientHandler(Socket socket) {
         this.clientSocket = socket;
     }
 
+    // Sends a line to every subscribed client
+    public static void broadcast(String message) {
+        for (Set<ClientHandler> sessions : subscribers.values()) {
+            for (ClientHandler subscriber : sessions) {
+                subscriber.send(message);
+            }
+        }
+    }
+
+    /**
+     * Sends a line to the subscribed clients of one user and to subscribers that did not
+     * log in, without visiting any other user's sessions. A null user means everyone.
+     */
+    public static void sendToUser(String username, String message) {
+        if (username == null || username.isEmpty()) {
+            broadcast(message);
+            return;
+        }
+        sendTo(ANONYMOUS, message);
+        sendTo(username, message);
+    }
+
+    private static void sendTo(String key, String message) {
+        Set<ClientHandler> sessions = subscribers.get(key);
+        if (sessions == null) return;
+        for (ClientHandler subscriber : sessions) {
+            subscriber.send(message);
+        }
+    }
+
     @Override
     public void run() {
         try (BufferedReader in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
              PrintWriter out = new PrintWriter(clientSocket.getOutputStream(), true)) {
-            out.println("Connected to the Task Server!");
+            this.out = out;
+            send("Connected to the Task Server!");
+            String client = String.valueOf(clientSocket.getRemoteSocketAddress());
             String clientMessage;
             while ((clientMessage = in.readLine()) != null) {
-                System.out.println("Client: " + clientMessage);
-                out.println("Server received: " + clientMessage);
+                ClientRequestEvent event = ClientRequestEvent.start(client, clientMessage);
+                LOG.fine("Client: " + clientMessage);
+                try {
+                    handle(clientMessage);
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                    send("ERROR " + e.getMessage());
+                }
+                event.commit();
             }
         } catch (IOException e) {
-            e.printStackTrace();
+            LOG.log(Level.WARNING, "Client connection failed: " + e.getMessage(), e);
+        } finally {
+            unsubscribe();
         }
     }
+
+    private void handle(String clientMessage) {
+        String command = clientMessage.trim();
+        String upper = command.toUpperCase();
+        ReplicatedTaskManager tasks = TaskServer.getReplicatedTasks();
+        if ("SUBSCRIBE REMINDERS".equals(upper)) {
+            subscribe();
+            send("Subscribed to reminders");
+        } else if (upper.startsWith("LOGIN ")) {
+            login(command.substring(6).trim());
+        } else if ("MY TASKS".equals(upper)) {
+            sendMyTasks(tasks);
+        } else if (tasks == null) {
+            handleEdit(command, upper, clientMessage);
+        } else if ("LIST".equals(upper)) {
+            // Copied under the lock; the list changes as writes and replicated entries are applied
+            sendTasks(tasks.read(taskManager -> new ArrayList<>(taskManager.getAllTasks())));
+        } else if (upper.startsWith("ADD ")) {
+            add(tasks, command.substring(4).trim());
+        } else if (upper.startsWith("COMPLETE ")) {
+            complete(tasks, command);
+        } else if (upper.startsWith("DELETE ")) {
+            int id = Integer.parseInt(command.substring(7).trim());
+            send(tasks.write(taskManager -> taskManager.removeTaskById(id)) ? "OK" : "ERROR No task " + id);
+        } else if ("REPLICATION STATUS".equals(upper)) {
+            sendReplicationStatus(tasks);
+        } else {
+            send("Server received: " + clientMessage);
+        }
+    }
+
+    /**
+     * Versioned edits through the server's ConcurrentTaskStore:
+     * GET <id> replies with the task and "VERSION <id> <version>";
+     * UPDATE <id> <version> <column> <value> and COMPLETE <id> [<version>] reply
+     * "UPDATED <id> <new version>", or "CONFLICT <id> <current version>" when someone
+     * else changed the task after that version was read. COMPLETE without a version
+     * completes the task whatever its version.
+     */
+    private void handleEdit(String command, String upper, String clientMessage) {
+        ConcurrentTaskStore store = TaskServer.getTaskStore();
+        String[] parts = command.split(" ", 5);
+        if ("GET".equals(upper.split(" ")[0]) && parts.length == 2) {
+            Task task = store.get(Integer.parseInt(parts[1]));
+            if (task == null) {
+                send("ERROR No task " + parts[1]);
+            } else {
+                sendTasks(List.of(task));
+                send("VERSION " + task.getId() + " " + task.getVersion());
+            }
+        } else if (upper.startsWith("UPDATE ")) {
+            if (parts.length < 5) {
+                throw new IllegalArgumentException("Use UPDATE <id> <version> <column> <value>");
+            }
+            TaskField field = TaskField.fromColumn(parts[3].toLowerCase());
+            Object value;
+            try {
+                value = field.parse(parts[4]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid " + field.getColumn() + " " + parts[4]);
+            }
+            sendOutcome(store.update(Integer.parseInt(parts[1]), new TaskUpdate().set(field, value), Integer.parseInt(parts[2])), parts[1]);
+        } else if (upper.startsWith("COMPLETE ")) {
+            Integer[] target = parseComplete(command);
+            TaskUpdate update = new TaskUpdate().set(TaskField.STATUS, "Completed");
+            sendOutcome(target[1] == null ? store.update(target[0], update) : store.update(target[0], update, target[1]),
+                    String.valueOf(target[0]));
+        } else {
+            send("Server received: " + clientMessage);
+        }
+    }
+
+    private void sendOutcome(ConcurrentTaskStore.Result result, String id) {
+        switch (result.getOutcome()) {
+            case UPDATED: send("UPDATED " + id + " " + result.getTask().getVersion()); break;
+            case CONFLICT: send("CONFLICT " + id + " " + result.getTask().getVersion()); break;
+            default: send("ERROR No task " + id);
+        }
+    }
+
+    // COMPLETE <id> [<version>] on a replication primary, with the same replies as without replication
+    private void complete(ReplicatedTaskManager tasks, String command) {
+        Integer[] target = parseComplete(command);
+        int id = target[0];
+        Integer version = target[1];
+        send(tasks.write(taskManager -> {
+            Task task = taskManager.getTaskById(id);
+            if (task == null) return "ERROR No task " + id;
+            if (version != null && task.getVersion() != version) return "CONFLICT " + id + " " + task.getVersion();
+            task.setStatus("Completed");
+            if (taskManager.saveTasks().contains(id)) {
+                Task current = taskManager.getTaskById(id);
+                return current == null ? "ERROR No task " + id : "CONFLICT " + id + " " + current.getVersion();
+            }
+            return "UPDATED " + id + " " + task.getVersion();
+        }));
+    }
+
+    // The id and the optional version (null when left out) of COMPLETE <id> [<version>]
+    private static Integer[] parseComplete(String command) {
+        String[] parts = command.trim().split("\\s+");
+        if (parts.length < 2 || parts.length > 3) {
+            throw new IllegalArgumentException("Use COMPLETE <id> [<version>]");
+        }
+        return new Integer[]{Integer.parseInt(parts[1]), parts.length == 3 ? Integer.valueOf(parts[2]) : null};
+    }
+
+    // ADD <yyyy-MM-dd> <category> <title>
+    private void add(ReplicatedTaskManager tasks, String arguments) {
+        String[] parts = arguments.split(" ", 3);
+        if (parts.length < 3) {
+            throw new IllegalArgumentException("Use ADD <yyyy-MM-dd> <category> <title>");
+        }
+        Date dueDate;
+        try {
+            dueDate = (Date) TaskField.DUE_DATE.parse(parts[0]);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid date " + parts[0] + ", use yyyy-MM-dd");
+        }
+        Task task = new Task(0, parts[2], "", dueDate, parts[1], "Pending");
+        task.setAssignedUser(user);
+        boolean added = tasks.write(taskManager -> {
+            taskManager.addTask(task);
+            return taskManager.getTaskById(task.getId()) == task;
+        });
+        send(added ? "ADDED " + task.getId() : "ERROR Task was not added");
+    }
+
+    private void sendReplicationStatus(ReplicatedTaskManager tasks) {
+        if (tasks.isPrimary()) {
+            send("ROLE primary SEQ " + tasks.getLog().getLastSeq() + " REPLICAS " + tasks.getLog().getFollowerCount());
+        } else {
+            ReplicationReplica replica = tasks.getReplica();
+            send("ROLE replica SEQ " + replica.getAppliedSeq() + " BEHIND " + replica.getEntriesBehind()
+                    + " LAG_MS " + replica.getLagMillis() + " CONNECTED " + replica.isConnected());
+        }
+    }
+
+    private void login(String username) {
+        if (username.isEmpty() || username.length() > 50) {
+            send("ERROR Username must be 1 to 50 characters");
+            return;
+        }
+        // A subscription follows the session to the new user's reminders
+        boolean wasSubscribed = subscribed;
+        unsubscribe();
+        user = username;
+        if (wasSubscribed) subscribe();
+        send("Logged in as " + username);
+    }
+
+    private void sendMyTasks(ReplicatedTaskManager replicatedTasks) {
+        if (user == null) {
+            send("ERROR Log in first with LOGIN <username>");
+            return;
+        }
+        if (replicatedTasks != null) {
+            // Only this user's partition is read
+            sendTasks(replicatedTasks.read(taskManager -> taskManager.getTasksForUser(user)));
+        } else {
+            // Runs on the assigned_user index, so only this user's rows are read
+            sendTasks(TaskRepositories.getDefault().find(new TaskQuery().assignedUser(user).summaries()));
+        }
+    }
+
+    // Replies "TASK <id> <status> <due date or -> <title>" per task, then "END <count>"
+    private void sendTasks(List<Task> tasks) {
+        for (Task task : tasks) {
+            String due = task.getDueDate() == null ? "-" : TaskField.DUE_DATE.format(task.getDueDate());
+            send("TASK " + task.getId() + " " + task.getStatus() + " " + due + " " + task.getTitle());
+        }
+        send("END " + tasks.size());
+    }
+
+    private void subscribe() {
+        subscribers.computeIfAbsent(user == null ? ANONYMOUS : user, key -> new CopyOnWriteArraySet<>()).add(this);
+        subscribed = true;
+    }
+
+    private void unsubscribe() {
+        if (!subscribed) return;
+        Set<ClientHandler> sessions = subscribers.get(user == null ? ANONYMOUS : user);
+        if (sessions != null) sessions.remove(this);
+        subscribed = false;
+    }
+
+    // Replies and pushed reminders come from different threads, so writes are serialized
+    private synchronized void send(String message) {
+        out.println(message);
+    }
 }
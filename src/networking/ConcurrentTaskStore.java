@@ -0,0 +1,177 @@
+package networking;
+
+import model.Task;
+import model.TaskUpdate;
+import persistence.TaskRepository;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * The server's authoritative copy of tasks for concurrent editors. An update names the
+ * version of the task the client last saw and only applies while the task is still at
+ * that version; otherwise the client gets a conflict with the current task and has to
+ * reload it. Updates lock only their task's stripe, picked by id from a fixed set of
+ * locks, so edits of different tasks run in parallel while edits of one task queue up.
+ *
+ * The FX client, the write-behind queue, the importer and other processes write the
+ * store directly, so tasks kept here can be stale. They only save a read when the
+ * client's version matches; GET and any version mismatch read the store again. At most
+ * MAX_CACHED tasks are kept.
+ */
+public class ConcurrentTaskStore {
+
+    private static final Logger LOG = Logger.getLogger(ConcurrentTaskStore.class.getName());
+
+    public static final int DEFAULT_STRIPES = 64;
+    static final int MAX_CACHED = 10_000;
+
+    private final TaskRepository repository;
+    private final Object[] stripes;
+    // Tasks last read or written by id; never changed in place, replaced only under their stripe, evicted by any
+    private final Map<Integer, Task> tasks = new ConcurrentHashMap<>();
+    private final LongAdder conflicts = new LongAdder();
+
+    public enum Outcome { UPDATED, CONFLICT, NOT_FOUND }
+
+    // What became of an update, with the task as it is now (null when not found)
+    public static final class Result {
+        private final Outcome outcome;
+        private final Task task;
+
+        Result(Outcome outcome, Task task) {
+            this.outcome = outcome;
+            this.task = task;
+        }
+
+        public Outcome getOutcome() { return outcome; }
+        public Task getTask() { return task; }
+    }
+
+    public ConcurrentTaskStore(TaskRepository repository) {
+        this(repository, DEFAULT_STRIPES);
+    }
+
+    // The stripe count is rounded up to a power of two; one stripe is a single global lock
+    public ConcurrentTaskStore(TaskRepository repository, int stripes) {
+        this.repository = repository;
+        this.stripes = new Object[stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Object();
+        }
+    }
+
+    // A copy of the task as stored now, or null if there is none
+    public Task get(int id) {
+        synchronized (stripe(id)) {
+            Task task = refresh(id);
+            return task == null ? null : task.copy();
+        }
+    }
+
+    /**
+     * Applies the update if the task is still at expectedVersion, in the store and here,
+     * and returns the task with its new version. A task changed by someone else since
+     * comes back unchanged as a CONFLICT, a missing one as NOT_FOUND.
+     */
+    public Result update(int id, TaskUpdate update, int expectedVersion) {
+        synchronized (stripe(id)) {
+            Task current = load(id);
+            if (current == null) {
+                return new Result(Outcome.NOT_FOUND, null);
+            }
+            if (current.getVersion() != expectedVersion) {
+                // The kept copy may predate a write made past this store; only the store can tell
+                current = refresh(id);
+                if (current == null) {
+                    return new Result(Outcome.NOT_FOUND, null);
+                }
+                if (current.getVersion() != expectedVersion) {
+                    return conflict(id, current, expectedVersion);
+                }
+            }
+            if (!repository.update(id, update, expectedVersion)) {
+                // Changed or deleted behind this store's back, e.g. by another process on the same database
+                tasks.remove(id);
+                current = load(id);
+                return current == null ? new Result(Outcome.NOT_FOUND, null) : conflict(id, current, expectedVersion);
+            }
+            Task updated = current.copy();
+            update.applyTo(updated);
+            updated.setVersion(expectedVersion + 1);
+            updated.setUpdatedAt(new Date());
+            keep(id, updated);
+            return new Result(Outcome.UPDATED, updated.copy());
+        }
+    }
+
+    // Applies the update to the task at whatever version it is now, e.g. for a client that does not track versions
+    public Result update(int id, TaskUpdate update) {
+        synchronized (stripe(id)) {
+            Task current = refresh(id);
+            if (current == null) {
+                return new Result(Outcome.NOT_FOUND, null);
+            }
+            return update(id, update, current.getVersion());
+        }
+    }
+
+    // Forgets a task so the next access reads it from the store again
+    public void invalidate(int id) {
+        synchronized (stripe(id)) {
+            tasks.remove(id);
+        }
+    }
+
+    // Updates refused because the task had moved past the client's version
+    public long getConflictCount() {
+        return conflicts.sum();
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    private Result conflict(int id, Task current, int expectedVersion) {
+        conflicts.increment();
+        LOG.fine("Update of task " + id + " at version " + expectedVersion + " lost, it is at version " + current.getVersion());
+        return new Result(Outcome.CONFLICT, current.copy());
+    }
+
+    // Reads a task through the cache; callers hold its stripe
+    private Task load(int id) {
+        Task task = tasks.get(id);
+        return task != null ? task : refresh(id);
+    }
+
+    // Reads a task from the store and keeps it; callers hold its stripe
+    private Task refresh(int id) {
+        Task task = repository.findById(id);
+        if (task == null) {
+            tasks.remove(id);
+        } else {
+            keep(id, task);
+        }
+        return task;
+    }
+
+    private void keep(int id, Task task) {
+        if (tasks.put(id, task) == null && tasks.size() > MAX_CACHED) {
+            // Any other task will do; a dropped one is only read from the store again
+            for (Integer other : tasks.keySet()) {
+                if (other != id) {
+                    tasks.remove(other);
+                    break;
+                }
+            }
+        }
+    }
+
+    private Object stripe(int id) {
+        // Spreads the high bits too, so ids far apart still use every stripe
+        return stripes[(id ^ (id >>> 16)) & (stripes.length - 1)];
+    }
+}
@@ -0,0 +1,267 @@
+package networking;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the JDBC target used by DatabaseManager.
+ *
+ * Settings are read from system properties first, then from an optional
+ * database.properties file in the working directory:
+ *   taskmanager.db.mode      mysql (default) or embedded
+ *   taskmanager.db.url       full JDBC URL, overrides the mode default
+ *   taskmanager.db.user      database user
+ *   taskmanager.db.password  database password
+ *   taskmanager.db.batchSize statements per executeBatch call in bulk operations (default 1000)
+ *   taskmanager.db.writeBehind  true to queue UI edits and write them in the background
+ *   taskmanager.db.fetchSize rows fetched per round trip when reading tasks (default 500)
+ *   taskmanager.repository   task store used by the application: jdbc (default), json or memory
+ *   taskmanager.archive.afterDays  completed tasks unchanged this long move to the archive (default 30, 0 = never)
+ *   taskmanager.archive.intervalMinutes  how often the archiver runs (default 60)
+ *   taskmanager.db.maxConnections  database connections open at once (default 10)
+ *   taskmanager.db.interactiveConnections  of those, kept free for interactive work (default 2)
+ *   taskmanager.work.interactiveThreads, .backgroundThreads, .bulkThreads  WorkScheduler lane sizes (default 4, 2, 1)
+ *   taskmanager.cache.entries  query results kept by QueryCache (default 256, 0 = no caching)
+ *   taskmanager.cache.rows   tasks kept across all cached results (default 50000)
+ *   taskmanager.cache.ttlSeconds  how long a cached result is served (default 30)
+ *
+ * Embedded mode runs an in-process H2 database stored under ./data, so the same
+ * SQL works offline without a MySQL server. All SQL in this package sticks to
+ * syntax both databases accept. H2's MODE=MySQL is deliberately not used: it
+ * hands out duplicate AUTO_INCREMENT ids when several transactions insert at once.
+ */
+public final class DatabaseConfig {
+
+    public static final String MODE = "taskmanager.db.mode";
+    public static final String URL = "taskmanager.db.url";
+    public static final String USER = "taskmanager.db.user";
+    public static final String PASSWORD = "taskmanager.db.password";
+    public static final String BATCH_SIZE = "taskmanager.db.batchSize";
+    public static final String WRITE_BEHIND = "taskmanager.db.writeBehind";
+    public static final String FETCH_SIZE = "taskmanager.db.fetchSize";
+    public static final String REPOSITORY = "taskmanager.repository";
+    public static final String ARCHIVE_AFTER_DAYS = "taskmanager.archive.afterDays";
+    public static final String ARCHIVE_INTERVAL_MINUTES = "taskmanager.archive.intervalMinutes";
+    public static final String MAX_CONNECTIONS = "taskmanager.db.maxConnections";
+    public static final String INTERACTIVE_CONNECTIONS = "taskmanager.db.interactiveConnections";
+    public static final String INTERACTIVE_THREADS = "taskmanager.work.interactiveThreads";
+    public static final String BACKGROUND_THREADS = "taskmanager.work.backgroundThreads";
+    public static final String BULK_THREADS = "taskmanager.work.bulkThreads";
+    public static final String CACHE_ENTRIES = "taskmanager.cache.entries";
+    public static final String CACHE_ROWS = "taskmanager.cache.rows";
+    public static final String CACHE_TTL_SECONDS = "taskmanager.cache.ttlSeconds";
+
+    private static final String CONFIG_FILE = "database.properties";
+
+    private static final String MYSQL_URL = "jdbc:mysql://localhost:3306/task_manager?serverTimezone=UTC&useSSL=false&rewriteBatchedStatements=true&cachePrepStmts=true&useCursorFetch=true";
+    private static final String EMBEDDED_URL = "jdbc:h2:./data/task_manager;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    // Table definition understood by both MySQL and H2
+    private static final String SCHEMA =
+            "CREATE TABLE IF NOT EXISTS tasks ("
+                    + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                    + "title VARCHAR(255) NOT NULL, "
+                    + "description TEXT, "
+                    + "due_date DATE, "
+                    + "category VARCHAR(50), "
+                    + "status VARCHAR(20) DEFAULT 'Pending', "
+                    + "version INT NOT NULL DEFAULT 0, "
+                    + "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
+
+    // One row per tag of a task; removed together with the task
+    private static final String TAGS_SCHEMA =
+            "CREATE TABLE IF NOT EXISTS task_tags ("
+                    + "task_id INT NOT NULL, "
+                    + "tag VARCHAR(50) NOT NULL, "
+                    + "PRIMARY KEY (task_id, tag), "
+                    + "FOREIGN KEY (task_id) REFERENCES tasks(id) ON DELETE CASCADE)";
+
+    // Cold tier for completed tasks moved out by TaskArchiver; ids are kept, nothing is generated here.
+    // Later columns come from ADDED_COLUMNS, so both task tables always have the same ones.
+    private static final String ARCHIVE_SCHEMA =
+            "CREATE TABLE IF NOT EXISTS tasks_archive ("
+                    + "id INT PRIMARY KEY, "
+                    + "title VARCHAR(255) NOT NULL, "
+                    + "description TEXT, "
+                    + "due_date DATE, "
+                    + "category VARCHAR(50), "
+                    + "status VARCHAR(20), "
+                    + "archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
+
+    private static final String ARCHIVE_TAGS_SCHEMA =
+            "CREATE TABLE IF NOT EXISTS task_tags_archive ("
+                    + "task_id INT NOT NULL, "
+                    + "tag VARCHAR(50) NOT NULL, "
+                    + "PRIMARY KEY (task_id, tag))";
+
+    // Secondary indexes as {table, name, columns}, created when missing
+    private static final String[][] INDEXES = {
+            {"task_tags", "idx_task_tags_tag", "tag, task_id"},
+            {"tasks", "idx_tasks_updated_at", "updated_at"},
+            // Lets the archiver find old completed tasks without scanning the table
+            {"tasks", "idx_tasks_status_updated_at", "status, updated_at"},
+            {"task_tags_archive", "idx_task_tags_archive_tag", "tag, task_id"},
+            // "My tasks" lookups read one user's rows, in id order, without scanning the others
+            {"tasks", "idx_tasks_assigned_user", "assigned_user, id"}
+    };
+
+    // Tables holding tasks; both get every added column
+    private static final String[] TASK_TABLES = {"tasks", "tasks_archive"};
+
+    // Columns added after the original schema, created on tables that predate them
+    private static final String[][] ADDED_COLUMNS = {
+            {"version", "INT NOT NULL DEFAULT 0"},
+            {"updated_at", "TIMESTAMP DEFAULT CURRENT_TIMESTAMP"},
+            // Repeat rule of a recurring task, see model.Recurrence
+            {"recurrence", "VARCHAR(100)"},
+            // Username of the user the task is assigned to, see model.User
+            {"assigned_user", "VARCHAR(50)"}
+    };
+
+    private static Properties fileProperties;
+    // JDBC URLs whose schema is up to date; the URL can change, e.g. when a tool switches to embedded mode
+    private static final Set<String> schemaReady = ConcurrentHashMap.newKeySet();
+
+    private DatabaseConfig() {
+    }
+
+    public static boolean isEmbedded() {
+        return "embedded".equalsIgnoreCase(get(MODE, "mysql"));
+    }
+
+    public static String getUrl() {
+        return get(URL, isEmbedded() ? EMBEDDED_URL : MYSQL_URL);
+    }
+
+    public static String getUser() {
+        return get(USER, isEmbedded() ? "sa" : "root");
+    }
+
+    public static String getPassword() {
+        return get(PASSWORD, "");
+    }
+
+    public static int getBatchSize() {
+        return Math.max(1, Integer.parseInt(get(BATCH_SIZE, "1000")));
+    }
+
+    public static int getFetchSize() {
+        return Math.max(1, Integer.parseInt(get(FETCH_SIZE, "500")));
+    }
+
+    public static String getRepository() {
+        return get(REPOSITORY, "jdbc").toLowerCase();
+    }
+
+    public static int getArchiveAfterDays() {
+        return Math.max(0, Integer.parseInt(get(ARCHIVE_AFTER_DAYS, "30")));
+    }
+
+    public static int getArchiveIntervalMinutes() {
+        return Math.max(1, Integer.parseInt(get(ARCHIVE_INTERVAL_MINUTES, "60")));
+    }
+
+    public static boolean isWriteBehind() {
+        return Boolean.parseBoolean(get(WRITE_BEHIND, "false"));
+    }
+
+    public static int getMaxConnections() {
+        return Math.max(1, Integer.parseInt(get(MAX_CONNECTIONS, "10")));
+    }
+
+    public static int getInteractiveConnections() {
+        return Math.max(0, Integer.parseInt(get(INTERACTIVE_CONNECTIONS, "2")));
+    }
+
+    public static int getInteractiveThreads() {
+        return Math.max(1, Integer.parseInt(get(INTERACTIVE_THREADS, "4")));
+    }
+
+    public static int getBackgroundThreads() {
+        return Math.max(1, Integer.parseInt(get(BACKGROUND_THREADS, "2")));
+    }
+
+    public static int getBulkThreads() {
+        return Math.max(1, Integer.parseInt(get(BULK_THREADS, "1")));
+    }
+
+    public static int getQueryCacheEntries() {
+        return Math.max(0, Integer.parseInt(get(CACHE_ENTRIES, "256")));
+    }
+
+    public static int getQueryCacheRows() {
+        return Math.max(0, Integer.parseInt(get(CACHE_ROWS, "50000")));
+    }
+
+    public static int getQueryCacheTtlSeconds() {
+        return Math.max(0, Integer.parseInt(get(CACHE_TTL_SECONDS, "30")));
+    }
+
+    // Creates the tables, any missing later columns and indexes on first use of a URL; later calls are no-ops
+    static void ensureSchema(Connection conn, String url) throws SQLException {
+        if (schemaReady.contains(url)) return;
+        synchronized (DatabaseConfig.class) {
+            if (schemaReady.contains(url)) return;
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(SCHEMA);
+                stmt.execute(ARCHIVE_SCHEMA);
+                DatabaseMetaData meta = conn.getMetaData();
+                for (String table : TASK_TABLES) {
+                    for (String[] column : ADDED_COLUMNS) {
+                        try (ResultSet rs = meta.getColumns(conn.getCatalog(), null, table, column[0])) {
+                            if (!rs.next()) {
+                                stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + column[0] + " " + column[1]);
+                            }
+                        }
+                    }
+                }
+                stmt.execute(TAGS_SCHEMA);
+                stmt.execute(ARCHIVE_TAGS_SCHEMA);
+                for (String[] index : INDEXES) {
+                    if (!hasIndex(meta, conn.getCatalog(), index[0], index[1])) {
+                        stmt.execute("CREATE INDEX " + index[1] + " ON " + index[0] + " (" + index[2] + ")");
+                    }
+                }
+            }
+            schemaReady.add(url);
+        }
+    }
+
+    private static boolean hasIndex(DatabaseMetaData meta, String catalog, String table, String name) throws SQLException {
+        try (ResultSet rs = meta.getIndexInfo(catalog, null, table, false, false)) {
+            while (rs.next()) {
+                if (name.equalsIgnoreCase(rs.getString("INDEX_NAME"))) return true;
+            }
+        }
+        return false;
+    }
+
+    private static String get(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = fileProperties().getProperty(key);
+        }
+        return value == null ? defaultValue : value;
+    }
+
+    private static synchronized Properties fileProperties() {
+        if (fileProperties == null) {
+            fileProperties = new Properties();
+            try (InputStream in = new FileInputStream(CONFIG_FILE)) {
+                fileProperties.load(in);
+            } catch (IOException e) {
+                // No config file: fall back to system properties and defaults
+            }
+        }
+        return fileProperties;
+    }
+}
@@ -1,26 +1,67 @@
 package networking;
 
+import java.io.IOException;
 import java.sql.*;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import model.Task;
+import model.TaskField;
+import model.TaskQuery;
+import model.TaskUpdate;
+import monitoring.DatabaseEvent;
+import monitoring.Metrics;
 
 // Manages all database operations using JDBC
 public class DatabaseManager {
 
-    // Establishes a connection to the MySQL database
+    private static final Logger LOG = Logger.getLogger(DatabaseManager.class.getName());
+
+    /**
+     * Establishes a connection to the configured database (MySQL or embedded). Waits while
+     * the connection limit is reached, and for background and bulk work also while only
+     * the connections reserved for interactive work are left; see WorkScheduler.
+     */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection("jdbc:mysql://localhost:3306/task_manager?serverTimezone=UTC&useSSL=false", "root", "");
+        return WorkScheduler.getDefault().open(() -> {
+            String url = DatabaseConfig.getUrl();
+            Connection conn = DriverManager.getConnection(url, DatabaseConfig.getUser(), DatabaseConfig.getPassword());
+            Metrics.connectionOpened();
+            try {
+                DatabaseConfig.ensureSchema(conn, url);
+            } catch (SQLException e) {
+                conn.close();
+                throw e;
+            }
+            return conn;
+        });
     }
 
-    // Inserts a new task into the database
-    public static void insertTask(String title, String description, String dueDate, String category, String status) {
+    // Inserts a new task into the database and returns its generated id, or -1 if it was not added
+    public static int insertTask(String title, String description, String dueDate, String category, String status) {
         String sql = "INSERT INTO tasks (title, description, due_date, category, status) VALUES (?, ?, ?, ?, ?)";
+        DatabaseEvent event = DatabaseEvent.start("insertTask", "INSERT");
+        // Parsed before the insert commits; a form the database takes but valueOf does not is left null
+        java.sql.Date due = null;
+        if (dueDate != null) {
+            try {
+                due = java.sql.Date.valueOf(dueDate);
+            } catch (IllegalArgumentException e) {
+                LOG.fine("Due date " + dueDate + " left to the database to parse");
+            }
+        }
 
         try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             pstmt.setString(1, title);
             pstmt.setString(2, description);
@@ -29,50 +70,459 @@ public class DatabaseManager {
             pstmt.setString(5, status);
 
             int affectedRows = pstmt.executeUpdate();
+            event.end(affectedRows);
 
             if (affectedRows > 0) {
-                System.out.println("Task added successfully.");
+                LOG.fine("Task added successfully.");
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        int id = keys.getInt(1);
+                        if (dueDate != null && due == null) {
+                            // Which due-date filters the task matches is unknown, so no cached result can be trusted
+                            QueryCache.clear();
+                        } else {
+                            QueryCache.inserted(Collections.singletonList(new Task(id, title, description, due, category, status)));
+                        }
+                        return id;
+                    }
+                }
             } else {
-                System.out.println("Task was not added.");
+                LOG.info("Task was not added.");
             }
 
         } catch (SQLException e) {
             // Handles SQL-related exceptions
-            System.out.println("SQL Error: " + e.getMessage());
+            event.fail();
+            LOG.log(Level.WARNING, "SQL Error: " + e.getMessage(), e);
+        }
+        return -1;
+    }
+
+    // Columns loaded for full tasks and for list-view summaries (no description)
+    private static final String TASK_COLUMNS = "id, title, description, due_date, category, status, version, updated_at, recurrence, assigned_user";
+    private static final String SUMMARY_COLUMNS = "id, title, due_date, category, status, version, updated_at, recurrence, assigned_user";
+    // Set by every update, for optimistic locking and change-since queries
+    private static final String CHANGE_MARKERS = "version = version + 1, updated_at = CURRENT_TIMESTAMP";
+
+    // Retrieves a single task with its tags, or null if there is none with that id
+    public static Task getTask(int taskId) {
+        List<Task> tasks = queryTasks("getTask", "SELECT " + TASK_COLUMNS + " FROM tasks WHERE id = ?",
+                "SELECT task_id, tag FROM task_tags WHERE task_id = ?", taskId);
+        return tasks.isEmpty() ? null : tasks.get(0);
+    }
+
+    // Active and archived tasks (and their tags) read as one table
+    private static final String ALL_TASKS_SOURCE =
+            "(SELECT " + TASK_COLUMNS + " FROM tasks UNION ALL SELECT " + TASK_COLUMNS + " FROM tasks_archive)";
+    private static final String ALL_TAGS_SOURCE =
+            "(SELECT task_id, tag FROM task_tags UNION ALL SELECT task_id, tag FROM task_tags_archive)";
+
+    /**
+     * Retrieves one page of the tasks matching the query, ordered by id.
+     * Every criterion becomes part of the WHERE clause; only the values are bound.
+     * Archived tasks are only read when the query asks for them.
+     */
+    public static List<Task> findTasks(TaskQuery query) {
+        String tasksSource = query.isIncludeArchive() ? ALL_TASKS_SOURCE : "tasks";
+        String tagsSource = query.isIncludeArchive() ? ALL_TAGS_SOURCE : "task_tags";
+        StringBuilder where = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+        if (query.getStatus() != null) {
+            where.append(" AND LOWER(t.status) = LOWER(?)");
+            params.add(query.getStatus());
+        }
+        if (query.getCategory() != null) {
+            where.append(" AND LOWER(t.category) = LOWER(?)");
+            params.add(query.getCategory());
+        }
+        if (query.getTag() != null) {
+            where.append(" AND EXISTS (SELECT 1 FROM ").append(tagsSource).append(" g WHERE g.task_id = t.id AND g.tag = ?)");
+            params.add(query.getTag());
+        }
+        if (query.getAssignedUser() != null) {
+            // Exact match, so the lookup stays on idx_tasks_assigned_user
+            where.append(" AND t.assigned_user = ?");
+            params.add(query.getAssignedUser());
+        }
+        if (query.getDueFrom() != null) {
+            // A series that started earlier may still have occurrences in the window; TaskQuery expands them below
+            where.append(" AND (t.due_date >= ? OR t.recurrence IS NOT NULL)");
+            params.add(new java.sql.Date(query.getDueFrom().getTime()));
+        }
+        if (query.getDueTo() != null) {
+            where.append(" AND t.due_date <= ?");
+            params.add(new java.sql.Date(query.getDueTo().getTime()));
+        }
+
+        String columns = query.isIncludeDescriptions() ? TASK_COLUMNS : SUMMARY_COLUMNS;
+        String filter = where.length() == 0 ? "" : " WHERE" + where.substring(4);
+        // MySQL has no OFFSET without LIMIT, so an unlimited page uses the largest limit instead
+        String page = query.getLimit() == 0 && query.getOffset() == 0 ? ""
+                : " LIMIT " + (query.getLimit() > 0 ? query.getLimit() : Integer.MAX_VALUE) + " OFFSET " + query.getOffset();
+        String sql = "SELECT t." + columns.replace(", ", ", t.") + " FROM " + tasksSource + " t" + filter + " ORDER BY t.id" + page;
+        // Tags of the same page of rows, selected by the same filter; MySQL only allows LIMIT in a derived table here
+        String tagSql = "SELECT o.task_id, o.tag FROM " + tagsSource + " o WHERE o.task_id IN (SELECT id FROM ("
+                + "SELECT t.id FROM " + tasksSource + " t" + filter + " ORDER BY t.id" + page + ") p)";
+        if (!QueryCache.isEnabled()) {
+            return query.expandOccurrences(queryTasks("findTasks", sql, tagSql, params.toArray()));
+        }
+        // The SQL already spells out every criterion, so with the bound values it identifies the result
+        String key = sql + " " + params;
+        List<Task> cached = QueryCache.get(key);
+        if (cached != null) return cached;
+        long generation = QueryCache.generation();
+        List<Task> tasks = query.expandOccurrences(queryTasks("findTasks", sql, tagSql, params.toArray()));
+        QueryCache.put(key, query, generation, tasks);
+        return tasks;
+    }
+
+    /**
+     * Moves up to limit completed tasks last changed before the cutoff, with their tags,
+     * to the archive tables in one transaction. Returns the number moved; callers repeat
+     * until it is below the limit.
+     */
+    public static int archiveCompletedTasks(java.util.Date cutoff, int limit) {
+        DatabaseEvent event = DatabaseEvent.start("archiveCompletedTasks", "TRANSACTION");
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                List<Integer> ids = new ArrayList<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "SELECT id FROM tasks WHERE status = 'Completed' AND updated_at < ? ORDER BY id LIMIT " + limit)) {
+                    pstmt.setTimestamp(1, new Timestamp(cutoff.getTime()));
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            ids.add(rs.getInt(1));
+                        }
+                    }
+                }
+                if (ids.isEmpty()) {
+                    conn.commit();
+                    event.end(0);
+                    return 0;
+                }
+
+                String in = " IN (" + String.join(", ", java.util.Collections.nCopies(ids.size(), "?")) + ")";
+                String[] statements = {
+                        "INSERT INTO tasks_archive (" + TASK_COLUMNS + ") SELECT " + TASK_COLUMNS + " FROM tasks WHERE id" + in,
+                        "INSERT INTO task_tags_archive (task_id, tag) SELECT task_id, tag FROM task_tags WHERE task_id" + in,
+                        // Cascades to task_tags
+                        "DELETE FROM tasks WHERE id" + in
+                };
+                int moved = 0;
+                for (String sql : statements) {
+                    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                        for (int i = 0; i < ids.size(); i++) {
+                            pstmt.setInt(i + 1, ids.get(i));
+                        }
+                        moved = pstmt.executeUpdate();
+                    }
+                }
+                conn.commit();
+                event.end(moved);
+                QueryCache.deleted(ids);
+                return moved;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            event.fail();
+            LOG.log(Level.WARNING, "Error archiving tasks: " + e.getMessage(), e);
+            return 0;
         }
     }
 
+    // Tasks inserted or updated after the given time; deletions are not reported
+    public static List<Task> getTasksChangedSince(java.util.Date since) {
+        return queryTasks("getTasksChangedSince", "SELECT " + TASK_COLUMNS + " FROM tasks WHERE updated_at > ? ORDER BY id",
+                "SELECT o.task_id, o.tag FROM task_tags o JOIN tasks t ON t.id = o.task_id WHERE t.updated_at > ?",
+                new Timestamp(since.getTime()));
+    }
+
     // Retrieves all tasks from the database
     public static List<Task> getTasks() {
-        List<Task> tasks = new ArrayList<>();
-        String sql = "SELECT * FROM tasks";
+        return queryTasks("getTasks", "SELECT " + TASK_COLUMNS + " FROM tasks", ALL_TAGS_SQL);
+    }
+
+    // Retrieves all tasks without descriptions, for list views; see getTaskDescription
+    public static List<Task> getTaskSummaries() {
+        return queryTasks("getTaskSummaries", "SELECT " + SUMMARY_COLUMNS + " FROM tasks", ALL_TAGS_SQL);
+    }
+
+    // Retrieves the tasks carrying a tag; the filter runs in the database using the tag index
+    public static List<Task> getTasksByTag(String tag) {
+        return queryTasks("getTasksByTag", taggedSql(TASK_COLUMNS), TAGS_OF_TAGGED_SQL, tag);
+    }
+
+    public static List<Task> getTaskSummariesByTag(String tag) {
+        return queryTasks("getTaskSummariesByTag", taggedSql(SUMMARY_COLUMNS), TAGS_OF_TAGGED_SQL, tag);
+    }
+
+    // Tags of every task, and all tags of the tasks carrying a given tag
+    private static final String ALL_TAGS_SQL = "SELECT task_id, tag FROM task_tags";
+    private static final String TAGS_OF_TAGGED_SQL =
+            "SELECT o.task_id, o.tag FROM task_tags g JOIN task_tags o ON o.task_id = g.task_id WHERE g.tag = ?";
+
+    private static String taggedSql(String columns) {
+        return "SELECT t." + columns.replace(", ", ", t.")
+                + " FROM tasks t JOIN task_tags g ON g.task_id = t.id WHERE g.tag = ?";
+    }
+
+    // Every distinct tag in use, alphabetically
+    public static List<String> getAllTags() {
+        List<String> tags = new ArrayList<>();
+        DatabaseEvent event = DatabaseEvent.start("getAllTags", "SELECT");
 
         try (Connection conn = getConnection();
              Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
+             ResultSet rs = stmt.executeQuery("SELECT DISTINCT tag FROM task_tags ORDER BY tag")) {
             while (rs.next()) {
-                String status = rs.getString("status");
-                if (status == null || status.trim().isEmpty()) {
-                    status = "Pending";
+                tags.add(rs.getString(1));
+            }
+            event.end(tags.size());
+        } catch (SQLException e) {
+            event.fail();
+            LOG.log(Level.WARNING, "Error retrieving tags: " + e.getMessage(), e);
+        }
+        return tags;
+    }
+
+    // Replaces the tags of a task in one transaction
+    public static boolean setTaskTags(int taskId, Collection<String> tags) {
+        DatabaseEvent event = DatabaseEvent.start("setTaskTags", "TRANSACTION");
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM task_tags WHERE task_id = ?")) {
+                    pstmt.setInt(1, taskId);
+                    pstmt.executeUpdate();
+                }
+                // Counts as a change for change-since readers, but not for optimistic version checks
+                try (PreparedStatement pstmt = conn.prepareStatement("UPDATE tasks SET updated_at = CURRENT_TIMESTAMP WHERE id = ?")) {
+                    pstmt.setInt(1, taskId);
+                    pstmt.executeUpdate();
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO task_tags (task_id, tag) VALUES (?, ?)")) {
+                    for (String tag : new LinkedHashSet<>(tags)) {
+                        pstmt.setInt(1, taskId);
+                        pstmt.setString(2, tag);
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                }
+                conn.commit();
+                event.end(tags.size());
+                QueryCache.tagged(taskId, tags);
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            event.fail();
+            LOG.log(Level.WARNING, "Error saving tags: " + e.getMessage(), e);
+            return false;
+        }
+    }
+
+    // Task ids per tag lookup in attachTags
+    private static final int TAG_PAGE_SIZE = 500;
+
+    /**
+     * Fills in the tags of a page-by-page stream of tasks with one query per page of
+     * task ids, never one query per task. Pages of
+     * closely spaced ids use an index range scan (BETWEEN), which is much cheaper
+     * than a long IN (...) list; scattered ids fall back to IN (...).
+     */
+    private static void attachTags(Connection conn, List<Task> tasks) throws SQLException {
+        if (tasks.isEmpty()) return;
+        Map<Integer, Task> byId = byId(tasks);
+        int[] ids = byId.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        for (int start = 0; start < ids.length; start += TAG_PAGE_SIZE) {
+            int end = Math.min(start + TAG_PAGE_SIZE, ids.length);
+            if (ids[end - 1] - ids[start] < 4 * TAG_PAGE_SIZE) {
+                try (PreparedStatement pstmt = conn.prepareStatement("SELECT task_id, tag FROM task_tags WHERE task_id BETWEEN ? AND ?")) {
+                    pstmt.setInt(1, ids[start]);
+                    pstmt.setInt(2, ids[end - 1]);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        addTags(rs, byId);
+                    }
+                }
+                continue;
+            }
+            StringBuilder sql = new StringBuilder("SELECT task_id, tag FROM task_tags WHERE task_id IN (");
+            for (int i = start; i < end; i++) {
+                sql.append(i == start ? "?" : ", ?");
+            }
+            sql.append(')');
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                for (int i = start; i < end; i++) {
+                    pstmt.setInt(i - start + 1, ids[i]);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    addTags(rs, byId);
+                }
+            }
+        }
+    }
+
+    private static Map<Integer, Task> byId(List<Task> tasks) {
+        Map<Integer, Task> byId = new HashMap<>(tasks.size() * 2);
+        for (Task task : tasks) {
+            byId.put(task.getId(), task);
+        }
+        return byId;
+    }
+
+    private static void addTags(ResultSet rs, Map<Integer, Task> byId) throws SQLException {
+        while (rs.next()) {
+            Task task = byId.get(rs.getInt(1));
+            if (task != null) {
+                task.addTag(rs.getString(2));
+            }
+        }
+    }
+
+    // Loads the description of a single task when it is opened
+    public static String getTaskDescription(int taskId) {
+        String sql = "SELECT description FROM tasks WHERE id = ?";
+        DatabaseEvent event = DatabaseEvent.start("getTaskDescription", "SELECT");
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, taskId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                boolean found = rs.next();
+                event.end(found ? 1 : 0);
+                return found ? rs.getString(1) : null;
+            }
+
+        } catch (SQLException e) {
+            event.fail();
+            LOG.log(Level.WARNING, "Error retrieving task description: " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    // Receives tasks one at a time from streamTasks; returning false stops the stream
+    public interface TaskStreamHandler {
+        boolean accept(Task task) throws IOException;
+    }
+
+    /**
+     * Streams every task through the handler without collecting them in memory.
+     * Uses a forward-only cursor with the configured fetch size, so only one
+     * fetch worth of rows is held at a time. Returns the number of tasks handled.
+     */
+    public static long streamTasks(TaskStreamHandler handler) throws SQLException, IOException {
+        return streamTasks(true, handler);
+    }
+
+    /**
+     * Streams full tasks with their tags, or summaries without descriptions or tags
+     * when includeDescriptions is false. Tags are looked up a page of tasks at a time
+     * on a second connection, so the cursor on the first stays open.
+     */
+    public static long streamTasks(boolean includeDescriptions, TaskStreamHandler handler) throws SQLException, IOException {
+        DatabaseEvent event = DatabaseEvent.start("streamTasks", "SELECT");
+        try {
+            long count = streamRows(includeDescriptions, handler);
+            event.end(count);
+            return count;
+        } catch (SQLException | IOException | RuntimeException e) {
+            event.fail();
+            throw e;
+        }
+    }
+
+    private static long streamRows(boolean includeDescriptions, TaskStreamHandler handler) throws SQLException, IOException {
+        long count = 0;
+        int pageSize = includeDescriptions ? TAG_PAGE_SIZE : 1;
+        List<Task> page = new ArrayList<>(pageSize);
+        try (Connection conn = getConnection();
+             Connection tagConn = includeDescriptions ? getConnection() : null;
+             Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            // With useCursorFetch MySQL keeps the result on the server and sends it fetch by fetch
+            stmt.setFetchSize(DatabaseConfig.getFetchSize());
+            try (ResultSet rs = stmt.executeQuery("SELECT " + (includeDescriptions ? TASK_COLUMNS : SUMMARY_COLUMNS) + " FROM tasks ORDER BY id")) {
+                TaskRowMapper mapper = new TaskRowMapper(rs.getMetaData());
+                boolean more = true;
+                while (more) {
+                    more = rs.next();
+                    if (more) {
+                        page.add(mapper.map(rs));
+                        if (page.size() < pageSize) continue;
+                    }
+                    if (tagConn != null) {
+                        attachTags(tagConn, page);
+                    }
+                    for (Task task : page) {
+                        count++;
+                        if (!handler.accept(task)) return count;
+                    }
+                    page.clear();
                 }
+            }
+        }
+        return count;
+    }
+
+    // Counts all tasks, e.g. to report export progress
+    public static long countTasks() {
+        DatabaseEvent event = DatabaseEvent.start("countTasks", "SELECT");
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM tasks")) {
+            long count = rs.next() ? rs.getLong(1) : 0;
+            event.end(1);
+            return count;
+        } catch (SQLException e) {
+            event.fail();
+            LOG.log(Level.WARNING, "Error counting tasks: " + e.getMessage(), e);
+            return 0;
+        }
+    }
 
-                // Parses and constructs a Task object from database fields
-                Task task = new Task(
-                        rs.getInt("id"),
-                        rs.getString("title"),
-                        rs.getString("description"),
-                        new SimpleDateFormat("yyyy-MM-dd").parse(rs.getString("due_date")),
-                        rs.getString("category"),
-                        status
-                );
-                tasks.add(task);
+    /**
+     * Runs a task query with parameters, then tagSql with the same parameters
+     * to fetch the tags of those rows in a single pass.
+     */
+    private static List<Task> queryTasks(String operation, String sql, String tagSql, Object... params) {
+        List<Task> tasks = new ArrayList<>();
+        DatabaseEvent event = DatabaseEvent.start(operation, "SELECT");
+
+        try (Connection conn = getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setFetchSize(DatabaseConfig.getFetchSize());
+                for (int i = 0; i < params.length; i++) {
+                    pstmt.setObject(i + 1, params[i]);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    TaskRowMapper mapper = new TaskRowMapper(rs.getMetaData());
+                    while (rs.next()) {
+                        tasks.add(mapper.map(rs));
+                    }
+                }
+            }
+            if (!tasks.isEmpty()) {
+                try (PreparedStatement pstmt = conn.prepareStatement(tagSql)) {
+                    pstmt.setFetchSize(DatabaseConfig.getFetchSize());
+                    for (int i = 0; i < params.length; i++) {
+                        pstmt.setObject(i + 1, params[i]);
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        addTags(rs, byId(tasks));
+                    }
+                }
             }
+            event.end(tasks.size());
 
         } catch (SQLException e) {
-            System.out.println("Error retrieving tasks: " + e.getMessage());
-        } catch (ParseException e) {
-            System.out.println("Error parsing due_date: " + e.getMessage());
+            event.fail();
+            LOG.log(Level.WARNING, "Error retrieving tasks: " + e.getMessage(), e);
         }
 
         return tasks;
@@ -84,31 +534,91 @@ public class DatabaseManager {
         return (str.length() > length) ? str.substring(0, length - 3) + "..." : str;
     }
 
-    // Updates a single column of a task by ID
-    public static void updateTask(int taskId, String column, String newValue) {
-        String sql = "UPDATE tasks SET " + column + " = ? WHERE id = ?";
+    // SQL per combination of changed fields, built once and reused
+    private static final Map<Set<TaskField>, String> updateSqlCache = new ConcurrentHashMap<>();
+    private static final Map<Set<TaskField>, String> versionedUpdateSqlCache = new ConcurrentHashMap<>();
+
+    // Builds "UPDATE tasks SET a = ?, b = ?, version = version + 1, updated_at = ... WHERE id = ?" from whitelisted fields only
+    static String updateSql(Set<TaskField> fields, boolean checkVersion) {
+        Map<Set<TaskField>, String> cache = checkVersion ? versionedUpdateSqlCache : updateSqlCache;
+        return cache.computeIfAbsent(EnumSet.copyOf(fields), key -> {
+            StringBuilder sql = new StringBuilder("UPDATE tasks SET ");
+            for (TaskField field : key) {
+                sql.append(field.getColumn()).append(" = ?, ");
+            }
+            sql.append(CHANGE_MARKERS).append(" WHERE id = ?");
+            if (checkVersion) {
+                sql.append(" AND version = ?");
+            }
+            return sql.toString();
+        });
+    }
+
+    // Binds the update's values in field order followed by the id; returns the next parameter index
+    static int bindUpdate(PreparedStatement pstmt, TaskUpdate update, int taskId) throws SQLException {
+        int index = 1;
+        for (TaskField field : update.getFields()) {
+            Object value = update.get(field);
+            if (field == TaskField.DUE_DATE) {
+                if (value != null) {
+                    pstmt.setDate(index++, new java.sql.Date(((java.util.Date) value).getTime()));
+                } else {
+                    pstmt.setNull(index++, Types.DATE);
+                }
+            } else {
+                pstmt.setString(index++, (String) value);
+            }
+        }
+        pstmt.setInt(index++, taskId);
+        return index;
+    }
+
+    // Applies several changed fields of a task in a single statement
+    public static boolean updateTask(int taskId, TaskUpdate update) {
+        return updateTask(taskId, update, null);
+    }
+
+    /**
+     * Applies several changed fields of a task in a single statement.
+     * When expectedVersion is given the update only succeeds if nobody changed the task
+     * since that version was read; false then means the task was modified or deleted.
+     */
+    public static boolean updateTask(int taskId, TaskUpdate update, Integer expectedVersion) {
+        if (update.isEmpty()) return true;
+        String sql = updateSql(update.getFields(), expectedVersion != null);
+        DatabaseEvent event = DatabaseEvent.start("updateTask", "UPDATE");
 
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setString(1, newValue);
-            pstmt.setInt(2, taskId);
+            int next = bindUpdate(pstmt, update, taskId);
+            if (expectedVersion != null) {
+                pstmt.setInt(next, expectedVersion);
+            }
             int rowsAffected = pstmt.executeUpdate();
+            event.end(rowsAffected);
 
             if (rowsAffected > 0) {
-                System.out.println("Task updated successfully.");
+                LOG.fine("Task updated successfully.");
+                QueryCache.updated(Collections.singletonList(taskId), update);
+                return true;
+            } else if (expectedVersion != null) {
+                LOG.info("Task " + taskId + " was changed or removed by another user.");
             } else {
-                System.out.println("Task not found.");
+                LOG.info("Task " + taskId + " not found.");
             }
 
         } catch (SQLException e) {
-            System.out.println("Error updating task: " + e.getMessage());
+            event.fail();
+            LOG.log(Level.WARNING, "Error updating task: " + e.getMessage(), e);
         }
+        return false;
     }
 
     // Specifically updates task status field
     public static void updateTaskStatus(int taskId, String newStatus) {
-        String sql = "UPDATE tasks SET status = ? WHERE id = ?";
+        String sql = "UPDATE tasks SET status = ?, " + CHANGE_MARKERS + " WHERE id = ?";
+        DatabaseEvent event = DatabaseEvent.start("updateTaskStatus", "UPDATE");
 
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -116,36 +626,263 @@ public class DatabaseManager {
             pstmt.setString(1, newStatus);
             pstmt.setInt(2, taskId);
             int rowsAffected = pstmt.executeUpdate();
+            event.end(rowsAffected);
 
             if (rowsAffected > 0) {
-                System.out.println("Task status updated successfully.");
+                LOG.fine("Task status updated successfully.");
+                QueryCache.updated(Collections.singletonList(taskId), new TaskUpdate().set(TaskField.STATUS, newStatus));
             } else {
-                System.out.println("Task not found.");
+                LOG.info("Task " + taskId + " not found.");
             }
 
         } catch (SQLException e) {
-            System.out.println("Error updating task status: " + e.getMessage());
+            event.fail();
+            LOG.log(Level.WARNING, "Error updating task status: " + e.getMessage(), e);
         }
     }
 
     // Deletes a task from the database by ID
-    public static void deleteTask(int taskId) {
+    public static boolean deleteTask(int taskId) {
         String sql = "DELETE FROM tasks WHERE id = ?";
+        DatabaseEvent event = DatabaseEvent.start("deleteTask", "DELETE");
 
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setInt(1, taskId);
             int rowsAffected = pstmt.executeUpdate();
+            event.end(rowsAffected);
 
             if (rowsAffected > 0) {
-                System.out.println("Task deleted successfully.");
+                LOG.fine("Task deleted successfully.");
+                QueryCache.deleted(Collections.singletonList(taskId));
+                return true;
             } else {
-                System.out.println("Task not found.");
+                LOG.info("Task " + taskId + " not found.");
+            }
+
+        } catch (SQLException e) {
+            event.fail();
+            LOG.log(Level.WARNING, "Error deleting task: " + e.getMessage(), e);
+        }
+        return false;
+    }
+
+    // Binds one item of a batch to the prepared statement
+    private interface BatchBinder<T> {
+        void bind(PreparedStatement pstmt, T item) throws SQLException;
+    }
+
+    // Runs one statement for every item in batches of the configured size, all in a single transaction
+    private static <T> int executeInBatches(String operation, String kind, String sql, Collection<T> items, BatchBinder<T> binder) throws SQLException {
+        if (items.isEmpty()) return 0;
+        int batchSize = DatabaseConfig.getBatchSize();
+        int affected = 0;
+        DatabaseEvent event = DatabaseEvent.start(operation, kind);
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            try {
+                int pending = 0;
+                for (T item : items) {
+                    binder.bind(pstmt, item);
+                    pstmt.addBatch();
+                    if (++pending == batchSize) {
+                        affected += sum(pstmt.executeBatch());
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    affected += sum(pstmt.executeBatch());
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            event.fail();
+            throw e;
+        }
+        event.end(affected);
+        return affected;
+    }
+
+    // Totals batch update counts; drivers may report SUCCESS_NO_INFO (-2) for rewritten batches
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            total += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+        }
+        return total;
+    }
+
+    // Inserts many tasks and their tags in one transaction
+    public static int insertTasks(Collection<Task> tasks) {
+        try {
+            int inserted = bulkInsertTasks(new ArrayList<>(tasks));
+            LOG.fine(inserted + " tasks added.");
+            return inserted;
+        } catch (SQLException e) {
+            LOG.log(Level.WARNING, "Error adding tasks: " + e.getMessage(), e);
+            return 0;
+        }
+    }
+
+    // Rows per multi-row INSERT statement in bulkInsertTasks
+    private static final int ROWS_PER_INSERT = 500;
+
+    /**
+     * Inserts tasks with multi-row INSERT ... VALUES (...), (...) statements in one transaction.
+     * Unlike insertTasks this propagates failures, so bulk loaders can count and report them.
+     * Safe to call from several threads at once; each call uses its own connection.
+     * Generated ids are set on the tasks, and their tags are inserted in the same transaction.
+     */
+    public static int bulkInsertTasks(List<Task> tasks) throws SQLException {
+        if (tasks.isEmpty()) return 0;
+        int inserted = 0;
+        DatabaseEvent event = DatabaseEvent.start("bulkInsertTasks", "INSERT");
+
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                PreparedStatement full = null;
+                List<Task> tagged = new ArrayList<>();
+                try {
+                    for (int start = 0; start < tasks.size(); start += ROWS_PER_INSERT) {
+                        List<Task> chunk = tasks.subList(start, Math.min(start + ROWS_PER_INSERT, tasks.size()));
+                        PreparedStatement pstmt;
+                        if (chunk.size() == ROWS_PER_INSERT) {
+                            // Full chunks share one statement; only the final partial chunk needs its own
+                            if (full == null) full = conn.prepareStatement(multiRowInsertSql(ROWS_PER_INSERT), Statement.RETURN_GENERATED_KEYS);
+                            pstmt = full;
+                        } else {
+                            pstmt = conn.prepareStatement(multiRowInsertSql(chunk.size()), Statement.RETURN_GENERATED_KEYS);
+                        }
+                        int index = 1;
+                        for (Task task : chunk) {
+                            pstmt.setString(index++, task.getTitle());
+                            pstmt.setString(index++, task.getDescription());
+                            if (task.getDueDate() != null) {
+                                pstmt.setDate(index++, new java.sql.Date(task.getDueDate().getTime()));
+                            } else {
+                                pstmt.setNull(index++, Types.DATE);
+                            }
+                            pstmt.setString(index++, task.getCategory());
+                            pstmt.setString(index++, task.getStatus());
+                            pstmt.setString(index++, task.getRecurrence());
+                            pstmt.setString(index++, task.getAssignedUser());
+                        }
+                        inserted += pstmt.executeUpdate();
+                        // Keys come back in row order
+                        try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                            for (Task task : chunk) {
+                                if (!keys.next()) break;
+                                task.setId(keys.getInt(1));
+                                if (!task.getTags().isEmpty()) tagged.add(task);
+                            }
+                        }
+                        if (pstmt != full) pstmt.close();
+                    }
+                } finally {
+                    if (full != null) full.close();
+                }
+                if (!tagged.isEmpty()) {
+                    try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO task_tags (task_id, tag) VALUES (?, ?)")) {
+                        int pending = 0;
+                        for (Task task : tagged) {
+                            for (String tag : task.getTags()) {
+                                pstmt.setInt(1, task.getId());
+                                pstmt.setString(2, tag);
+                                pstmt.addBatch();
+                                if (++pending == DatabaseConfig.getBatchSize()) {
+                                    pstmt.executeBatch();
+                                    pending = 0;
+                                }
+                            }
+                        }
+                        if (pending > 0) pstmt.executeBatch();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
+        } catch (SQLException e) {
+            event.fail();
+            throw e;
+        }
+        event.end(inserted);
+        QueryCache.inserted(tasks);
+        return inserted;
+    }
+
+    private static String multiRowInsertSql(int rows) {
+        StringBuilder sql = new StringBuilder("INSERT INTO tasks (title, description, due_date, category, status, recurrence, assigned_user) VALUES ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?, ?)");
+        }
+        return sql.toString();
+    }
+
+    // Applies the same partial update to many tasks in one transaction
+    public static int updateTasks(Collection<Integer> taskIds, TaskUpdate update) {
+        if (update.isEmpty()) return 0;
+        String sql = updateSql(update.getFields(), false);
+
+        try {
+            int updated = executeInBatches("updateTasks", "UPDATE", sql, taskIds, (pstmt, id) -> bindUpdate(pstmt, update, id));
+            LOG.fine(updated + " tasks updated.");
+            QueryCache.updated(taskIds, update);
+            return updated;
+        } catch (SQLException e) {
+            LOG.log(Level.WARNING, "Error updating tasks: " + e.getMessage(), e);
+            return 0;
+        }
+    }
+
+    // Sets the same status on many tasks in one transaction
+    public static int updateTaskStatuses(Collection<Integer> taskIds, String newStatus) {
+        return updateColumnInBatches("status", taskIds, newStatus);
+    }
+
+    // Moves many tasks to the same category in one transaction
+    public static int updateTaskCategories(Collection<Integer> taskIds, String newCategory) {
+        return updateColumnInBatches("category", taskIds, newCategory);
+    }
+
+    // Column is always one of the fixed names above, never user input
+    private static int updateColumnInBatches(String column, Collection<Integer> taskIds, String newValue) {
+        String sql = "UPDATE tasks SET " + column + " = ?, " + CHANGE_MARKERS + " WHERE id = ?";
+
+        try {
+            int updated = executeInBatches("update " + column, "UPDATE", sql, taskIds, (pstmt, id) -> {
+                pstmt.setString(1, newValue);
+                pstmt.setInt(2, id);
+            });
+            LOG.fine(updated + " tasks updated.");
+            QueryCache.updated(taskIds, new TaskUpdate().set(TaskField.fromColumn(column), newValue));
+            return updated;
+        } catch (SQLException e) {
+            LOG.log(Level.WARNING, "Error updating tasks: " + e.getMessage(), e);
+            return 0;
+        }
+    }
+
+    // Deletes many tasks in one transaction
+    public static int deleteTasks(Collection<Integer> taskIds) {
+        String sql = "DELETE FROM tasks WHERE id = ?";
 
+        try {
+            int deleted = executeInBatches("deleteTasks", "DELETE", sql, taskIds, (pstmt, id) -> pstmt.setInt(1, id));
+            LOG.fine(deleted + " tasks deleted.");
+            QueryCache.deleted(taskIds);
+            return deleted;
         } catch (SQLException e) {
-            System.out.println("Error deleting task: " + e.getMessage());
+            LOG.log(Level.WARNING, "Error deleting tasks: " + e.getMessage(), e);
+            return 0;
         }
     }
 }
@@ -0,0 +1,227 @@
+package networking;
+
+import model.Task;
+import model.TaskField;
+import model.TaskQuery;
+import model.TaskUpdate;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Results of DatabaseManager.findTasks, keyed by the generated SQL and its bound values,
+ * so the same list view asked for again by the UI or by other clients of this process
+ * is answered without a round trip. Entries are evicted least recently used once there
+ * are too many or they hold too many tasks in total, and expire after a time to live,
+ * which also bounds how stale a result can get when another process writes the database.
+ *
+ * Every write in DatabaseManager and WriteBehindQueue reports what it changed, and only
+ * the entries it can affect are dropped: those containing a changed task, those whose
+ * filter an inserted task or a new status, category, assignee, tag or due date matches,
+ * and pages after the first that a removed or refiltered task could shift. Hits return
+ * copies, so callers may change the tasks they get.
+ *
+ * Settings (see DatabaseConfig): taskmanager.cache.entries (0 turns caching off),
+ * taskmanager.cache.rows and taskmanager.cache.ttlSeconds.
+ */
+public final class QueryCache {
+
+    private static final class Entry {
+        final TaskQuery filter;
+        final int offset;
+        final List<Task> rows;
+        final Set<Integer> ids = new HashSet<>();
+        final int firstId;
+        final long expiresAt;
+
+        Entry(TaskQuery query, List<Task> rows, long expiresAt) {
+            // Own copy of the criteria; the caller's query object may be reused
+            this.filter = new TaskQuery().status(query.getStatus()).category(query.getCategory())
+                    .tag(query.getTag()).assignedUser(query.getAssignedUser())
+                    .dueBetween(query.getDueFrom(), query.getDueTo());
+            this.offset = query.getOffset();
+            this.rows = rows;
+            this.expiresAt = expiresAt;
+            int first = Integer.MAX_VALUE;
+            for (Task task : rows) {
+                ids.add(task.getId());
+                first = Math.min(first, task.getId());
+            }
+            this.firstId = first;
+        }
+
+        // Whether a task that now has this value of the field may have joined the result
+        boolean filterAccepts(TaskField field, Object value) {
+            switch (field) {
+                case STATUS: return filter.getStatus() != null && filter.getStatus().equalsIgnoreCase((String) value);
+                case CATEGORY: return filter.getCategory() != null && filter.getCategory().equalsIgnoreCase((String) value);
+                case ASSIGNED_USER: return filter.getAssignedUser() != null && filter.getAssignedUser().equals(value);
+                case DUE_DATE:
+                case RECURRENCE: return hasDueWindow();
+                default: return false;
+            }
+        }
+
+        // Whether the field is one this entry's rows are selected by
+        boolean filtersOn(TaskField field) {
+            switch (field) {
+                case STATUS: return filter.getStatus() != null;
+                case CATEGORY: return filter.getCategory() != null;
+                case ASSIGNED_USER: return filter.getAssignedUser() != null;
+                case DUE_DATE:
+                case RECURRENCE: return hasDueWindow();
+                default: return false;
+            }
+        }
+
+        boolean hasDueWindow() {
+            return filter.getDueFrom() != null || filter.getDueTo() != null;
+        }
+
+        // A later page moves when a matching task before it goes away or stops matching
+        boolean shiftedBy(int id) {
+            return offset > 0 && id < firstId;
+        }
+
+        boolean containsAny(Collection<Integer> changed) {
+            for (int id : changed) {
+                if (ids.contains(id)) return true;
+            }
+            return false;
+        }
+    }
+
+    private static final int MAX_ENTRIES = DatabaseConfig.getQueryCacheEntries();
+    private static final int MAX_ROWS = DatabaseConfig.getQueryCacheRows();
+    private static final long TTL_NANOS = TimeUnit.SECONDS.toNanos(DatabaseConfig.getQueryCacheTtlSeconds());
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private static final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private static int cachedRows;
+    // Bumped by every write, so a result read before a write is not cached after it
+    private static long generation;
+
+    private static long hits;
+    private static long misses;
+    private static long evictions;
+    private static long expirations;
+    private static long invalidations;
+
+    private QueryCache() {
+    }
+
+    static boolean isEnabled() {
+        return MAX_ENTRIES > 0;
+    }
+
+    // Copies of the cached result, or null on a miss
+    static synchronized List<Task> get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt - System.nanoTime() < 0) {
+            remove(key, entry);
+            expirations++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        List<Task> copies = new ArrayList<>(entry.rows.size());
+        for (Task task : entry.rows) {
+            copies.add(task.copy());
+        }
+        return copies;
+    }
+
+    // Taken before running the query that put stores
+    static synchronized long generation() {
+        return generation;
+    }
+
+    // Keeps a copy of a result read at the given generation, unless something was written since
+    static synchronized void put(String key, TaskQuery query, long readAt, List<Task> result) {
+        if (readAt != generation || result.size() > MAX_ROWS) return;
+        List<Task> rows = new ArrayList<>(result.size());
+        for (Task task : result) {
+            rows.add(task.copy());
+        }
+        Entry previous = entries.put(key, new Entry(query, rows, System.nanoTime() + TTL_NANOS));
+        if (previous != null) cachedRows -= previous.rows.size();
+        cachedRows += rows.size();
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > MAX_ENTRIES || cachedRows > MAX_ROWS) {
+            cachedRows -= eldest.next().rows.size();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    // New tasks, with their ids set
+    static synchronized void inserted(Collection<Task> tasks) {
+        generation++;
+        invalidate(entry -> {
+            for (Task task : tasks) {
+                if (entry.filter.matches(task)) return true;
+            }
+            return false;
+        });
+    }
+
+    static synchronized void updated(Collection<Integer> ids, TaskUpdate update) {
+        generation++;
+        invalidate(entry -> {
+            if (entry.containsAny(ids)) return true;
+            for (TaskField field : update.getFields()) {
+                if (entry.filterAccepts(field, update.get(field))) return true;
+                if (entry.filtersOn(field) && ids.stream().anyMatch(entry::shiftedBy)) return true;
+            }
+            return false;
+        });
+    }
+
+    static synchronized void tagged(int id, Collection<String> tags) {
+        generation++;
+        invalidate(entry -> entry.ids.contains(id)
+                || (entry.filter.getTag() != null && (tags.contains(entry.filter.getTag()) || entry.shiftedBy(id))));
+    }
+
+    // Deleted or archived tasks
+    static synchronized void deleted(Collection<Integer> ids) {
+        generation++;
+        invalidate(entry -> entry.containsAny(ids) || ids.stream().anyMatch(entry::shiftedBy));
+    }
+
+    public static synchronized void clear() {
+        generation++;
+        entries.clear();
+        cachedRows = 0;
+    }
+
+    public static synchronized long getHits() { return hits; }
+    public static synchronized long getMisses() { return misses; }
+    // Entries dropped to stay within the limits
+    public static synchronized long getEvictions() { return evictions; }
+    public static synchronized long getExpirations() { return expirations; }
+    // Entries dropped because a write changed their result
+    public static synchronized long getInvalidations() { return invalidations; }
+    public static synchronized int getSize() { return entries.size(); }
+
+    private static void invalidate(Predicate<Entry> affected) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (affected.test(entry)) {
+                cachedRows -= entry.rows.size();
+                it.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    private static void remove(String key, Entry entry) {
+        entries.remove(key);
+        cachedRows -= entry.rows.size();
+    }
+}
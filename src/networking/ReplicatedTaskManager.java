@@ -0,0 +1,69 @@
+package networking;
+
+import model.TaskManager;
+
+import java.util.function.Function;
+
+/**
+ * The TaskManager a TaskServer serves when it runs as a replication primary or replica,
+ * together with the lock guarding it; TaskManager itself is not thread-safe. On a
+ * primary every change made through write is appended to the replication log. A replica
+ * changes only through entries applied from its primary and refuses client writes.
+ */
+public class ReplicatedTaskManager {
+
+    // Entries kept for replicas that reconnect before they need a snapshot
+    private static final int LOG_CAPACITY = 10_000;
+
+    private final TaskManager taskManager;
+    // Exactly one of these is set, depending on the role
+    private final ReplicationLog log;
+    private final ReplicationReplica replica;
+
+    private ReplicatedTaskManager(TaskManager taskManager, ReplicationLog log, ReplicationReplica replica) {
+        this.taskManager = taskManager;
+        this.log = log;
+        this.replica = replica;
+    }
+
+    // Serves the given manager and logs its changes for replicas
+    public static ReplicatedTaskManager primary(TaskManager taskManager) {
+        ReplicationLog log = new ReplicationLog(LOG_CAPACITY);
+        taskManager.addTaskListener(log);
+        return new ReplicatedTaskManager(taskManager, log, null);
+    }
+
+    // Serves an in-memory copy kept up to date from the primary at host:port
+    public static ReplicatedTaskManager replica(String host, int port) {
+        ReplicationReplica replica = new ReplicationReplica(host, port);
+        ReplicatedTaskManager tasks = new ReplicatedTaskManager(replica.getTaskManager(), null, replica);
+        replica.setLock(tasks);
+        return tasks;
+    }
+
+    public boolean isPrimary() {
+        return log != null;
+    }
+
+    // Null on a replica
+    public ReplicationLog getLog() {
+        return log;
+    }
+
+    // Null on a primary
+    public ReplicationReplica getReplica() {
+        return replica;
+    }
+
+    public synchronized <T> T read(Function<TaskManager, T> query) {
+        return query.apply(taskManager);
+    }
+
+    // Runs a change on the primary; the change is logged before this returns
+    public synchronized <T> T write(Function<TaskManager, T> change) {
+        if (!isPrimary()) {
+            throw new IllegalStateException("Read-only replica, send writes to the primary");
+        }
+        return change.apply(taskManager);
+    }
+}
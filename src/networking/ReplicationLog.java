@@ -0,0 +1,138 @@
+package networking;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import model.Task;
+import model.TaskListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Ordered log of task changes on a replication primary. Every change of the primary's
+ * TaskManager becomes one numbered entry carrying the task's full state, so applying an
+ * entry twice is harmless. The latest entries are kept for replicas that reconnect;
+ * a replica further behind than that catches up from a snapshot instead.
+ *
+ * Entries are the lines sent to replicas:
+ * "ENTRY <seq> <time> PUT <task json>" and "ENTRY <seq> <time> DELETE <id>".
+ */
+public class ReplicationLog implements TaskListener {
+
+    // A log entry; time is when the primary made the change, in epoch milliseconds
+    public static final class Entry {
+        private final long seq;
+        private final long time;
+        private final String line;
+
+        Entry(long seq, long time, String line) {
+            this.seq = seq;
+            this.time = time;
+            this.line = line;
+        }
+
+        public long getSeq() { return seq; }
+        public long getTime() { return time; }
+        public String getLine() { return line; }
+    }
+
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    // Identifies this run of the primary; sequence numbers restart with every run
+    private final long epoch = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    private final int capacity;
+    private final ArrayDeque<Entry> entries;
+    private final List<Consumer<Entry>> followers = new CopyOnWriteArrayList<>();
+    private long lastSeq;
+
+    public ReplicationLog(int capacity) {
+        this.capacity = capacity;
+        this.entries = new ArrayDeque<>(capacity);
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public synchronized long getLastSeq() {
+        return lastSeq;
+    }
+
+    @Override
+    public void taskAdded(Task task) {
+        append("PUT " + toJson(task));
+    }
+
+    @Override
+    public void taskUpdated(Task task) {
+        append("PUT " + toJson(task));
+    }
+
+    @Override
+    public void taskRemoved(Task task) {
+        append("DELETE " + task.getId());
+    }
+
+    /**
+     * Entries after seq, or null when some of them are no longer kept. Callers that also
+     * register a follower must hold the lock that orders changes, so nothing is missed
+     * between the two.
+     */
+    public synchronized List<Entry> since(long seq) {
+        if (seq > lastSeq) return null;
+        long firstKept = entries.isEmpty() ? lastSeq + 1 : entries.peekFirst().seq;
+        if (seq + 1 < firstKept) return null;
+        List<Entry> result = new ArrayList<>((int) (lastSeq - seq));
+        for (Entry entry : entries) {
+            if (entry.seq > seq) result.add(entry);
+        }
+        return result;
+    }
+
+    // Followers get every entry appended from now on, on the thread that made the change
+    public void follow(Consumer<Entry> follower) {
+        followers.add(follower);
+    }
+
+    public void unfollow(Consumer<Entry> follower) {
+        followers.remove(follower);
+    }
+
+    public int getFollowerCount() {
+        return followers.size();
+    }
+
+    private synchronized void append(String change) {
+        long seq = ++lastSeq;
+        long time = System.currentTimeMillis();
+        Entry entry = new Entry(seq, time, "ENTRY " + seq + " " + time + " " + change);
+        if (entries.size() == capacity) {
+            entries.removeFirst();
+        }
+        entries.addLast(entry);
+        followers.forEach(follower -> follower.accept(entry));
+    }
+
+    // Single-line JSON of a task, as shipped in PUT entries and snapshots
+    static String toJson(Task task) {
+        try {
+            return objectMapper.writeValueAsString(task);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Task " + task.getId() + " cannot be serialized", e);
+        }
+    }
+
+    static Task fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, Task.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed task in replication stream: " + e.getOriginalMessage(), e);
+        }
+    }
+}
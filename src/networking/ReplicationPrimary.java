@@ -0,0 +1,124 @@
+package networking;
+
+import model.Task;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Streams a primary's replication log to replicas. A replica opens with
+ * "SYNC <epoch> <seq>" naming the last entry it applied. If the log still holds every
+ * later entry they are replayed after "RESUME <epoch> <seq>"; otherwise, or when the
+ * replica followed an earlier run of the primary, it gets
+ * "SNAPSHOT <epoch> <seq> <count>" followed by count task JSON lines. New entries are
+ * then pushed as they are made, with "HEARTBEAT <seq> <time>" after a second of quiet
+ * so replicas can tell how far behind they are.
+ */
+public class ReplicationPrimary {
+
+    private static final Logger LOG = Logger.getLogger(ReplicationPrimary.class.getName());
+
+    // Entries queued for one replica before it is dropped as too slow; it then resyncs
+    private static final int MAX_QUEUED = 10_000;
+    private static final long HEARTBEAT_MS = 1000;
+
+    private final ReplicatedTaskManager tasks;
+    private final ReplicationLog log;
+
+    public ReplicationPrimary(ReplicatedTaskManager tasks) {
+        this.tasks = tasks;
+        this.log = tasks.getLog();
+    }
+
+    // Accepts replicas on the port in a background thread
+    public void start(int port) throws IOException {
+        ServerSocket serverSocket = new ServerSocket(port);
+        Thread acceptor = new Thread(() -> {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    Thread session = new Thread(() -> serve(socket), "replication-" + socket.getRemoteSocketAddress());
+                    session.setDaemon(true);
+                    session.start();
+                } catch (IOException e) {
+                    LOG.log(Level.WARNING, "Error accepting replica: " + e.getMessage(), e);
+                }
+            }
+        }, "replication-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        LOG.info("Replication primary listening on port " + port);
+    }
+
+    private void serve(Socket socket) {
+        BlockingQueue<String> queue = new LinkedBlockingQueue<>(MAX_QUEUED);
+        AtomicBoolean overflowed = new AtomicBoolean();
+        Consumer<ReplicationLog.Entry> follower = entry -> {
+            if (!queue.offer(entry.getLine())) overflowed.set(true);
+        };
+        try (Socket replica = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(replica.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(replica.getOutputStream(), StandardCharsets.UTF_8))) {
+            String[] sync = String.valueOf(in.readLine()).split(" ");
+            if (sync.length != 3 || !"SYNC".equals(sync[0])) {
+                out.write("ERROR Expected SYNC <epoch> <seq>\n");
+                out.flush();
+                return;
+            }
+            long epoch = Long.parseLong(sync[1]);
+            long seq = Long.parseLong(sync[2]);
+
+            // Taken under the manager's lock, so no change lands between the start lines and the first pushed entry
+            List<String> start = tasks.read(taskManager -> {
+                List<String> lines = new ArrayList<>();
+                List<ReplicationLog.Entry> backlog = epoch == log.getEpoch() ? log.since(seq) : null;
+                if (backlog != null) {
+                    lines.add("RESUME " + log.getEpoch() + " " + seq);
+                    backlog.forEach(entry -> lines.add(entry.getLine()));
+                } else {
+                    List<Task> all = taskManager.getAllTasks();
+                    lines.add("SNAPSHOT " + log.getEpoch() + " " + log.getLastSeq() + " " + all.size());
+                    all.forEach(task -> lines.add(ReplicationLog.toJson(task)));
+                }
+                log.follow(follower);
+                return lines;
+            });
+            LOG.info("Replica " + replica.getRemoteSocketAddress() + " " + start.get(0).split(" ")[0].toLowerCase()
+                    + " from entry " + seq + ", " + (start.size() - 1) + " lines to send");
+            for (String line : start) {
+                out.write(line);
+                out.write('\n');
+            }
+            out.flush();
+
+            while (!overflowed.get()) {
+                String line = queue.poll(HEARTBEAT_MS, TimeUnit.MILLISECONDS);
+                if (line == null) {
+                    line = "HEARTBEAT " + log.getLastSeq() + " " + System.currentTimeMillis();
+                }
+                out.write(line);
+                out.write('\n');
+                // Flush once the queue is drained, not per entry
+                if (queue.isEmpty()) out.flush();
+            }
+            LOG.warning("Replica " + replica.getRemoteSocketAddress() + " fell " + MAX_QUEUED + " entries behind and was dropped");
+        } catch (IOException | RuntimeException e) {
+            LOG.log(Level.INFO, "Replica disconnected: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            log.unfollow(follower);
+        }
+    }
+}
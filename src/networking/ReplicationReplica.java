@@ -0,0 +1,178 @@
+package networking;
+
+import model.Task;
+import model.TaskField;
+import model.TaskManager;
+import monitoring.Metrics;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Follows a replication primary (see ReplicationPrimary) into an in-memory TaskManager.
+ * Entries are applied in order as they arrive; after a disconnect the replica reconnects
+ * and asks for everything after the last entry it applied, falling back to a snapshot
+ * when the primary no longer has those entries or was restarted.
+ */
+public class ReplicationReplica {
+
+    private static final Logger LOG = Logger.getLogger(ReplicationReplica.class.getName());
+    private static final long RECONNECT_MS = 1000;
+
+    private final String host;
+    private final int port;
+    private final TaskManager taskManager = new TaskManager(new ArrayList<>());
+    // Guards taskManager together with the readers, see ReplicatedTaskManager
+    private Object lock = this;
+
+    private volatile long epoch;
+    private volatile long appliedSeq;
+    private volatile long primarySeq;
+    private volatile boolean connected;
+    private volatile long lastContact = System.currentTimeMillis();
+    private volatile long lagMillis;
+
+    ReplicationReplica(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    TaskManager getTaskManager() {
+        return taskManager;
+    }
+
+    void setLock(Object lock) {
+        this.lock = lock;
+    }
+
+    // Connects in a background thread and keeps reconnecting until the process ends
+    public void start() {
+        Thread follower = new Thread(() -> {
+            while (true) {
+                try {
+                    follow();
+                } catch (IOException | RuntimeException e) {
+                    LOG.log(Level.INFO, "Lost primary " + host + ":" + port + ": " + e.getMessage());
+                }
+                connected = false;
+                try {
+                    Thread.sleep(RECONNECT_MS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "replication-follower");
+        follower.setDaemon(true);
+        follower.start();
+    }
+
+    public long getAppliedSeq() {
+        return appliedSeq;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    // Entries the primary has made that are not applied here yet, as of its last message
+    public long getEntriesBehind() {
+        return Math.max(0, primarySeq - appliedSeq);
+    }
+
+    // Time from a change on the primary to it being applied here; grows while disconnected
+    public long getLagMillis() {
+        return connected ? lagMillis : System.currentTimeMillis() - lastContact;
+    }
+
+    private void follow() throws IOException {
+        try (Socket socket = new Socket(host, port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true)) {
+            out.println("SYNC " + epoch + " " + appliedSeq);
+            connected = true;
+            String line;
+            while ((line = in.readLine()) != null) {
+                handle(line, in);
+            }
+        }
+    }
+
+    private void handle(String line, BufferedReader in) throws IOException {
+        long now = System.currentTimeMillis();
+        lastContact = now;
+        if (line.startsWith("ENTRY ")) {
+            String[] parts = line.split(" ", 5);
+            long seq = Long.parseLong(parts[1]);
+            // Entries already applied can come again when a resync overlaps; skipping keeps apply ordered
+            if (seq > appliedSeq) {
+                synchronized (lock) {
+                    apply(parts[3], parts[4]);
+                }
+                appliedSeq = seq;
+            }
+            primarySeq = Math.max(primarySeq, seq);
+            updateLag(now - Long.parseLong(parts[2]));
+        } else if (line.startsWith("HEARTBEAT ")) {
+            String[] parts = line.split(" ");
+            primarySeq = Long.parseLong(parts[1]);
+            if (appliedSeq >= primarySeq) {
+                updateLag(Math.max(0, now - Long.parseLong(parts[2])));
+            }
+        } else if (line.startsWith("SNAPSHOT ")) {
+            String[] parts = line.split(" ");
+            int count = Integer.parseInt(parts[3]);
+            List<Task> tasks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String json = in.readLine();
+                if (json == null) throw new EOFException("Snapshot ended after " + i + " of " + count + " tasks");
+                tasks.add(ReplicationLog.fromJson(json));
+            }
+            synchronized (lock) {
+                taskManager.setTasks(tasks);
+            }
+            epoch = Long.parseLong(parts[1]);
+            appliedSeq = Long.parseLong(parts[2]);
+            primarySeq = appliedSeq;
+            LOG.info("Loaded snapshot of " + count + " tasks at entry " + appliedSeq + " from " + host + ":" + port);
+        } else if (line.startsWith("RESUME ")) {
+            LOG.info("Resumed replication from " + host + ":" + port + " after entry " + appliedSeq);
+        } else {
+            throw new IOException("Unexpected line from primary: " + line);
+        }
+    }
+
+    private void apply(String op, String payload) {
+        if ("DELETE".equals(op)) {
+            taskManager.removeTaskById(Integer.parseInt(payload));
+            return;
+        }
+        Task incoming = ReplicationLog.fromJson(payload);
+        Task existing = taskManager.getTaskById(incoming.getId());
+        if (existing == null) {
+            taskManager.addTask(incoming);
+            return;
+        }
+        for (TaskField field : TaskField.values()) {
+            Object value = field.valueOf(incoming);
+            if (!Objects.equals(field.valueOf(existing), value)) {
+                field.applyTo(existing, value);
+            }
+        }
+        if (!existing.getTags().equals(incoming.getTags())) {
+            existing.setTags(incoming.getTags());
+        }
+        existing.setVersion(incoming.getVersion());
+        existing.setUpdatedAt(incoming.getUpdatedAt());
+    }
+
+    private void updateLag(long millis) {
+        lagMillis = millis;
+        Metrics.replicationLag(millis, getEntriesBehind());
+    }
+}
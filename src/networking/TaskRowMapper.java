@@ -0,0 +1,93 @@
+package networking;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import model.Task;
+
+/**
+ * Maps rows of the tasks table to Task objects.
+ * Column positions are resolved once per result set instead of looked up by name
+ * for every row, and due dates are read as LocalDate rather than parsed from text.
+ * Columns missing from the query (e.g. description in summary rows) are left null.
+ */
+final class TaskRowMapper {
+
+    private final int id;
+    private final int title;
+    private final int description;
+    private final int dueDate;
+    private final int category;
+    private final int status;
+    private final int version;
+    private final int updatedAt;
+    private final int recurrence;
+    private final int assignedUser;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    TaskRowMapper(ResultSetMetaData meta) throws SQLException {
+        int id = 0, title = 0, description = 0, dueDate = 0, category = 0, status = 0, version = 0, updatedAt = 0, recurrence = 0, assignedUser = 0;
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            switch (meta.getColumnLabel(i).toLowerCase()) {
+                case "id": id = i; break;
+                case "title": title = i; break;
+                case "description": description = i; break;
+                case "due_date": dueDate = i; break;
+                case "category": category = i; break;
+                case "status": status = i; break;
+                case "version": version = i; break;
+                case "updated_at": updatedAt = i; break;
+                case "recurrence": recurrence = i; break;
+                case "assigned_user": assignedUser = i; break;
+            }
+        }
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.dueDate = dueDate;
+        this.category = category;
+        this.status = status;
+        this.version = version;
+        this.updatedAt = updatedAt;
+        this.recurrence = recurrence;
+        this.assignedUser = assignedUser;
+    }
+
+    Task map(ResultSet rs) throws SQLException {
+        String statusValue = status > 0 ? rs.getString(status) : null;
+        if (statusValue != null && statusValue.trim().isEmpty()) {
+            statusValue = null; // Task falls back to "Pending"
+        }
+
+        Task task = new Task(
+                rs.getInt(id),
+                title > 0 ? rs.getString(title) : null,
+                description > 0 ? rs.getString(description) : null,
+                dueDate > 0 ? toDate(rs.getObject(dueDate, LocalDate.class)) : null,
+                category > 0 ? rs.getString(category) : null,
+                statusValue
+        );
+        if (version > 0) {
+            task.setVersion(rs.getInt(version));
+        }
+        if (updatedAt > 0) {
+            Timestamp timestamp = rs.getTimestamp(updatedAt);
+            task.setUpdatedAt(timestamp == null ? null : new Date(timestamp.getTime()));
+        }
+        if (recurrence > 0) {
+            task.setRecurrence(rs.getString(recurrence));
+        }
+        if (assignedUser > 0) {
+            task.setAssignedUser(rs.getString(assignedUser));
+        }
+        return task;
+    }
+
+    private Date toDate(LocalDate date) {
+        return date == null ? null : Date.from(date.atStartOfDay(zone).toInstant());
+    }
+}
@@ -0,0 +1,60 @@
+package networking;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Populates the configured database with generated tasks for scale tests.
+ * Usage: TaskSeeder [count]   (default 10000)
+ * Combine with -Dtaskmanager.db.mode=embedded to seed the local database.
+ */
+public class TaskSeeder {
+
+    private static final String[] CATEGORIES = {"Personal", "Work", "Study"};
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        long start = System.currentTimeMillis();
+        try {
+            seed(count);
+            System.out.println("Seeded " + count + " tasks in " + (System.currentTimeMillis() - start) + " ms.");
+        } catch (SQLException e) {
+            System.out.println("Seeding failed: " + e.getMessage());
+        }
+    }
+
+    // Inserts count generated tasks in batches inside a single transaction
+    public static void seed(int count) throws SQLException {
+        String sql = "INSERT INTO tasks (title, description, due_date, category, status) VALUES (?, ?, ?, ?, ?)";
+        Random random = new Random(42);
+        LocalDate today = LocalDate.now();
+        int batchSize = DatabaseConfig.getBatchSize();
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            try {
+                for (int i = 0; i < count; i++) {
+                    pstmt.setString(1, "Task " + i);
+                    pstmt.setString(2, "Generated task number " + i);
+                    pstmt.setDate(3, Date.valueOf(today.plusDays(random.nextInt(365) - 180)));
+                    pstmt.setString(4, CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                    pstmt.setString(5, random.nextInt(3) == 0 ? "Completed" : "Pending");
+                    pstmt.addBatch();
+                    if ((i + 1) % batchSize == 0) {
+                        pstmt.executeBatch();
+                    }
+                }
+                pstmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+}
@@ -2,22 +2,82 @@ package networking;
 
 import java.io.*;
 import java.net.*;
+import model.ReminderScheduler;
+import model.TaskManager;
+import persistence.TaskRepositories;
 
 public class TaskServer {
+    public static final int DEFAULT_PORT = 5000;
+
+    // Tasks served in primary or replica mode, null otherwise
+    private static volatile ReplicatedTaskManager replicatedTasks;
+    // Versioned task edits from clients, created on first use
+    private static ConcurrentTaskStore taskStore;
+
+    /**
+     * Starts the server; without arguments on DEFAULT_PORT. Replication is set up with
+     * "<port> primary <replication port>" or "<port> replica <host>:<replication port>",
+     * so several instances can run side by side on localhost.
+     */
     public static void main(String[] args) {
-        try (ServerSocket serverSocket = new ServerSocket(5000)) {
-            System.out.println("Server started...");
-
-            while (true) {
-                try {
-                    Socket clientSocket = serverSocket.accept();
-                    new ClientHandler(clientSocket).start();
-                } catch (IOException e) {
-                    System.err.println("Error accepting client connection: " + e.getMessage());
-                }
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        try {
+            if (args.length >= 3 && "primary".equalsIgnoreCase(args[1])) {
+                ReplicatedTaskManager primary = ReplicatedTaskManager.primary(new TaskManager());
+                new ReplicationPrimary(primary).start(Integer.parseInt(args[2]));
+                replicatedTasks = primary;
+            } else if (args.length >= 3 && "replica".equalsIgnoreCase(args[1])) {
+                int colon = args[2].lastIndexOf(':');
+                ReplicatedTaskManager replica = ReplicatedTaskManager.replica(
+                        args[2].substring(0, colon), Integer.parseInt(args[2].substring(colon + 1)));
+                replica.getReplica().start();
+                replicatedTasks = replica;
+            }
+            try (ServerSocket serverSocket = new ServerSocket(port)) {
+                System.out.println("Server started...");
+                serve(serverSocket);
             }
         } catch (IOException e) { 
             System.err.println("Server failed to start: " + e.getMessage());
         }
     }
+
+    // The primary's or replica's tasks, or null when the server runs without replication
+    public static ReplicatedTaskManager getReplicatedTasks() {
+        return replicatedTasks;
+    }
+
+    // Serves the given tasks from now on, e.g. for an instance set up in code rather than from main
+    public static void setReplicatedTasks(ReplicatedTaskManager tasks) {
+        replicatedTasks = tasks;
+    }
+
+    // The store behind GET, UPDATE and COMPLETE when the server runs without replication
+    public static synchronized ConcurrentTaskStore getTaskStore() {
+        if (taskStore == null) {
+            taskStore = new ConcurrentTaskStore(TaskRepositories.getDefault());
+        }
+        return taskStore;
+    }
+
+    // Pushes every reminder as "REMINDER <kind> <id> <title>" to the assignee's subscribed clients, or to all for unassigned tasks
+    public static void pushReminders(ReminderScheduler reminders) {
+        // Sent from the background lane, so a slow client cannot hold up the reminder ticker
+        reminders.addReminderListener((task, kind) -> WorkScheduler.getDefault().run(WorkScheduler.Lane.BACKGROUND, () ->
+                ClientHandler.sendToUser(task.getAssignedUser(), "REMINDER " + kind + " " + task.getId() + " " + task.getTitle())));
+    }
+
+    // Accepts clients until the server socket is closed
+    public static void serve(ServerSocket serverSocket) {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket clientSocket = serverSocket.accept();
+                new ClientHandler(clientSocket).start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("Error accepting client connection: " + e.getMessage());
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,213 @@
+package networking;
+
+import monitoring.LatencyHistogram;
+import monitoring.Metrics;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs background work in priority lanes so long jobs cannot crowd out what a user is
+ * waiting for. Each lane has its own pool with a fixed number of threads, and jobs beyond
+ * that wait in the lane's unbounded queue: INTERACTIVE for work a
+ * user or client waits on, BACKGROUND for upkeep such as indexing and archiving, and
+ * BULK for imports and exports. Time spent queued is recorded per lane in Metrics.
+ *
+ * Database connections are rationed too: DatabaseManager keeps at most
+ * taskmanager.db.maxConnections open, and the last taskmanager.db.interactiveConnections
+ * of them are only handed to interactive work, so a "mark completed" finds a connection
+ * even while an export and an import hold all theirs. A thread's further connections,
+ * opened while it already holds one, count against the limit too but never wait, since
+ * the thread could otherwise block on itself. Threads this scheduler does not own, such
+ * as the FX thread and server client threads, count as interactive.
+ */
+public final class WorkScheduler {
+
+    public enum Lane {
+        INTERACTIVE(Metrics.INTERACTIVE_QUEUE_TIME),
+        BACKGROUND(Metrics.BACKGROUND_QUEUE_TIME),
+        BULK(Metrics.BULK_QUEUE_TIME);
+
+        private final LatencyHistogram queueTime;
+
+        Lane(LatencyHistogram queueTime) {
+            this.queueTime = queueTime;
+        }
+    }
+
+    // Longest a non-interactive call waits for a connection before failing
+    private static final long CONNECTION_WAIT_SECONDS = 60;
+
+    private static final ThreadLocal<Lane> currentLane = ThreadLocal.withInitial(() -> Lane.INTERACTIVE);
+    // Connections this thread holds, so a nested getConnection is counted without waiting
+    private static final ThreadLocal<int[]> heldConnections = ThreadLocal.withInitial(() -> new int[1]);
+
+    private static WorkScheduler defaultScheduler;
+
+    private final Map<Lane, ThreadPoolExecutor> pools = new EnumMap<>(Lane.class);
+    private final int maxConnections;
+    private final int interactiveConnections;
+    private int connectionsInUse;
+
+    public WorkScheduler(int interactiveThreads, int backgroundThreads, int bulkThreads,
+                         int maxConnections, int interactiveConnections) {
+        pools.put(Lane.INTERACTIVE, pool(Lane.INTERACTIVE, interactiveThreads));
+        pools.put(Lane.BACKGROUND, pool(Lane.BACKGROUND, backgroundThreads));
+        pools.put(Lane.BULK, pool(Lane.BULK, bulkThreads));
+        this.maxConnections = Math.max(1, maxConnections);
+        this.interactiveConnections = Math.min(this.maxConnections - 1, Math.max(0, interactiveConnections));
+    }
+
+    // The scheduler shared by the whole application, configured through DatabaseConfig
+    public static synchronized WorkScheduler getDefault() {
+        if (defaultScheduler == null) {
+            defaultScheduler = new WorkScheduler(DatabaseConfig.getInteractiveThreads(), DatabaseConfig.getBackgroundThreads(),
+                    DatabaseConfig.getBulkThreads(), DatabaseConfig.getMaxConnections(), DatabaseConfig.getInteractiveConnections());
+        }
+        return defaultScheduler;
+    }
+
+    // The lane the calling thread's work counts against
+    public static Lane currentLane() {
+        return currentLane.get();
+    }
+
+    // Runs work on the calling thread as if it came from the given lane, e.g. in a job's own helper threads
+    public static void runAs(Lane lane, Runnable work) {
+        Lane previous = currentLane.get();
+        currentLane.set(lane);
+        try {
+            work.run();
+        } finally {
+            currentLane.set(previous);
+        }
+    }
+
+    // Executor for a lane, e.g. for CompletableFuture or a JavaFX Task
+    public Executor executor(Lane lane) {
+        ThreadPoolExecutor pool = pools.get(lane);
+        return command -> {
+            long queuedAt = System.nanoTime();
+            pool.execute(() -> {
+                lane.queueTime.record(System.nanoTime() - queuedAt);
+                command.run();
+            });
+        };
+    }
+
+    public <T> CompletableFuture<T> supply(Lane lane, Supplier<T> work) {
+        return CompletableFuture.supplyAsync(work, executor(lane));
+    }
+
+    public CompletableFuture<Void> run(Lane lane, Runnable work) {
+        return CompletableFuture.runAsync(work, executor(lane));
+    }
+
+    // Unlike supply and run, cancelling the returned future interrupts the work
+    public <T> Future<T> submit(Lane lane, Callable<T> work) {
+        FutureTask<T> task = new FutureTask<>(work);
+        executor(lane).execute(task);
+        return task;
+    }
+
+    // Connections handed out and not yet closed, nested ones included
+    public synchronized int getConnectionsInUse() {
+        return connectionsInUse;
+    }
+
+    // Jobs waiting in a lane's queue
+    public int getQueued(Lane lane) {
+        return pools.get(lane).getQueue().size();
+    }
+
+    public int getActive(Lane lane) {
+        return pools.get(lane).getActiveCount();
+    }
+
+    /**
+     * Opens a connection once the calling thread's lane may have one, and gives it back
+     * when the connection is closed. Non-interactive lanes wait while only the reserved
+     * connections are left; everyone waits while all are in use. A thread already holding
+     * a connection gets another straight away, counted like the first.
+     */
+    Connection open(Callable<Connection> opener) throws SQLException {
+        int[] held = heldConnections.get();
+        acquire(currentLane.get(), held[0] > 0);
+        Connection conn;
+        try {
+            conn = opener.call();
+        } catch (Exception e) {
+            release();
+            if (e instanceof SQLException) throw (SQLException) e;
+            throw new SQLException(e);
+        }
+        held[0]++;
+        return guard(conn);
+    }
+
+    private synchronized void acquire(Lane lane, boolean nested) throws SQLException {
+        int limit = lane == Lane.INTERACTIVE ? maxConnections : maxConnections - interactiveConnections;
+        if (!nested && connectionsInUse >= limit) {
+            Metrics.connectionWaited();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(CONNECTION_WAIT_SECONDS);
+            try {
+                while (connectionsInUse >= limit) {
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) {
+                        throw new SQLException("No database connection free for " + lane.name().toLowerCase() + " work");
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, left);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection", e);
+            }
+        }
+        connectionsInUse++;
+    }
+
+    private synchronized void release() {
+        connectionsInUse--;
+        notifyAll();
+    }
+
+    // The same connection, but closing it also gives its slot back, once
+    private Connection guard(Connection conn) {
+        int[] held = heldConnections.get();
+        AtomicInteger open = new AtomicInteger(1);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && open.getAndSet(0) == 1) {
+                        held[0]--;
+                        release();
+                    }
+                    try {
+                        return method.invoke(conn, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private static ThreadPoolExecutor pool(Lane lane, int threads) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(Math.max(1, threads), Math.max(1, threads), 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(() -> {
+                currentLane.set(lane);
+                r.run();
+            }, "work-" + lane.name().toLowerCase() + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
@@ -0,0 +1,476 @@
+package networking;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.*;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import model.Task;
+import model.TaskField;
+import model.TaskUpdate;
+import monitoring.DatabaseEvent;
+
+/**
+ * Write-behind queue for task edits and deletions.
+ *
+ * Callers apply a change to their local Task objects right away and enqueue it here.
+ * Edits to the same task id are coalesced, and a background writer drains the queue
+ * in batches, each applied in a single transaction. Transient database failures are
+ * retried with backoff. Every enqueued change is first appended to a journal file,
+ * which is replayed on startup, so queued writes survive a crash.
+ *
+ * A batch the database refuses for good, e.g. over a constraint or a value too long,
+ * is retried one write at a time, so only the writes at fault are rejected. Rejected
+ * writes are appended to a dead-letter file next to the journal (journal name plus
+ * ".rejected") and reported to the rejected listener.
+ *
+ * Inserts are not queued: they need the database-generated id straight away.
+ */
+public class WriteBehindQueue {
+
+    private static final Logger LOG = Logger.getLogger(WriteBehindQueue.class.getName());
+
+    // Lets a few edits accumulate before each group commit
+    private static final long LINGER_MS = 50;
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    // Coalesced changes for a single task
+    public static final class PendingWrite {
+        private final int taskId;
+        private final TaskUpdate update = new TaskUpdate();
+        private boolean delete;
+
+        private PendingWrite(int taskId) {
+            this.taskId = taskId;
+        }
+
+        public int getTaskId() { return taskId; }
+        public boolean isDelete() { return delete; }
+        public TaskUpdate getUpdate() { return update; }
+
+        // Applies the queued field values to a freshly loaded task
+        void applyTo(Task task) {
+            update.applyTo(task);
+        }
+
+    }
+
+    private final File journalFile;
+    private final File rejectedFile;
+    private final int batchSize;
+    private final LinkedHashMap<Integer, PendingWrite> pending = new LinkedHashMap<>();
+    private List<PendingWrite> inFlight = Collections.emptyList();
+    private FileOutputStream journal;
+    private IntConsumer pendingListener = count -> { };
+    private BiConsumer<PendingWrite, SQLException> rejectedListener = (write, e) -> { };
+    private volatile boolean running = true;
+    private final Thread writer;
+
+    // Opens the journal, replays writes left over from a previous run and starts the writer
+    public WriteBehindQueue(File journalFile) throws IOException {
+        this(journalFile, true);
+    }
+
+    // Without a writer nothing is drained, so tests can look at what is queued and journaled
+    WriteBehindQueue(File journalFile, boolean startWriter) throws IOException {
+        this.journalFile = journalFile;
+        this.rejectedFile = new File(journalFile.getPath() + ".rejected");
+        this.batchSize = DatabaseConfig.getBatchSize();
+        pending.putAll(readJournal(journalFile));
+        if (!pending.isEmpty()) {
+            LOG.info("Recovered " + pending.size() + " queued writes from " + journalFile.getName() + ".");
+        }
+        truncateTornRecord();
+        this.journal = new FileOutputStream(journalFile, true);
+        if (startWriter) {
+            this.writer = new Thread(this::drainLoop, "write-behind-writer");
+            this.writer.setDaemon(true);
+            this.writer.start();
+        } else {
+            this.writer = null;
+        }
+    }
+
+    // Registers a callback for the number of writes not yet committed; may be called from any thread
+    public void setPendingListener(IntConsumer listener) {
+        this.pendingListener = listener;
+        listener.accept(getPendingCount());
+    }
+
+    // Registers a callback for writes the database refused; called on the writer thread
+    public void setRejectedListener(BiConsumer<PendingWrite, SQLException> listener) {
+        this.rejectedListener = listener;
+    }
+
+    public File getRejectedFile() {
+        return rejectedFile;
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size() + inFlight.size();
+    }
+
+    // Queues a partial update; it is merged with edits already queued for the same task
+    public void update(int taskId, TaskUpdate update) {
+        if (update.isEmpty()) return;
+        synchronized (this) {
+            PendingWrite write = pending.get(taskId);
+            // The task is going away; the edit would only grow the journal
+            if (write != null && write.delete) return;
+            appendToJournal(journalRecords(taskId, update));
+            pending.computeIfAbsent(taskId, PendingWrite::new).update.merge(update);
+            notifyAll();
+        }
+        firePendingChanged();
+    }
+
+    // Queues a deletion; earlier queued edits to the task become irrelevant
+    public void delete(int taskId) {
+        synchronized (this) {
+            appendToJournal("D\t" + taskId + "\n");
+            pending.computeIfAbsent(taskId, PendingWrite::new).delete = true;
+            notifyAll();
+        }
+        firePendingChanged();
+    }
+
+    /**
+     * Applies queued changes on top of tasks just loaded from the database,
+     * so a reload does not show stale values before the writer catches up.
+     */
+    public synchronized List<Task> overlay(List<Task> tasks) {
+        if (pending.isEmpty() && inFlight.isEmpty()) return tasks;
+
+        Map<Integer, List<PendingWrite>> byId = new HashMap<>();
+        for (PendingWrite write : inFlight) {
+            byId.computeIfAbsent(write.taskId, id -> new ArrayList<>()).add(write);
+        }
+        for (PendingWrite write : pending.values()) {
+            byId.computeIfAbsent(write.taskId, id -> new ArrayList<>()).add(write);
+        }
+
+        List<Task> result = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            List<PendingWrite> writes = byId.get(task.getId());
+            if (writes == null) {
+                result.add(task);
+                continue;
+            }
+            if (writes.stream().anyMatch(PendingWrite::isDelete)) continue;
+            writes.forEach(write -> write.applyTo(task));
+            result.add(task);
+        }
+        return result;
+    }
+
+    // Stops the writer after it has tried to flush what is queued; anything left stays in the journal
+    public void close(long timeoutMs) {
+        running = false;
+        synchronized (this) {
+            notifyAll();
+        }
+        try {
+            if (writer != null) writer.join(timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Error closing write journal: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private void drainLoop() {
+        while (true) {
+            List<PendingWrite> batch;
+            synchronized (this) {
+                while (pending.isEmpty() && running) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (pending.isEmpty()) return;
+            }
+
+            if (running) {
+                try {
+                    Thread.sleep(LINGER_MS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+
+            synchronized (this) {
+                batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+                Iterator<PendingWrite> it = pending.values().iterator();
+                while (it.hasNext() && batch.size() < batchSize) {
+                    batch.add(it.next());
+                    it.remove();
+                }
+                inFlight = new ArrayList<>(batch);
+            }
+
+            if (!writeWithRetry(batch)) return;
+
+            synchronized (this) {
+                inFlight = Collections.emptyList();
+                compactJournal();
+            }
+            firePendingChanged();
+        }
+    }
+
+    // Returns false if the queue was closed while the batch was still failing
+    private boolean writeWithRetry(List<PendingWrite> batch) {
+        long backoff = 250;
+        while (true) {
+            try {
+                applyOrIsolate(batch);
+                return true;
+            } catch (SQLException e) {
+                LOG.log(Level.WARNING, "Database unavailable, retrying queued writes: " + e.getMessage(), e);
+                if (!running) return false;
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    return false;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    /**
+     * Applies the batch, and when the database refuses it for a reason a retry cannot fix,
+     * applies its writes one by one and rejects only those that fail. Writes are removed
+     * from the batch once applied or rejected, so a transient failure part way through,
+     * thrown to the caller for a retry, does not repeat them.
+     */
+    private void applyOrIsolate(List<PendingWrite> batch) throws SQLException {
+        try {
+            apply(batch);
+            batch.clear();
+            return;
+        } catch (SQLException e) {
+            if (isTransient(e)) throw e;
+            if (batch.size() > 1) {
+                LOG.log(Level.WARNING, "Queued batch of " + batch.size() + " refused, applying its writes one by one: "
+                        + e.getMessage(), e);
+            }
+        }
+        Iterator<PendingWrite> it = batch.iterator();
+        while (it.hasNext()) {
+            PendingWrite write = it.next();
+            try {
+                apply(Collections.singletonList(write));
+            } catch (SQLException e) {
+                if (isTransient(e)) throw e;
+                reject(write, e);
+            }
+            it.remove();
+        }
+    }
+
+    private static boolean isTransient(SQLException e) {
+        return e instanceof SQLTransientException || e instanceof SQLRecoverableException
+                || e instanceof SQLNonTransientConnectionException;
+    }
+
+    // Keeps a write the database refused in the dead-letter file and tells the listener
+    private void reject(PendingWrite write, SQLException e) {
+        LOG.log(Level.WARNING, "Queued write for task " + write.taskId + " rejected, kept in "
+                + rejectedFile.getName() + ": " + e.getMessage(), e);
+        String records = "# " + new java.util.Date() + " " + escape(e.getMessage()) + "\n"
+                + (write.delete ? "D\t" + write.taskId + "\n" : journalRecords(write.taskId, write.update));
+        try (FileOutputStream out = new FileOutputStream(rejectedFile, true)) {
+            out.write(records.getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        } catch (IOException io) {
+            LOG.log(Level.WARNING, "Error writing rejected write for task " + write.taskId + ": " + io.getMessage(), io);
+        }
+        rejectedListener.accept(write, e);
+    }
+
+    // Applies a batch in one transaction, grouping updates that touch the same fields
+    private void apply(List<PendingWrite> batch) throws SQLException {
+        List<Integer> deletes = new ArrayList<>();
+        Map<Set<TaskField>, List<PendingWrite>> updatesByFields = new LinkedHashMap<>();
+        for (PendingWrite write : batch) {
+            if (write.delete) {
+                deletes.add(write.taskId);
+            } else if (!write.update.isEmpty()) {
+                updatesByFields.computeIfAbsent(EnumSet.copyOf(write.update.getFields()), k -> new ArrayList<>()).add(write);
+            }
+        }
+
+        DatabaseEvent event = DatabaseEvent.start("applyQueuedWrites", "TRANSACTION");
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (Map.Entry<Set<TaskField>, List<PendingWrite>> group : updatesByFields.entrySet()) {
+                    String sql = DatabaseManager.updateSql(group.getKey(), false);
+                    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                        for (PendingWrite write : group.getValue()) {
+                            DatabaseManager.bindUpdate(pstmt, write.update, write.taskId);
+                            pstmt.addBatch();
+                        }
+                        pstmt.executeBatch();
+                    }
+                }
+                if (!deletes.isEmpty()) {
+                    try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM tasks WHERE id = ?")) {
+                        for (int id : deletes) {
+                            pstmt.setInt(1, id);
+                            pstmt.addBatch();
+                        }
+                        pstmt.executeBatch();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            event.fail();
+            throw e;
+        }
+        event.end(batch.size());
+        for (PendingWrite write : batch) {
+            if (!write.delete && !write.update.isEmpty()) {
+                QueryCache.updated(Collections.singletonList(write.taskId), write.update);
+            }
+        }
+        if (!deletes.isEmpty()) {
+            QueryCache.deleted(deletes);
+        }
+    }
+
+    // One "U<tab>id<tab>column<tab>value" line per changed field
+    private static String journalRecords(int taskId, TaskUpdate update) {
+        StringBuilder records = new StringBuilder();
+        for (TaskField field : update.getFields()) {
+            records.append("U\t").append(taskId).append('\t').append(field.getColumn()).append('\t')
+                    .append(escape(field.format(update.get(field)))).append('\n');
+        }
+        return records.toString();
+    }
+
+    // Appends records and forces them to disk before the change is acknowledged
+    private void appendToJournal(String records) {
+        try {
+            journal.write(records.getBytes(StandardCharsets.UTF_8));
+            journal.getFD().sync();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Error writing to write journal: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Rewrites the journal to hold only writes that are still pending; called with the lock held.
+     * The new file is synced before it replaces the old one, so a crash cannot leave a renamed
+     * journal whose contents never reached the disk.
+     */
+    void compactJournal() {
+        File temp = new File(journalFile.getPath() + ".tmp");
+        try {
+            journal.close();
+            StringBuilder records = new StringBuilder();
+            for (PendingWrite write : pending.values()) {
+                records.append(write.delete ? "D\t" + write.taskId + "\n" : journalRecords(write.taskId, write.update));
+            }
+            try (FileOutputStream out = new FileOutputStream(temp)) {
+                out.write(records.toString().getBytes(StandardCharsets.UTF_8));
+                out.getFD().sync();
+            }
+            Files.move(temp.toPath(), journalFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Error compacting write journal: " + e.getMessage(), e);
+        } finally {
+            try {
+                journal = new FileOutputStream(journalFile, true);
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Error reopening write journal: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    // Coalesced writes recorded in a journal, in the order their tasks were first queued
+    static LinkedHashMap<Integer, PendingWrite> readJournal(File journalFile) throws IOException {
+        LinkedHashMap<Integer, PendingWrite> writes = new LinkedHashMap<>();
+        if (!journalFile.exists()) return writes;
+        String[] lines = new String(Files.readAllBytes(journalFile.toPath()), StandardCharsets.UTF_8).split("\n", -1);
+        // The last piece is empty, or a record torn by a crash mid-write whose value may be cut short
+        for (int i = 0; i < lines.length - 1; i++) {
+            String[] parts = lines[i].split("\t", 4);
+            try {
+                int taskId = Integer.parseInt(parts[1]);
+                if ("D".equals(parts[0])) {
+                    writes.computeIfAbsent(taskId, PendingWrite::new).delete = true;
+                } else if ("U".equals(parts[0]) && parts.length == 4) {
+                    TaskField field = TaskField.fromColumn(parts[2]);
+                    TaskUpdate update = new TaskUpdate().set(field, field.parse(unescape(parts[3])));
+                    PendingWrite write = writes.computeIfAbsent(taskId, PendingWrite::new);
+                    if (!write.delete) {
+                        write.update.merge(update);
+                    }
+                }
+            } catch (RuntimeException e) {
+                // A garbled line or an unknown column; skip it
+            }
+        }
+        return writes;
+    }
+
+    // Cuts a record torn by a crash off the end of the journal, so the next append starts a line of its own
+    private void truncateTornRecord() throws IOException {
+        if (!journalFile.exists()) return;
+        try (RandomAccessFile file = new RandomAccessFile(journalFile, "rw")) {
+            long end = file.length();
+            while (end > 0) {
+                file.seek(end - 1);
+                if (file.read() == '\n') break;
+                end--;
+            }
+            if (end < file.length()) {
+                file.setLength(end);
+                file.getFD().sync();
+            }
+        }
+    }
+
+    private void firePendingChanged() {
+        pendingListener.accept(getPendingCount());
+    }
+
+    // Keeps each record on one line; \N stands for null
+    static String escape(String value) {
+        if (value == null) return "\\N";
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    static String unescape(String value) {
+        if ("\\N".equals(value)) return null;
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                sb.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
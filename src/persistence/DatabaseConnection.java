@@ -1,13 +1,12 @@
 package persistence;
 
 import java.sql.*;
+import networking.DatabaseManager;
 
+// Kept for callers of the old API; the JDBC target is configured in networking.DatabaseConfig
 public class DatabaseConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/task_manager";
-    private static final String USER = "root";
-    private static final String PASSWORD = "password";
 
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        return DatabaseManager.getConnection();
     }
 }
@@ -0,0 +1,261 @@
+package persistence;
+
+import model.Task;
+import model.TaskQuery;
+import model.TaskUpdate;
+import networking.DatabaseManager.TaskStreamHandler;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Task store held entirely in memory, ordered by id. Nothing survives a restart;
+ * useful for tests, demos and as the fastest baseline in benchmarks.
+ * Every method is synchronized, and tasks are copied on the way in and out.
+ */
+public class InMemoryTaskRepository implements TaskRepository {
+
+    private final TreeMap<Integer, Task> tasks = new TreeMap<>();
+    // Completed tasks moved out of the working set by archiveCompleted
+    private final TreeMap<Integer, Task> archive = new TreeMap<>();
+    private int nextId = 1;
+
+    public InMemoryTaskRepository() {
+    }
+
+    // Starts with copies of the given tasks; tasks without an id get one
+    public InMemoryTaskRepository(Collection<Task> initial) {
+        this(initial, Collections.emptyList());
+    }
+
+    // Starts with copies of the given active and archived tasks
+    public InMemoryTaskRepository(Collection<Task> initial, Collection<Task> archived) {
+        for (Task task : archived) {
+            archive.put(task.getId(), task.copy());
+            nextId = Math.max(nextId, task.getId() + 1);
+        }
+        for (Task task : initial) {
+            Task copy = task.copy();
+            if (copy.getId() <= 0 || tasks.containsKey(copy.getId()) || archive.containsKey(copy.getId())) {
+                copy.setId(nextId);
+            }
+            nextId = Math.max(nextId, copy.getId() + 1);
+            tasks.put(copy.getId(), copy);
+        }
+    }
+
+    // Called after every change, while the store is locked; subclasses persist here
+    protected void changed() {
+    }
+
+    // Called after tasks were moved to the archive, while the store is locked
+    protected void archiveChanged() {
+    }
+
+    // The stored tasks themselves, in id order; only for subclasses holding the lock
+    protected Collection<Task> storedTasks() {
+        return tasks.values();
+    }
+
+    protected Collection<Task> archivedTasks() {
+        return archive.values();
+    }
+
+    // Active tasks, merged with the archive in id order when the query asks for it
+    private Collection<Task> source(TaskQuery query) {
+        if (!query.isIncludeArchive() || archive.isEmpty()) return tasks.values();
+        List<Task> all = new ArrayList<>(tasks.size() + archive.size());
+        all.addAll(tasks.values());
+        all.addAll(archive.values());
+        all.sort(Comparator.comparingInt(Task::getId));
+        return all;
+    }
+
+    @Override
+    public synchronized Task findById(int id) {
+        Task task = tasks.get(id);
+        return task == null ? null : task.copy();
+    }
+
+    @Override
+    public synchronized List<Task> find(TaskQuery query) {
+        List<Task> result = new ArrayList<>();
+        int skip = query.getOffset();
+        for (Task task : source(query)) {
+            if (!query.matches(task)) continue;
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            Task copy = task.copy();
+            if (!query.isIncludeDescriptions()) {
+                copy.setDescription(null);
+            }
+            result.add(copy);
+            if (query.getLimit() > 0 && result.size() == query.getLimit()) break;
+        }
+        return query.expandOccurrences(result);
+    }
+
+    @Override
+    public synchronized String findDescription(int id) {
+        Task task = tasks.get(id);
+        return task == null ? null : task.getDescription();
+    }
+
+    @Override
+    public synchronized List<Task> findChangedSince(Date since) {
+        List<Task> result = new ArrayList<>();
+        for (Task task : tasks.values()) {
+            if (task.getUpdatedAt() != null && task.getUpdatedAt().after(since)) {
+                result.add(task.copy());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized List<String> findTags() {
+        Set<String> tags = new TreeSet<>();
+        for (Task task : tasks.values()) {
+            tags.addAll(task.getTags());
+        }
+        return new ArrayList<>(tags);
+    }
+
+    @Override
+    public synchronized long count() {
+        return tasks.size();
+    }
+
+    // Copies the tasks first, so the handler runs without holding the lock
+    @Override
+    public long stream(boolean includeDescriptions, TaskStreamHandler handler) throws IOException {
+        TaskQuery query = new TaskQuery();
+        if (!includeDescriptions) {
+            query.summaries();
+        }
+        long count = 0;
+        for (Task task : find(query)) {
+            count++;
+            if (!includeDescriptions) {
+                task.setTags(Collections.emptyList());
+            }
+            if (!handler.accept(task)) break;
+        }
+        return count;
+    }
+
+    @Override
+    public synchronized boolean insert(Task task) {
+        store(task);
+        changed();
+        return true;
+    }
+
+    @Override
+    public synchronized int insertAll(Collection<Task> newTasks) {
+        for (Task task : newTasks) {
+            store(task);
+        }
+        changed();
+        return newTasks.size();
+    }
+
+    // Assigns the next id to the caller's task and keeps a copy of it
+    private void store(Task task) {
+        task.setId(nextId++);
+        task.setVersion(0);
+        task.setUpdatedAt(new Date());
+        tasks.put(task.getId(), task.copy());
+    }
+
+    @Override
+    public synchronized boolean update(int id, TaskUpdate update, Integer expectedVersion) {
+        Task task = tasks.get(id);
+        if (task == null || (expectedVersion != null && task.getVersion() != expectedVersion)) return false;
+        apply(task, update);
+        changed();
+        return true;
+    }
+
+    @Override
+    public synchronized int updateAll(Collection<Integer> ids, TaskUpdate update) {
+        int updated = 0;
+        for (int id : ids) {
+            Task task = tasks.get(id);
+            if (task != null) {
+                apply(task, update);
+                updated++;
+            }
+        }
+        changed();
+        return updated;
+    }
+
+    private static void apply(Task task, TaskUpdate update) {
+        update.applyTo(task);
+        task.setVersion(task.getVersion() + 1);
+        task.setUpdatedAt(new Date());
+    }
+
+    @Override
+    public synchronized Set<Integer> saveAll(Collection<Task> changedTasks) {
+        Set<Integer> saved = new HashSet<>();
+        for (Task changed : changedTasks) {
+            Task task = tasks.get(changed.getId());
+            if (task == null || task.getVersion() != changed.getVersion()) continue;
+            apply(task, TaskUpdate.of(changed));
+            task.setTags(changed.getTags());
+            saved.add(task.getId());
+        }
+        if (!saved.isEmpty()) changed();
+        return saved;
+    }
+
+    @Override
+    public synchronized boolean setTags(int id, Collection<String> tags) {
+        Task task = tasks.get(id);
+        if (task == null) return false;
+        task.setTags(tags);
+        task.setUpdatedAt(new Date());
+        changed();
+        return true;
+    }
+
+    @Override
+    public synchronized int archiveCompleted(Date cutoff, int limit) {
+        int moved = 0;
+        Iterator<Task> it = tasks.values().iterator();
+        while (it.hasNext() && moved < limit) {
+            Task task = it.next();
+            if ("Completed".equals(task.getStatus()) && task.getUpdatedAt() != null && task.getUpdatedAt().before(cutoff)) {
+                it.remove();
+                archive.put(task.getId(), task);
+                moved++;
+            }
+        }
+        if (moved > 0) {
+            changed();
+            archiveChanged();
+        }
+        return moved;
+    }
+
+    @Override
+    public synchronized boolean delete(int id) {
+        if (tasks.remove(id) == null) return false;
+        changed();
+        return true;
+    }
+
+    @Override
+    public synchronized int deleteAll(Collection<Integer> ids) {
+        int deleted = 0;
+        for (int id : ids) {
+            if (tasks.remove(id) != null) deleted++;
+        }
+        changed();
+        return deleted;
+    }
+}
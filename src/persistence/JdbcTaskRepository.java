@@ -0,0 +1,97 @@
+package persistence;
+
+import model.Task;
+import model.TaskQuery;
+import model.TaskUpdate;
+import networking.DatabaseManager;
+import networking.DatabaseManager.TaskStreamHandler;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+// Task store backed by the configured SQL database through DatabaseManager
+public class JdbcTaskRepository implements TaskRepository {
+
+    @Override
+    public Task findById(int id) {
+        return DatabaseManager.getTask(id);
+    }
+
+    @Override
+    public List<Task> find(TaskQuery query) {
+        return DatabaseManager.findTasks(query);
+    }
+
+    @Override
+    public String findDescription(int id) {
+        return DatabaseManager.getTaskDescription(id);
+    }
+
+    @Override
+    public List<Task> findChangedSince(Date since) {
+        return DatabaseManager.getTasksChangedSince(since);
+    }
+
+    @Override
+    public List<String> findTags() {
+        return DatabaseManager.getAllTags();
+    }
+
+    @Override
+    public long count() {
+        return DatabaseManager.countTasks();
+    }
+
+    @Override
+    public long stream(boolean includeDescriptions, TaskStreamHandler handler) throws IOException {
+        try {
+            return DatabaseManager.streamTasks(includeDescriptions, handler);
+        } catch (SQLException e) {
+            throw new IOException("Error reading tasks: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean insert(Task task) {
+        return insertAll(Collections.singletonList(task)) == 1;
+    }
+
+    @Override
+    public int insertAll(Collection<Task> tasks) {
+        return DatabaseManager.insertTasks(tasks);
+    }
+
+    @Override
+    public boolean update(int id, TaskUpdate update, Integer expectedVersion) {
+        return DatabaseManager.updateTask(id, update, expectedVersion);
+    }
+
+    @Override
+    public int updateAll(Collection<Integer> ids, TaskUpdate update) {
+        return DatabaseManager.updateTasks(ids, update);
+    }
+
+    @Override
+    public boolean setTags(int id, Collection<String> tags) {
+        return DatabaseManager.setTaskTags(id, tags);
+    }
+
+    @Override
+    public int archiveCompleted(Date cutoff, int limit) {
+        return DatabaseManager.archiveCompletedTasks(cutoff, limit);
+    }
+
+    @Override
+    public boolean delete(int id) {
+        return DatabaseManager.deleteTask(id);
+    }
+
+    @Override
+    public int deleteAll(Collection<Integer> ids) {
+        return DatabaseManager.deleteTasks(ids);
+    }
+}
@@ -0,0 +1,50 @@
+package persistence;
+
+import model.Task;
+
+import java.io.File;
+import java.util.ArrayList;
+
+/**
+ * Task store kept in memory and written back to a JSON file with TaskStorage
+ * after every change. Batch operations write the file once per call, so prefer
+ * them over loops of single updates on large files. Archived tasks live in a
+ * second file next to it (tasks-archive.json), written only when tasks are archived.
+ */
+public class JsonTaskRepository extends InMemoryTaskRepository {
+
+    private final File file;
+    private final File archiveFile;
+
+    public JsonTaskRepository() {
+        this(new File(TaskStorage.FILE_NAME));
+    }
+
+    public JsonTaskRepository(File file) {
+        this(file, archiveFileFor(file));
+    }
+
+    private JsonTaskRepository(File file, File archiveFile) {
+        super(TaskStorage.loadTasks(file), TaskStorage.loadTasks(archiveFile));
+        this.file = file;
+        this.archiveFile = archiveFile;
+    }
+
+    // tasks.json -> tasks-archive.json in the same directory
+    private static File archiveFileFor(File file) {
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+        String archiveName = dot < 0 ? name + "-archive" : name.substring(0, dot) + "-archive" + name.substring(dot);
+        return new File(file.getAbsoluteFile().getParentFile(), archiveName);
+    }
+
+    @Override
+    protected void changed() {
+        TaskStorage.saveTasks(new ArrayList<Task>(storedTasks()), file);
+    }
+
+    @Override
+    protected void archiveChanged() {
+        TaskStorage.saveTasks(new ArrayList<Task>(archivedTasks()), archiveFile);
+    }
+}
@@ -0,0 +1,88 @@
+package persistence;
+
+import networking.DatabaseConfig;
+import networking.WorkScheduler;
+
+import java.util.Date;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Background job that periodically moves completed tasks older than
+ * taskmanager.archive.afterDays out of the working set into the archive.
+ * Tasks are moved in batches so no single transaction holds locks for long.
+ * The timer thread only triggers runs; the archiving itself happens in the
+ * WorkScheduler's background lane.
+ */
+public class TaskArchiver {
+
+    private static final Logger LOG = Logger.getLogger(TaskArchiver.class.getName());
+
+    private final TaskRepository repository;
+    private final int afterDays;
+    private final int batchSize;
+    private ScheduledExecutorService scheduler;
+
+    public TaskArchiver(TaskRepository repository) {
+        this(repository, DatabaseConfig.getArchiveAfterDays());
+    }
+
+    public TaskArchiver(TaskRepository repository, int afterDays) {
+        this.repository = repository;
+        this.afterDays = afterDays;
+        this.batchSize = DatabaseConfig.getBatchSize();
+    }
+
+    // Starts the periodic job; does nothing when archiving is turned off (afterDays = 0)
+    public synchronized void start() {
+        if (afterDays <= 0 || scheduler != null) return;
+        long interval = DatabaseConfig.getArchiveIntervalMinutes();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "task-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runSafely, 1, interval, TimeUnit.MINUTES);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Archives every completed task last changed more than afterDays ago,
+     * one batch at a time. Returns the number of tasks moved.
+     */
+    public int archiveNow() {
+        Date cutoff = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(afterDays));
+        int total = 0;
+        int moved;
+        do {
+            moved = repository.archiveCompleted(cutoff, batchSize);
+            total += moved;
+        } while (moved == batchSize && !Thread.currentThread().isInterrupted());
+        return total;
+    }
+
+    // An exception would cancel the scheduled job, so log it and try again next time
+    private void runSafely() {
+        Future<Integer> run = WorkScheduler.getDefault().submit(WorkScheduler.Lane.BACKGROUND, this::archiveNow);
+        try {
+            int moved = run.get();
+            LOG.log(moved > 0 ? Level.INFO : Level.FINE, "Archived " + moved + " completed tasks.");
+        } catch (ExecutionException e) {
+            LOG.log(Level.WARNING, "Error archiving tasks: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            // stop() interrupts the timer; pass that on to the run
+            run.cancel(true);
+        }
+    }
+}
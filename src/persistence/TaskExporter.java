@@ -0,0 +1,237 @@
+package persistence;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import model.Task;
+import model.TaskField;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams tasks from a TaskRepository straight into an export file.
+ * With the JDBC store rows are written as they arrive from the database cursor,
+ * so memory use does not grow with the number of tasks.
+ */
+public class TaskExporter {
+
+    // Supported export formats with their usual file extensions
+    public enum Format {
+        TEXT("txt"), CSV("csv"), NDJSON("ndjson");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() { return extension; }
+
+        // Picks the format from a file name such as tasks.csv or tasks.ndjson.gz
+        public static Format fromFileName(String name) {
+            String base = name.toLowerCase().endsWith(".gz") ? name.substring(0, name.length() - 3) : name;
+            for (Format format : values()) {
+                if (base.toLowerCase().endsWith("." + format.extension)) return format;
+            }
+            return TEXT;
+        }
+    }
+
+    // Progress is reported every this many tasks
+    private static final int PROGRESS_INTERVAL = 1000;
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    // Exports from the configured store
+    public static long export(File file, Format format, boolean gzip,
+                              LongConsumer progress, BooleanSupplier cancelled) throws IOException {
+        return export(TaskRepositories.getDefault(), file, format, gzip, progress, cancelled);
+    }
+
+    /**
+     * Exports every task to the file.
+     * Stops early when cancelled returns true; the partial file is deleted in that case.
+     * A cancel arriving after the last task was written leaves the finished file in place.
+     * Returns the number of tasks written.
+     */
+    public static long export(TaskRepository repository, File file, Format format, boolean gzip,
+                              LongConsumer progress, BooleanSupplier cancelled) throws IOException {
+        long[] written = {0};
+        boolean[] stopped = {false};
+        boolean complete = false;
+
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 64 * 1024);
+        try {
+            if (gzip) {
+                out = new GZIPOutputStream(out, 64 * 1024);
+            }
+            try (Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                 RowWriter rows = rowWriter(format, writer)) {
+                rows.begin();
+                repository.stream(true, task -> {
+                    if (cancelled.getAsBoolean()) {
+                        stopped[0] = true;
+                        return false;
+                    }
+                    rows.write(task);
+                    if (++written[0] % PROGRESS_INTERVAL == 0) {
+                        progress.accept(written[0]);
+                    }
+                    return true;
+                });
+            }
+            complete = !stopped[0];
+        } finally {
+            if (!complete) {
+                out.close();
+                file.delete();
+            }
+        }
+        progress.accept(written[0]);
+        return written[0];
+    }
+
+    // Writes one task at a time in a particular format
+    private interface RowWriter extends Closeable {
+        default void begin() throws IOException { }
+        void write(Task task) throws IOException;
+    }
+
+    private static RowWriter rowWriter(Format format, Writer writer) throws IOException {
+        switch (format) {
+            case CSV: return new CsvWriter(writer);
+            case NDJSON: return new JsonLinesWriter(writer);
+            default: return new TextWriter(writer);
+        }
+    }
+
+    private static String formatDate(Task task) {
+        return TaskField.DUE_DATE.format(task.getDueDate());
+    }
+
+    // Same layout as the original tasks.txt download
+    private static final class TextWriter implements RowWriter {
+        private final Writer writer;
+
+        TextWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            writer.write("Task List:\n");
+            writer.write("===========================\n");
+        }
+
+        @Override
+        public void write(Task task) throws IOException {
+            writer.write("Title: " + task.getTitle() + "\n");
+            writer.write("Description: " + task.getDescription() + "\n");
+            writer.write("Due Date: " + formatDate(task) + "\n");
+            writer.write("Category: " + task.getCategory() + "\n");
+            writer.write("Status: " + task.getStatus() + "\n");
+            writer.write("---------------------------\n");
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+
+    // RFC 4180 CSV with a header row; tags are joined with semicolons, recurrence is the repeat rule text,
+    // assigned_user the username of the assignee
+    private static final class CsvWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            writer.write("id,title,description,due_date,category,status,tags,recurrence,assigned_user\r\n");
+        }
+
+        @Override
+        public void write(Task task) throws IOException {
+            writer.write(Integer.toString(task.getId()));
+            writer.write(',');
+            writeField(task.getTitle());
+            writer.write(',');
+            writeField(task.getDescription());
+            writer.write(',');
+            writeField(formatDate(task));
+            writer.write(',');
+            writeField(task.getCategory());
+            writer.write(',');
+            writeField(task.getStatus());
+            writer.write(',');
+            writeField(String.join(";", task.getTags()));
+            writer.write(',');
+            writeField(task.getRecurrence());
+            writer.write(',');
+            writeField(task.getAssignedUser());
+            writer.write("\r\n");
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null) return;
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+
+    // One JSON object per line, written with Jackson's streaming generator
+    private static final class JsonLinesWriter implements RowWriter {
+        private final JsonGenerator generator;
+
+        JsonLinesWriter(Writer writer) throws IOException {
+            this.generator = jsonFactory.createGenerator(writer);
+            this.generator.setRootValueSeparator(null);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        public void write(Task task) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", task.getId());
+            generator.writeStringField("title", task.getTitle());
+            generator.writeStringField("description", task.getDescription());
+            generator.writeStringField("dueDate", formatDate(task));
+            generator.writeStringField("category", task.getCategory());
+            generator.writeStringField("status", task.getStatus());
+            generator.writeArrayFieldStart("tags");
+            for (String tag : task.getTags()) {
+                generator.writeString(tag);
+            }
+            generator.writeEndArray();
+            if (task.getRecurrence() != null) {
+                generator.writeStringField("recurrence", task.getRecurrence());
+            }
+            if (task.getAssignedUser() != null) {
+                generator.writeStringField("assignedUser", task.getAssignedUser());
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.flush();
+        }
+    }
+}
@@ -0,0 +1,510 @@
+package persistence;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import model.Task;
+import model.TaskField;
+import networking.WorkScheduler;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Bulk-loads tasks into a TaskRepository from a tasks.json backup (TaskStorage),
+ * a JSON-lines or CSV export (TaskExporter), or a tasks.txt download.
+ *
+ * One thread reads the file and cuts it into chunks of raw records. A worker pool
+ * parses, validates and dedupes each chunk, then stores it with one insertAll call;
+ * on the JDBC store that is a multi-row insert in its own transaction, so several
+ * transactions load in parallel. Tasks already stored, or repeated in the file, are skipped.
+ */
+public class TaskImporter {
+
+    // Input formats; a trailing .gz is decompressed on the fly
+    public enum Format {
+        JSON, NDJSON, CSV, TEXT;
+
+        public static Format fromFileName(String name) {
+            String lower = name.toLowerCase();
+            if (lower.endsWith(".gz")) lower = lower.substring(0, lower.length() - 3);
+            if (lower.endsWith(".json")) return JSON;
+            if (lower.endsWith(".ndjson") || lower.endsWith(".jsonl")) return NDJSON;
+            if (lower.endsWith(".csv")) return CSV;
+            return TEXT;
+        }
+    }
+
+    // Outcome of an import, including the first few rejection reasons
+    public static class Result {
+        private final long imported;
+        private final long rejected;
+        private final long duplicates;
+        private final long elapsedMillis;
+        private final List<String> rejectSamples;
+
+        Result(long imported, long rejected, long duplicates, long elapsedMillis, List<String> rejectSamples) {
+            this.imported = imported;
+            this.rejected = rejected;
+            this.duplicates = duplicates;
+            this.elapsedMillis = elapsedMillis;
+            this.rejectSamples = rejectSamples;
+        }
+
+        public long getImported() { return imported; }
+        public long getRejected() { return rejected; }
+        public long getDuplicates() { return duplicates; }
+        public long getElapsedMillis() { return elapsedMillis; }
+        public List<String> getRejectSamples() { return rejectSamples; }
+
+        public double getRowsPerSecond() {
+            return elapsedMillis == 0 ? imported : imported * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Imported %d tasks in %.1f s (%.0f rows/s), %d rejected, %d duplicates skipped.",
+                    imported, elapsedMillis / 1000.0, getRowsPerSecond(), rejected, duplicates);
+        }
+    }
+
+    private static final int CHUNK_SIZE = 5000;
+    private static final int MAX_REJECT_SAMPLES = 20;
+    // Date format written by TaskStorage into tasks.json
+    private static final String STORAGE_DATE_FORMAT = "MMM dd, yyyy, hh:mm:ss a";
+
+    private static final ObjectReader jsonReader = new ObjectMapper().readerFor(JsonNode.class);
+
+    private final TaskRepository repository;
+    private final int threads;
+    private final Set<String> seenKeys = ConcurrentHashMap.newKeySet();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final List<String> rejectSamples = Collections.synchronizedList(new ArrayList<>());
+
+    public TaskImporter() {
+        this(TaskRepositories.getDefault());
+    }
+
+    public TaskImporter(int threads) {
+        this(TaskRepositories.getDefault(), threads);
+    }
+
+    public TaskImporter(TaskRepository repository) {
+        this(repository, Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public TaskImporter(TaskRepository repository, int threads) {
+        this.repository = repository;
+        this.threads = threads;
+    }
+
+    // Usage: TaskImporter <file> [threads]
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.out.println("Usage: TaskImporter <tasks.json|.ndjson|.csv|.txt[.gz]> [threads]");
+            return;
+        }
+        TaskImporter importer = args.length > 1 ? new TaskImporter(Integer.parseInt(args[1])) : new TaskImporter();
+        Result result = importer.importFile(new File(args[0]), count -> { });
+        System.out.println(result);
+        result.getRejectSamples().forEach(System.out::println);
+    }
+
+    /**
+     * Imports every valid, new task in the file. Progress receives the number of
+     * tasks written so far. One importer instance should be used for one import.
+     */
+    public Result importFile(File file, LongConsumer progress) throws IOException, InterruptedException {
+        long start = System.currentTimeMillis();
+        loadExistingKeys();
+
+        // Loader threads count against the caller's lane, so a bulk import keeps off the reserved connections
+        WorkScheduler.Lane lane = WorkScheduler.currentLane();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 2), r -> new Thread(() -> WorkScheduler.runAs(lane, r), "task-import-loader"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        List<Future<?>> chunks = new ArrayList<>();
+        Format format = Format.fromFileName(file.getName());
+
+        try (Reader reader = open(file)) {
+            List<Object> chunk = new ArrayList<>(CHUNK_SIZE);
+            Iterator<?> records = records(format, reader);
+            while (records.hasNext()) {
+                chunk.add(records.next());
+                if (chunk.size() == CHUNK_SIZE) {
+                    chunks.add(submit(pool, chunk, progress));
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                chunks.add(submit(pool, chunk, progress));
+            }
+        } catch (RuntimeException e) {
+            // Iterators wrap read and syntax errors
+            pool.shutdownNow();
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw e;
+        } finally {
+            pool.shutdown();
+        }
+
+        try {
+            for (Future<?> future : chunks) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            pool.shutdownNow();
+            throw new IOException(e.getCause());
+        }
+
+        progress.accept(imported.get());
+        return new Result(imported.get(), rejected.get(), duplicates.get(),
+                System.currentTimeMillis() - start, new ArrayList<>(rejectSamples));
+    }
+
+    private Future<?> submit(ExecutorService pool, List<Object> chunk, LongConsumer progress) {
+        return pool.submit(() -> {
+            RecordParser parser = new RecordParser();
+            List<Task> tasks = new ArrayList<>(chunk.size());
+            for (Object record : chunk) {
+                Task task;
+                try {
+                    task = parser.parse(record);
+                } catch (IllegalArgumentException e) {
+                    reject(e.getMessage());
+                    continue;
+                }
+                if (seenKeys.add(key(task))) {
+                    tasks.add(task);
+                } else {
+                    duplicates.incrementAndGet();
+                }
+            }
+            int stored = repository.insertAll(tasks);
+            if (stored < tasks.size()) {
+                // The store reports the cause on the console; the whole chunk was rolled back,
+                // so later copies of these rows in the file are not duplicates of anything stored
+                for (Task task : tasks) {
+                    seenKeys.remove(key(task));
+                }
+                rejected.addAndGet(tasks.size() - stored);
+                if (rejectSamples.size() < MAX_REJECT_SAMPLES) {
+                    rejectSamples.add((tasks.size() - stored) + " tasks could not be stored");
+                }
+            }
+            progress.accept(imported.addAndGet(stored));
+            return null;
+        });
+    }
+
+    // Seeds the dedupe set with tasks already stored, without loading descriptions
+    private void loadExistingKeys() throws IOException {
+        repository.stream(false, task -> {
+            seenKeys.add(key(task));
+            return true;
+        });
+    }
+
+    // Tasks with the same title, due date and category count as the same task
+    private static String key(Task task) {
+        return task.getTitle().trim().toLowerCase() + '\u0000'
+                + TaskField.DUE_DATE.format(task.getDueDate()) + '\u0000'
+                + (task.getCategory() == null ? "" : task.getCategory().toLowerCase());
+    }
+
+    private void reject(String reason) {
+        rejected.incrementAndGet();
+        if (rejectSamples.size() < MAX_REJECT_SAMPLES) {
+            rejectSamples.add(reason);
+        }
+    }
+
+    private static Reader open(File file) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(file), 64 * 1024);
+        if (file.getName().toLowerCase().endsWith(".gz")) {
+            in = new GZIPInputStream(in, 64 * 1024);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    // Raw records are JsonNodes for JSON input and {title, description, due date, category, status[, tags]} arrays otherwise
+    private static Iterator<?> records(Format format, Reader reader) throws IOException {
+        switch (format) {
+            case JSON:
+            case NDJSON:
+                // Handles both a top-level array and whitespace-separated objects
+                MappingIterator<JsonNode> nodes = jsonReader.readValues(reader);
+                return nodes;
+            case CSV:
+                return new CsvRecords(reader);
+            default:
+                return new TextRecords(reader);
+        }
+    }
+
+    // Turns raw records into validated tasks; one instance per chunk, so not thread-safe
+    private static final class RecordParser {
+        private final SimpleDateFormat storageFormat = new SimpleDateFormat(STORAGE_DATE_FORMAT);
+
+        Task parse(Object record) {
+            if (record instanceof JsonNode) {
+                JsonNode node = (JsonNode) record;
+                Task task = validate(text(node, "title"), text(node, "description"),
+                        jsonDate(node.get("dueDate")), text(node, "category"), text(node, "status"));
+                JsonNode tags = node.get("tags");
+                if (tags != null && tags.isArray()) {
+                    tags.forEach(tag -> addTag(task, tag.asText()));
+                }
+                task.setRecurrence(text(node, "recurrence"));
+                assign(task, text(node, "assignedUser"));
+                return task;
+            }
+            String[] fields = (String[]) record;
+            Task task = validate(fields[0], fields[1], parseDate(fields[2]), fields[3], fields[4]);
+            if (fields.length > 5 && fields[5] != null) {
+                // CSV exports list tags separated by semicolons
+                for (String tag : fields[5].split(";")) {
+                    addTag(task, tag);
+                }
+            }
+            if (fields.length > 6) {
+                task.setRecurrence(fields[6]);
+            }
+            if (fields.length > 7) {
+                assign(task, fields[7]);
+            }
+            return task;
+        }
+
+        private static void assign(Task task, String username) {
+            if (username != null && username.trim().length() > 50) {
+                throw new IllegalArgumentException("Assigned user too long for \"" + task.getTitle() + "\"");
+            }
+            task.setAssignedUser(username == null || username.isBlank() ? null : username.trim());
+        }
+
+        private static void addTag(Task task, String tag) {
+            if (tag == null || tag.isBlank()) return;
+            if (tag.trim().length() > 50) {
+                throw new IllegalArgumentException("Tag too long for \"" + task.getTitle() + "\"");
+            }
+            task.addTag(tag.trim());
+        }
+
+        private Date jsonDate(JsonNode node) {
+            if (node == null || node.isNull()) return null;
+            if (node.isNumber()) return new Date(node.asLong());
+            return parseDate(node.asText());
+        }
+
+        // Accepts yyyy-MM-dd (exports) and the TaskStorage backup format
+        private Date parseDate(String text) {
+            if (text == null || text.isBlank()) return null;
+            try {
+                return (Date) TaskField.DUE_DATE.parse(text.trim());
+            } catch (RuntimeException e) {
+                try {
+                    return storageFormat.parse(text.trim());
+                } catch (ParseException pe) {
+                    throw new IllegalArgumentException("Invalid due date: " + text);
+                }
+            }
+        }
+
+        private static String text(JsonNode node, String field) {
+            JsonNode value = node.get(field);
+            return value == null || value.isNull() ? null : value.asText();
+        }
+
+        private static Task validate(String title, String description, Date dueDate, String category, String status) {
+            if (title == null || title.isBlank()) {
+                throw new IllegalArgumentException("Missing title");
+            }
+            if (title.length() > 255) {
+                throw new IllegalArgumentException("Title longer than 255 characters: " + title.substring(0, 40) + "...");
+            }
+            if (dueDate == null) {
+                throw new IllegalArgumentException("Missing due date for \"" + title + "\"");
+            }
+            if (category == null || category.isBlank() || "null".equals(category)) {
+                category = "Personal";
+            } else if (category.length() > 50) {
+                throw new IllegalArgumentException("Category too long for \"" + title + "\"");
+            }
+            if (description != null && "null".equals(description)) {
+                description = null; // tasks.txt writes missing descriptions as "null"
+            }
+            if (status == null || status.isBlank() || "null".equals(status)) {
+                status = "Pending";
+            } else if ("Pending".equalsIgnoreCase(status.trim())) {
+                // Stored in the canonical case; status filters and archiving match it exactly
+                status = "Pending";
+            } else if ("Completed".equalsIgnoreCase(status.trim())) {
+                status = "Completed";
+            } else {
+                throw new IllegalArgumentException("Unknown status \"" + status + "\" for \"" + title + "\"");
+            }
+            return new Task(0, title, description, dueDate, category, status);
+        }
+    }
+
+    // Reads CSV records (RFC 4180 quoting, embedded newlines allowed) mapped by the header row
+    private static final class CsvRecords implements Iterator<String[]> {
+        private static final String[] COLUMNS = {"title", "description", "due_date", "category", "status", "tags", "recurrence", "assigned_user"};
+
+        private final Reader reader;
+        private final int[] positions = new int[COLUMNS.length];
+        private String[] next;
+
+        CsvRecords(Reader reader) throws IOException {
+            this.reader = reader;
+            List<String> header = readRow();
+            Arrays.fill(positions, -1);
+            if (header != null) {
+                for (int i = 0; i < header.size(); i++) {
+                    for (int c = 0; c < COLUMNS.length; c++) {
+                        if (COLUMNS[c].equalsIgnoreCase(header.get(i).trim())) positions[c] = i;
+                    }
+                }
+            }
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public String[] next() {
+            if (next == null) throw new NoSuchElementException();
+            String[] current = next;
+            advance();
+            return current;
+        }
+
+        private void advance() {
+            try {
+                List<String> row = readRow();
+                while (row != null && row.size() == 1 && row.get(0).isEmpty()) {
+                    row = readRow(); // blank line
+                }
+                if (row == null) {
+                    next = null;
+                    return;
+                }
+                String[] fields = new String[COLUMNS.length];
+                for (int c = 0; c < COLUMNS.length; c++) {
+                    int position = positions[c];
+                    fields[c] = position >= 0 && position < row.size() && !row.get(position).isEmpty() ? row.get(position) : null;
+                }
+                next = fields;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private List<String> readRow() throws IOException {
+            int c = reader.read();
+            if (c == -1) return null;
+            List<String> row = new ArrayList<>(8);
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int peek = reader.read();
+                        if (peek == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    row.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+            row.add(field.toString());
+            return row;
+        }
+    }
+
+    // Reads the tasks.txt layout: "Key: value" lines separated by dashed lines
+    private static final class TextRecords implements Iterator<String[]> {
+        private final BufferedReader reader;
+        private String[] next;
+
+        TextRecords(Reader reader) {
+            this.reader = (BufferedReader) reader;
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public String[] next() {
+            if (next == null) throw new NoSuchElementException();
+            String[] current = next;
+            advance();
+            return current;
+        }
+
+        private void advance() {
+            try {
+                String[] fields = null;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("---")) {
+                        if (fields != null) break;
+                        continue;
+                    }
+                    int colon = line.indexOf(": ");
+                    if (colon < 0) continue; // header lines
+                    int index = indexOf(line.substring(0, colon));
+                    if (index < 0) continue;
+                    if (fields == null) fields = new String[5];
+                    fields[index] = line.substring(colon + 2);
+                }
+                next = fields;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static int indexOf(String key) {
+            switch (key) {
+                case "Title": return 0;
+                case "Description": return 1;
+                case "Due Date": return 2;
+                case "Category": return 3;
+                case "Status": return 4;
+                default: return -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package persistence;
+
+import networking.DatabaseConfig;
+
+import java.util.logging.Logger;
+
+// Picks the task store configured with taskmanager.repository (see DatabaseConfig)
+public final class TaskRepositories {
+
+    private static final Logger LOG = Logger.getLogger(TaskRepositories.class.getName());
+
+    private static TaskRepository defaultRepository;
+
+    private TaskRepositories() {
+    }
+
+    // The store shared by the whole application, created on first use
+    public static synchronized TaskRepository getDefault() {
+        if (defaultRepository == null) {
+            defaultRepository = create(DatabaseConfig.getRepository());
+        }
+        return defaultRepository;
+    }
+
+    // A new store of the given type: jdbc, json or memory
+    public static TaskRepository create(String type) {
+        switch (type) {
+            case "json": return new JsonTaskRepository();
+            case "memory": return new InMemoryTaskRepository();
+            case "jdbc": return new JdbcTaskRepository();
+            default:
+                LOG.info("Unknown task repository \"" + type + "\", using jdbc.");
+                return new JdbcTaskRepository();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package persistence;
+
+import model.Task;
+import model.TaskQuery;
+import model.TaskUpdate;
+import networking.DatabaseManager.TaskStreamHandler;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Storage-independent access to tasks.
+ *
+ * Implementations keep tasks in the database (JdbcTaskRepository), in a JSON file
+ * (JsonTaskRepository) or only in memory (InMemoryTaskRepository); see
+ * TaskRepositories for picking one at startup. Tasks returned are detached copies:
+ * changing them does not change the store, only the update methods do.
+ * Failures are reported on the console and show up as null, false or a lower count.
+ */
+public interface TaskRepository {
+
+    // The task with the given id including its tags, or null
+    Task findById(int id);
+
+    // Matching tasks ordered by id, one page at a time if the query has a limit
+    List<Task> find(TaskQuery query);
+
+    default List<Task> findAll() {
+        return find(new TaskQuery());
+    }
+
+    // Description of a task loaded as a summary
+    String findDescription(int id);
+
+    // Tasks inserted or updated after the given time; deletions are not reported
+    List<Task> findChangedSince(Date since);
+
+    // Every distinct tag in use, alphabetically
+    List<String> findTags();
+
+    long count();
+
+    /**
+     * Hands every task to the handler in id order without collecting them first.
+     * Summaries leave out descriptions and tags. Returns the number handled.
+     */
+    long stream(boolean includeDescriptions, TaskStreamHandler handler) throws IOException;
+
+    // Stores a new task and sets its generated id; returns false if it was not stored
+    boolean insert(Task task);
+
+    // Stores new tasks in one go and sets their ids; returns the number stored
+    int insertAll(Collection<Task> tasks);
+
+    /**
+     * Applies a partial update. When expectedVersion is given the update only succeeds
+     * if the task is still at that version; false then means it changed or was deleted.
+     */
+    boolean update(int id, TaskUpdate update, Integer expectedVersion);
+
+    // Applies the same partial update to many tasks; returns the number updated
+    int updateAll(Collection<Integer> ids, TaskUpdate update);
+
+    // Replaces the tags of a task
+    boolean setTags(int id, Collection<String> tags);
+
+    /**
+     * Writes every field and the tags of each task where the stored task is still at the
+     * task's version, and returns the ids written. Stores that persist a whole file per
+     * change override this to write once for the batch.
+     */
+    default Set<Integer> saveAll(Collection<Task> tasks) {
+        Set<Integer> saved = new HashSet<>();
+        for (Task task : tasks) {
+            if (update(task.getId(), TaskUpdate.of(task), task.getVersion())) {
+                setTags(task.getId(), task.getTags());
+                saved.add(task.getId());
+            }
+        }
+        return saved;
+    }
+
+    boolean delete(int id);
+
+    /**
+     * Moves up to limit completed tasks last changed before the cutoff to the archive,
+     * where only queries with includeArchive see them. Returns the number moved.
+     */
+    int archiveCompleted(Date cutoff, int limit);
+
+    int deleteAll(Collection<Integer> ids);
+}
@@ -4,18 +4,23 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import model.Task;
+import monitoring.StorageEvent;
 
 import java.io.File;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 // Handles backup and recovery of tasks using JSON serialization
 public class TaskStorage {
 
+    private static final Logger LOG = Logger.getLogger(TaskStorage.class.getName());
+
     // JSON file used for storing tasks
-    private static final String FILE_NAME = "tasks.json";
+    static final String FILE_NAME = "tasks.json";
 
     // Configures the ObjectMapper for readable JSON and proper date formatting
     private static final ObjectMapper objectMapper = new ObjectMapper()
@@ -23,17 +28,32 @@ public class TaskStorage {
             .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
             .setDateFormat(new SimpleDateFormat("MMM dd, yyyy, hh:mm:ss a"));
 
+    // The local JSON file used when no other file is given
+    public static File getDefaultFile() {
+        return new File(FILE_NAME);
+    }
+
     /**
      * Saves the list of tasks to a local JSON file.
      * Demonstrates file I/O and object serialization with Jackson.
      */
     public static void saveTasks(List<Task> tasks) {
+        saveTasks(tasks, new File(FILE_NAME));
+    }
+
+    /**
+     * Saves the list of tasks to the given JSON file.
+     */
+    public static void saveTasks(List<Task> tasks, File file) {
+        StorageEvent event = StorageEvent.start("save", file.getName());
         try {
-            objectMapper.writeValue(new File(FILE_NAME), tasks);
-            System.out.println("Tasks backed up to tasks.json.");
+            objectMapper.writeValue(file, tasks);
+            event.end(file.length(), tasks.size(), false);
+            LOG.fine("Tasks backed up to " + file.getName() + ".");
         } catch (IOException e) {
             // Handles file writing exceptions
-            System.err.println("Error saving tasks: " + e.getMessage());
+            event.end(0, tasks.size(), true);
+            LOG.log(Level.WARNING, "Error saving tasks: " + e.getMessage(), e);
         }
     }
 
@@ -42,20 +62,30 @@ public class TaskStorage {
      * Returns an empty list if file is missing or corrupted.
      */
     public static List<Task> loadTasks() {
-        File file = new File(FILE_NAME);
+        return loadTasks(new File(FILE_NAME));
+    }
+
+    /**
+     * Loads tasks from the given JSON file.
+     */
+    public static List<Task> loadTasks(File file) {
         if (!file.exists()) {
             // File not found: return empty list to avoid errors
-            System.out.println("tasks.json not found. Returning empty list.");
+            LOG.info(file.getName() + " not found. Returning empty list.");
             return new ArrayList<>();
         }
 
+        StorageEvent event = StorageEvent.start("load", file.getName());
         try {
             // Deserialize JSON array into a list of Task objects
-            System.out.println("Loaded tasks from backup.");
-            return objectMapper.readValue(file, objectMapper.getTypeFactory().constructCollectionType(List.class, Task.class));
+            List<Task> tasks = objectMapper.readValue(file, objectMapper.getTypeFactory().constructCollectionType(List.class, Task.class));
+            event.end(file.length(), tasks.size(), false);
+            LOG.fine("Loaded tasks from backup.");
+            return tasks;
         } catch (IOException e) {
             // Handles file reading or parsing issues
-            System.err.println("Error loading tasks: " + e.getMessage());
+            event.end(file.length(), 0, true);
+            LOG.log(Level.WARNING, "Error loading tasks: " + e.getMessage(), e);
             return new ArrayList<>();
         }
     }
@@ -0,0 +1,191 @@
+package ui;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.Label;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+import model.Task;
+import monitoring.LatencyHistogram;
+import monitoring.Metrics;
+import networking.QueryCache;
+import networking.WorkScheduler;
+import networking.WriteBehindQueue;
+import persistence.TaskStorage;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Live view of where time goes: database latency percentiles, connections, queued writes,
+ * heap, task counts and how long work waits in each scheduler lane, sampled once a second
+ * from Metrics while the window is open.
+ * Each chart keeps the last minute.
+ */
+final class DiagnosticsWindow {
+
+    private static final int SAMPLES = 60;
+
+    private final WriteBehindQueue writeQueue;
+    private final Supplier<Collection<Task>> tasks;
+
+    private final XYChart.Series<Number, Number> p50 = series("p50");
+    private final XYChart.Series<Number, Number> p95 = series("p95");
+    private final XYChart.Series<Number, Number> p99 = series("p99");
+    private final XYChart.Series<Number, Number> connectionsInUse = series("In use");
+    private final XYChart.Series<Number, Number> connectionsOpened = series("Opened/s");
+    private final XYChart.Series<Number, Number> pendingWrites = series("Pending writes");
+    private final XYChart.Series<Number, Number> heapUsed = series("Used");
+    private final XYChart.Series<Number, Number> heapCommitted = series("Committed");
+    private final XYChart.Series<Number, Number> loadedTasks = series("Loaded");
+    private final XYChart.Series<Number, Number> completedTasks = series("Completed");
+    private final XYChart.Series<Number, Number> interactiveQueue = series("Interactive");
+    private final XYChart.Series<Number, Number> backgroundQueue = series("Background");
+    private final XYChart.Series<Number, Number> bulkQueue = series("Bulk");
+
+    private final Label callsLabel = new Label();
+    private final Label saveLabel = new Label();
+    private final Label fileLabel = new Label();
+    private final Label cacheLabel = new Label();
+    private final Label laneLabel = new Label();
+
+    private long[] lastLatencies = Metrics.DATABASE_LATENCY.snapshot();
+    private long[] lastInteractive = Metrics.INTERACTIVE_QUEUE_TIME.snapshot();
+    private long[] lastBackground = Metrics.BACKGROUND_QUEUE_TIME.snapshot();
+    private long[] lastBulk = Metrics.BULK_QUEUE_TIME.snapshot();
+    private long lastOpened = Metrics.getConnectionsOpened();
+    private int second;
+
+    private DiagnosticsWindow(WriteBehindQueue writeQueue, Supplier<Collection<Task>> tasks) {
+        this.writeQueue = writeQueue;
+        this.tasks = tasks;
+    }
+
+    // Opens the window; sampling stops when it is closed. Call on the FX thread.
+    static void show(WriteBehindQueue writeQueue, Supplier<Collection<Task>> tasks) {
+        new DiagnosticsWindow(writeQueue, tasks).open();
+    }
+
+    private void open() {
+        GridPane charts = new GridPane();
+        charts.setHgap(10);
+        charts.setVgap(10);
+        charts.add(chart("Database latency (ms)", p50, p95, p99), 0, 0);
+        charts.add(chart("Connections", connectionsInUse, connectionsOpened), 1, 0);
+        charts.add(chart("Background writes", pendingWrites), 0, 1);
+        charts.add(chart("Heap (MB)", heapUsed, heapCommitted), 1, 1);
+        charts.add(chart("Tasks", loadedTasks, completedTasks), 0, 2);
+        charts.add(new VBox(10, callsLabel, saveLabel, fileLabel, cacheLabel, laneLabel), 1, 2);
+        charts.add(chart("Lane queue time p95 (ms)", interactiveQueue, backgroundQueue, bulkQueue), 0, 3);
+
+        VBox layout = new VBox(charts);
+        layout.setPadding(new Insets(10));
+
+        Timeline sampler = new Timeline(new KeyFrame(Duration.seconds(1), e -> sample()));
+        sampler.setCycleCount(Timeline.INDEFINITE);
+
+        Stage stage = new Stage();
+        stage.setTitle("Diagnostics");
+        stage.setScene(new Scene(layout, 900, 900));
+        stage.setOnHidden(e -> sampler.stop());
+        sample();
+        sampler.play();
+        stage.show();
+    }
+
+    private void sample() {
+        second++;
+
+        long[] latencies = Metrics.DATABASE_LATENCY.snapshot();
+        long[] window = LatencyHistogram.delta(latencies, lastLatencies);
+        lastLatencies = latencies;
+        add(p50, LatencyHistogram.percentile(window, 50) / 1000.0);
+        add(p95, LatencyHistogram.percentile(window, 95) / 1000.0);
+        add(p99, LatencyHistogram.percentile(window, 99) / 1000.0);
+
+        long opened = Metrics.getConnectionsOpened();
+        add(connectionsInUse, WorkScheduler.getDefault().getConnectionsInUse());
+        add(connectionsOpened, opened - lastOpened);
+        lastOpened = opened;
+
+        add(pendingWrites, writeQueue == null ? 0 : writeQueue.getPendingCount());
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        add(heapUsed, heap.getUsed() / (1024.0 * 1024));
+        add(heapCommitted, heap.getCommitted() / (1024.0 * 1024));
+
+        Collection<Task> current = tasks.get();
+        long completed = current.stream().filter(task -> "Completed".equalsIgnoreCase(task.getStatus())).count();
+        add(loadedTasks, current.size());
+        add(completedTasks, completed);
+
+        long[] interactive = Metrics.INTERACTIVE_QUEUE_TIME.snapshot();
+        long[] background = Metrics.BACKGROUND_QUEUE_TIME.snapshot();
+        long[] bulk = Metrics.BULK_QUEUE_TIME.snapshot();
+        add(interactiveQueue, LatencyHistogram.percentile(LatencyHistogram.delta(interactive, lastInteractive), 95) / 1000.0);
+        add(backgroundQueue, LatencyHistogram.percentile(LatencyHistogram.delta(background, lastBackground), 95) / 1000.0);
+        add(bulkQueue, LatencyHistogram.percentile(LatencyHistogram.delta(bulk, lastBulk), 95) / 1000.0);
+        lastInteractive = interactive;
+        lastBackground = background;
+        lastBulk = bulk;
+
+        callsLabel.setText(String.format("Database calls last second: %d, failed since start: %d",
+                LatencyHistogram.count(window), Metrics.getDatabaseFailures()));
+        Metrics.SaveStats save = Metrics.getLastSave();
+        saveLabel.setText(save == null ? "Last save: none yet"
+                : String.format("Last save: %s, %d tasks in %.1f ms", save.getFile(), save.getTasks(), save.getNanos() / 1e6));
+        File file = TaskStorage.getDefaultFile();
+        fileLabel.setText(file.getName() + ": " + (file.exists() ? (file.length() / 1024) + " KB" : "not found"));
+        cacheLabel.setText(String.format("Query cache: %d results, %d hits, %d misses, %d invalidated, %d evicted, %d expired",
+                QueryCache.getSize(), QueryCache.getHits(), QueryCache.getMisses(), QueryCache.getInvalidations(),
+                QueryCache.getEvictions(), QueryCache.getExpirations()));
+        WorkScheduler scheduler = WorkScheduler.getDefault();
+        StringBuilder lanes = new StringBuilder("Connection waits: " + Metrics.getConnectionWaits());
+        for (WorkScheduler.Lane lane : WorkScheduler.Lane.values()) {
+            lanes.append(String.format(", %s %d queued/%d running", lane.name().toLowerCase(),
+                    scheduler.getQueued(lane), scheduler.getActive(lane)));
+        }
+        laneLabel.setText(lanes.toString());
+    }
+
+    private void add(XYChart.Series<Number, Number> series, double value) {
+        series.getData().add(new XYChart.Data<>(second, value));
+        if (series.getData().size() > SAMPLES) {
+            series.getData().remove(0);
+        }
+    }
+
+    @SafeVarargs
+    private static LineChart<Number, Number> chart(String title, XYChart.Series<Number, Number>... series) {
+        NumberAxis time = new NumberAxis();
+        time.setForceZeroInRange(false);
+        time.setLabel("s");
+        LineChart<Number, Number> chart = new LineChart<>(time, new NumberAxis());
+        chart.setTitle(title);
+        // Redrawn every second, so animating each new point would only cost frames
+        chart.setAnimated(false);
+        chart.setCreateSymbols(false);
+        chart.setPrefSize(430, 200);
+        // One at a time; passing the generic array on to addAll would risk heap pollution
+        for (XYChart.Series<Number, Number> line : series) {
+            chart.getData().add(line);
+        }
+        return chart;
+    }
+
+    private static XYChart.Series<Number, Number> series(String name) {
+        XYChart.Series<Number, Number> series = new XYChart.Series<>();
+        series.setName(name);
+        return series;
+    }
+}
@@ -0,0 +1,113 @@
+package ui;
+
+import javafx.animation.AnimationTimer;
+import javafx.animation.PauseTransition;
+import javafx.scene.Node;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.util.Duration;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures rendering while a node is being scrolled, enabled with -Dtaskmanager.ui.profileScroll=true.
+ * A burst starts with the first scroll or key event and ends after half a second without one;
+ * it is then printed with frame rate, worst frame, garbage collections and the bytes the FX
+ * thread allocated.
+ */
+final class ScrollProfiler {
+
+    static final String ENABLED = "taskmanager.ui.profileScroll";
+
+    private final String name;
+    private final PauseTransition idle = new PauseTransition(Duration.millis(500));
+    private final AnimationTimer frames = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            if (lastFrame != 0) {
+                worstFrame = Math.max(worstFrame, now - lastFrame);
+            }
+            lastFrame = now;
+            frameCount++;
+        }
+    };
+
+    private boolean active;
+    private long startNanos;
+    private long lastFrame;
+    private long worstFrame;
+    private int frameCount;
+    private long startCollections;
+    private long startCollectionMillis;
+    private long startAllocated;
+
+    private ScrollProfiler(String name) {
+        this.name = name;
+        idle.setOnFinished(e -> finish());
+    }
+
+    static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED);
+    }
+
+    // Starts profiling scrolls of the node; call on the FX thread
+    static void attach(Node node, String name) {
+        ScrollProfiler profiler = new ScrollProfiler(name);
+        node.addEventFilter(ScrollEvent.ANY, e -> profiler.activity());
+        node.addEventFilter(KeyEvent.KEY_PRESSED, e -> profiler.activity());
+    }
+
+    private void activity() {
+        if (!active) {
+            active = true;
+            startNanos = System.nanoTime();
+            lastFrame = 0;
+            worstFrame = 0;
+            frameCount = 0;
+            startCollections = collections();
+            startCollectionMillis = collectionMillis();
+            startAllocated = allocatedBytes();
+            frames.start();
+        }
+        idle.playFromStart();
+    }
+
+    private void finish() {
+        frames.stop();
+        active = false;
+        // The trailing idle wait is not part of the burst
+        double seconds = Math.max(1, System.nanoTime() - startNanos - 500_000_000L) / 1e9;
+        long allocated = allocatedBytes() - startAllocated;
+        System.out.printf("Scroll %s: %d frames in %.1f s (%.0f fps, worst frame %.1f ms), GC: %d collections, %d ms, FX thread allocated %s%n",
+                name, frameCount, seconds, frameCount / seconds, worstFrame / 1e6,
+                collections() - startCollections, collectionMillis() - startCollectionMillis,
+                startAllocated < 0 ? "n/a" : (allocated / 1024) + " KB");
+    }
+
+    private static long collections() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long collectionMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return millis;
+    }
+
+    // Bytes allocated by the calling (FX) thread so far, or -1 when the JVM cannot tell
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,31 @@
+package ui;
+
+import model.Task;
+import persistence.TaskStorage;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * First page of the task list from the previous run, shown while the real list is
+ * still loading. The file is small, so reading it does not delay the window; its rows
+ * may be stale and are replaced as soon as the full load finishes.
+ */
+final class StartupCache {
+
+    static final int ROWS = 100;
+    private static final File FILE = new File("startup-cache.json");
+
+    private StartupCache() {
+    }
+
+    static List<Task> load() {
+        return FILE.exists() ? TaskStorage.loadTasks(FILE) : new ArrayList<>();
+    }
+
+    // Keeps the first rows of a freshly loaded list for the next start
+    static void save(List<Task> tasks) {
+        TaskStorage.saveTasks(new ArrayList<>(tasks.subList(0, Math.min(ROWS, tasks.size()))), FILE);
+    }
+}
@@ -0,0 +1,52 @@
+package ui;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Times the phases of application startup and logs them as one breakdown. Each phase
+ * is listed with its duration and its span since JVM start, so phases that ran side
+ * by side on background threads show up as overlapping spans.
+ */
+final class StartupTimer {
+
+    private static final Logger LOG = Logger.getLogger(StartupTimer.class.getName());
+
+    private final long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private final List<String> phases = new ArrayList<>();
+    private long lastMark = jvmStart;
+
+    // The first phase runs from JVM start to the construction of the timer
+    StartupTimer() {
+        mark("JVM and FX launch");
+    }
+
+    // Ends a phase that began at the previous mark, for the steps run one after another on the FX thread
+    synchronized void mark(String phase) {
+        long now = System.currentTimeMillis();
+        add(phase, lastMark, now);
+        lastMark = now;
+    }
+
+    // Times a phase running alongside others, e.g. on a background thread
+    <T> T time(String phase, Supplier<T> work) {
+        long start = System.currentTimeMillis();
+        T result = work.get();
+        long end = System.currentTimeMillis();
+        synchronized (this) {
+            add(phase, start, end);
+        }
+        return result;
+    }
+
+    synchronized void report() {
+        LOG.info("Startup took " + (lastMark - jvmStart) + " ms: " + String.join(", ", phases));
+    }
+
+    private void add(String phase, long start, long end) {
+        phases.add(phase + " " + (end - start) + " ms [" + (start - jvmStart) + "-" + (end - jvmStart) + "]");
+    }
+}
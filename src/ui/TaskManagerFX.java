@@ -12,18 +12,29 @@ package ui;
 
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
-import networking.DatabaseManager;
+import networking.DatabaseConfig;
+import networking.TaskServer;
+import networking.WorkScheduler;
+import networking.WriteBehindQueue;
 
 import java.io.*;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
+import javafx.animation.PauseTransition;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -32,46 +43,114 @@ import javafx.scene.Scene;
 import javafx.scene.chart.PieChart;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
+import model.Recurrence;
+import model.ReminderScheduler;
 import model.Task;
-import model.TaskManager;
+import model.TaskField;
+import model.TaskQuery;
+import model.TaskSearchIndex;
+import model.TaskStatistics;
+import model.TaskUpdate;
+import monitoring.TableRefreshEvent;
+import persistence.TaskExporter;
+import persistence.JdbcTaskRepository;
+import persistence.TaskArchiver;
+import persistence.TaskImporter;
+import persistence.TaskRepositories;
+import persistence.TaskRepository;
 
 // Entry point for the JavaFX application
 public class TaskManagerFX extends Application {
-    private TaskManager taskManager = new TaskManager();
+    private static final Logger LOG = Logger.getLogger(TaskManagerFX.class.getName());
+    private static final int SEARCH_LIMIT = 500;
+    // Work to run once the first full task list is on screen, e.g. starting the server
+    private static final List<Runnable> afterStartup = new CopyOnWriteArrayList<>();
+    // Task store picked with taskmanager.repository; every read and write goes through it.
+    // Opened in the background at startup, null until then.
+    private TaskRepository repository;
     private TableView<Task> tableView = new TableView<>();
     private SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+    // Background writer for edits when taskmanager.db.writeBehind is set, otherwise null
+    private WriteBehindQueue writeQueue;
+    private Label pendingWritesLabel = new Label();
+    // Moves old completed tasks to the archive in the background, created with the store
+    private TaskArchiver archiver;
+    // Due and overdue reminders for the loaded tasks, also pushed to TaskServer subscribers
+    private ReminderScheduler reminders = new ReminderScheduler();
+    private Label reminderLabel = new Label();
+    // When ticked the list also shows archived tasks
+    private CheckBox includeArchive = new CheckBox("Include archive");
+    private TextArea descriptionArea = new TextArea();
+    // Ids whose description has been fetched since the last reload
+    private Set<Integer> loadedDescriptions = new HashSet<>();
+    // Word index over titles and descriptions, built in the background and kept current by the edit paths
+    private TaskSearchIndex searchIndex = new TaskSearchIndex();
+    // Index changes made while a rebuild runs, replayed onto the rebuilt index; null when none runs
+    private List<Consumer<TaskSearchIndex>> indexChanges;
+    // Rows from the last load, so search hits can be shown without another query
+    private Map<Integer, Task> rowsById = new HashMap<>();
+    // Counts behind the analytics, kept current with the rows
+    private TaskStatistics statistics = new TaskStatistics();
+    private TextField searchField = new TextField();
+    // Waits for a pause in typing before searching
+    private PauseTransition searchDelay = new PauseTransition(Duration.millis(200));
 
     public static void main(String[] args) {
         launch(args);
     }
 
+    // Defers work that the first screen does not need until the task list has loaded
+    public static void runAfterStartup(Runnable task) {
+        afterStartup.add(task);
+    }
+
 
     @Override
     public void start(Stage primaryStage) {
+        StartupTimer startup = new StartupTimer();
         primaryStage.setTitle("Task Manager FX");
 
         //loadTasksFromFile();
 
-        // Loads tasks and initializes the JavaFX TableView with task properties
-        TableColumn<Task, String> titleColumn = new TableColumn<>("Title");
-        titleColumn.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().getTitle()));
+        // Loads tasks and initializes the JavaFX TableView with task properties.
+        // Cells read the cached TaskRowModel properties, so scrolling formats and allocates nothing per cell.
+        TableColumn<Task, String> titleColumn = textColumn("Title");
+        titleColumn.setCellValueFactory(cellData -> TaskRowModel.of(cellData.getValue()).titleProperty());
 
-        TableColumn<Task, String> descriptionColumn = new TableColumn<>("Description");
-        descriptionColumn.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().getDescription()));
+        TableColumn<Task, String> dueDateColumn = textColumn("Due Date");
+        dueDateColumn.setCellValueFactory(cellData -> TaskRowModel.of(cellData.getValue()).dueDateProperty());
 
-        TableColumn<Task, String> dueDateColumn = new TableColumn<>("Due Date");
-        dueDateColumn.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(dateFormat.format(cellData.getValue().getDueDate())));
+        TableColumn<Task, String> categoryColumn = textColumn("Category");
+        categoryColumn.setCellValueFactory(cellData -> TaskRowModel.of(cellData.getValue()).categoryProperty());
 
-        TableColumn<Task, String> categoryColumn = new TableColumn<>("Category");
-        categoryColumn.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().getCategory()));
+        TableColumn<Task, String> statusColumn = textColumn("Status");
+        statusColumn.setCellValueFactory(cellData -> TaskRowModel.of(cellData.getValue()).statusProperty());
 
-        TableColumn<Task, String> statusColumn = new TableColumn<>("Status");
-        statusColumn.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().getStatus()));
+        TableColumn<Task, String> tagsColumn = textColumn("Tags");
+        tagsColumn.setCellValueFactory(cellData -> TaskRowModel.of(cellData.getValue()).tagsProperty());
 
-        tableView.getColumns().addAll(titleColumn, descriptionColumn, dueDateColumn, categoryColumn, statusColumn);
-        updateTable();
+        tableView.getColumns().addAll(titleColumn, dueDateColumn, categoryColumn, statusColumn, tagsColumn);
+        // Multi-selection enables the bulk remove/complete/recategorise actions
+        tableView.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        // Rows all have the same height, so the table does not measure each one while scrolling
+        tableView.setFixedCellSize(24);
+        if (ScrollProfiler.isEnabled()) {
+            ScrollProfiler.attach(tableView, "task table");
+        }
+        // List rows carry no description; it is fetched when a row is selected
+        descriptionArea.setEditable(false);
+        descriptionArea.setWrapText(true);
+        descriptionArea.setPrefRowCount(3);
+        descriptionArea.setPromptText("Select a task to see its description");
+        tableView.getSelectionModel().selectedItemProperty().addListener((obs, oldTask, task) -> showDescription(task));
+
+        searchField.setPromptText("Search titles, descriptions and tags...");
+        searchDelay.setOnFinished(e -> runSearch(searchField.getText()));
+        searchField.textProperty().addListener((obs, oldText, text) -> searchDelay.playFromStart());
 
         double buttonWidth = 120;
 
@@ -83,45 +162,325 @@ public class TaskManagerFX extends Application {
         categoryFilter.setOnAction(e -> filterByCategory(categoryFilter.getValue()));
         categoryFilter.setMinWidth(buttonWidth);
 
+        // Tag filtering runs as a query against the tag index rather than over the loaded rows
+        ComboBox<String> tagFilter = new ComboBox<>();
+        tagFilter.getStyleClass().add("combo-box");
+        tagFilter.setPromptText("Filter by tag");
+        tagFilter.setOnShowing(e -> {
+            List<String> tags = new ArrayList<>();
+            tags.add("All");
+            tags.addAll(repository.findTags());
+            tagFilter.getItems().setAll(tags);
+        });
+        tagFilter.setOnAction(e -> filterByTag(tagFilter.getValue()));
+        tagFilter.setMinWidth(buttonWidth);
+
         // Creates functional buttons with assigned event handlers
         Button addButton = createButton("Add Task", buttonWidth, e -> addTask());
         Button removeButton = createButton("Remove Task", buttonWidth, e -> removeTask());
         Button editButton = createButton("Edit Task", buttonWidth, e -> editTask());
         Button completeButton = createButton("Mark as Completed", buttonWidth, e -> markTaskAsCompleted());
+        Button categoryButton = createButton("Change Category", buttonWidth, e -> changeCategory());
         Button sortButton = createButton("Sort by Due Date", buttonWidth, e -> showSortedTasks());
         Button filterCompletedButton = createButton("Show Completed", buttonWidth, e -> showCompletedTasks());
         Button filterPendingButton = createButton("Show Pending", buttonWidth, e -> showPendingTasks());
         Button filterDueTodayButton = createButton("Show Due Today", buttonWidth, e -> showDueTodayTasks());
         Button analyticsButton = createButton("Show Analytics", buttonWidth, e -> showAnalytics());
-        Button downloadButton = createButton("Download Tasks", buttonWidth, e -> exportTasksToTextFile());
+        Button diagnosticsButton = createButton("Diagnostics", buttonWidth, e -> DiagnosticsWindow.show(writeQueue, rowsById::values));
+        Button downloadButton = createButton("Download Tasks", buttonWidth, e -> exportTasks(primaryStage));
+        Button importButton = createButton("Import Tasks", buttonWidth, e -> importTasks(primaryStage));
+        includeArchive.setOnAction(e -> updateTable());
+
         Button exitButton = createButton("Exit", buttonWidth, e -> {
             //saveTasksToFile();
+            if (archiver != null) {
+                archiver.stop();
+            }
+            reminders.stop();
+            if (writeQueue != null) {
+                // Gives the writer a moment to flush; anything left is replayed from the journal next time
+                writeQueue.close(5000);
+            }
             System.exit(0);
         });
 
 
         // UI components arranged with VBox, HBox, and BorderPane
-        VBox taskButtons = new VBox(10, addButton, removeButton, editButton, completeButton);
+        VBox taskButtons = new VBox(10, addButton, removeButton, editButton, completeButton, categoryButton);
         taskButtons.setAlignment(Pos.CENTER_LEFT);
 
-        VBox filterButtons = new VBox(10, filterCompletedButton, filterPendingButton, filterDueTodayButton, categoryFilter);
+        VBox filterButtons = new VBox(10, filterCompletedButton, filterPendingButton, filterDueTodayButton, categoryFilter, tagFilter, includeArchive);
         filterButtons.setAlignment(Pos.CENTER);
 
-        VBox otherButtons = new VBox(10, sortButton, analyticsButton, downloadButton, exitButton);
+        VBox otherButtons = new VBox(10, sortButton, analyticsButton, diagnosticsButton, downloadButton, importButton, exitButton);
         otherButtons.setAlignment(Pos.CENTER_RIGHT);
 
         HBox buttonBox = new HBox(20, taskButtons, filterButtons, otherButtons);
         buttonBox.setPadding(new Insets(10));
         buttonBox.setAlignment(Pos.CENTER);
 
-        VBox layout = new VBox(10, tableView, buttonBox);
+        VBox layout = new VBox(10, searchField, tableView, descriptionArea, buttonBox, reminderLabel);
         layout.setPadding(new Insets(10));
 
         Scene scene = new Scene(layout, 900, 550);
         scene.getStylesheets().add(getClass().getResource("styles.css").toExternalForm());
 
+        // Until the store is open the controls wait and the table shows the first page of the last run
+        buttonBox.setDisable(true);
+        searchField.setDisable(true);
+        tableView.setPlaceholder(new Label("Loading tasks..."));
+        startup.mark("build window");
+        tableView.setItems(FXCollections.observableArrayList(StartupCache.load()));
+        startup.mark("cached first page");
+
         primaryStage.setScene(scene);
         primaryStage.show();
+        startup.mark("show window");
+
+        loadInBackground(startup, () -> {
+            buttonBox.setDisable(false);
+            searchField.setDisable(false);
+            tableView.setPlaceholder(new Label("No tasks"));
+            if (writeQueue != null) {
+                layout.getChildren().add(pendingWritesLabel);
+            }
+        });
+    }
+
+    /**
+     * Opens the store and loads the task list off the FX thread; the write journal is
+     * replayed while the query runs. Archiving, reminders, the search index and deferred
+     * work such as the server start only once the list is on screen.
+     */
+    private void loadInBackground(StartupTimer startup, Runnable ready) {
+        TableRefreshEvent event = TableRefreshEvent.start("startup");
+        // The user is waiting for the list, so this is interactive work
+        Executor interactive = WorkScheduler.getDefault().executor(WorkScheduler.Lane.INTERACTIVE);
+        CompletableFuture<TaskRepository> store = CompletableFuture.supplyAsync(() ->
+                startup.time("open store", TaskRepositories::getDefault), interactive);
+        CompletableFuture<WriteBehindQueue> queue = store.thenApplyAsync(opened ->
+                startup.time("replay write journal", () -> openWriteQueue(opened)), interactive);
+        CompletableFuture<List<Task>> rows = store.thenApplyAsync(opened ->
+                startup.time("query tasks", () -> opened.find(new TaskQuery().summaries())), interactive);
+
+        queue.thenCombine(rows, (openedQueue, found) -> openedQueue == null ? found : openedQueue.overlay(found))
+                .whenComplete((tasks, error) -> Platform.runLater(() -> {
+                    if (error != null) {
+                        event.end(0);
+                        Throwable cause = error.getCause() != null ? error.getCause() : error;
+                        showAlert("Tasks could not be loaded: " + cause.getMessage());
+                        return;
+                    }
+                    repository = store.join();
+                    writeQueue = queue.join();
+                    archiver = new TaskArchiver(repository);
+                    loadedDescriptions.clear();
+                    remember(tasks);
+                    showRows(event, tasks);
+                    ready.run();
+                    startup.mark("show tasks");
+
+                    archiver.start();
+                    startReminders();
+                    buildSearchIndex();
+                    WorkScheduler.getDefault().run(WorkScheduler.Lane.BACKGROUND, () -> StartupCache.save(tasks));
+                    afterStartup.forEach(Runnable::run);
+                    startup.mark("start background work");
+                    startup.report();
+                }));
+    }
+
+    // The queue writes straight to the database, so it only applies to the JDBC store; null when off
+    private WriteBehindQueue openWriteQueue(TaskRepository store) {
+        if (!DatabaseConfig.isWriteBehind() || !(store instanceof JdbcTaskRepository)) return null;
+        try {
+            WriteBehindQueue opened = new WriteBehindQueue(new File("pending-writes.log"));
+            opened.setPendingListener(count ->
+                    Platform.runLater(() -> pendingWritesLabel.setText("Pending writes: " + count)));
+            // The edit was already shown as saved, so say so and show what the database kept
+            opened.setRejectedListener((write, e) -> Platform.runLater(() -> {
+                showAlert("A change to task " + write.getTaskId() + " could not be saved (" + e.getMessage()
+                        + ") and was kept in " + opened.getRejectedFile().getName() + ".");
+                updateTable();
+            }));
+            return opened;
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Write-behind disabled, journal unavailable: " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private void startReminders() {
+        reminders.addReminderListener((task, kind) -> Platform.runLater(() ->
+                reminderLabel.setText(kind == ReminderScheduler.Kind.DUE
+                        ? "Reminder: \"" + task.getTitle() + "\" is due today"
+                        : "Reminder: \"" + task.getTitle() + "\" is overdue")));
+        TaskServer.pushReminders(reminders);
+        reminders.start();
+    }
+
+    // Loads task summaries (no descriptions) with any not-yet-written edits applied on top
+    private List<Task> loadTasks() {
+        loadedDescriptions.clear();
+        TaskQuery query = new TaskQuery().summaries();
+        if (includeArchive.isSelected()) {
+            query.includeArchive();
+        }
+        List<Task> tasks = repository.find(query);
+        if (writeQueue != null) {
+            tasks = writeQueue.overlay(tasks);
+        }
+        remember(tasks);
+        return tasks;
+    }
+
+    // Keeps the loaded rows for search hits and reminders
+    private void remember(List<Task> tasks) {
+        rowsById = new HashMap<>(tasks.size() * 2);
+        for (Task task : tasks) {
+            rowsById.put(task.getId(), task);
+        }
+        statistics.setTasks(tasks);
+        reminders.setTasks(tasks);
+    }
+
+    // Indexes every task, descriptions included, without blocking the UI
+    private void buildSearchIndex() {
+        List<Consumer<TaskSearchIndex>> changes = new ArrayList<>();
+        indexChanges = changes;
+        WorkScheduler.getDefault().run(WorkScheduler.Lane.BACKGROUND, () -> {
+            TaskSearchIndex index = new TaskSearchIndex();
+            try {
+                repository.stream(true, task -> {
+                    index.index(task);
+                    return true;
+                });
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Error building search index: " + e.getMessage(), e);
+                Platform.runLater(() -> {
+                    if (indexChanges == changes) indexChanges = null;
+                });
+                return;
+            }
+            Platform.runLater(() -> {
+                // Adds, edits and deletes made meanwhile may be missing from what was read
+                changes.forEach(change -> change.accept(index));
+                if (indexChanges == changes) indexChanges = null;
+                searchIndex = index;
+                if (!searchField.getText().trim().isEmpty()) {
+                    runSearch(searchField.getText());
+                }
+            });
+        });
+    }
+
+    // Applies a change to the search index, and remembers it for a rebuild in progress. Call on the FX thread.
+    private void changeIndex(Consumer<TaskSearchIndex> change) {
+        change.accept(searchIndex);
+        if (indexChanges != null) indexChanges.add(change);
+    }
+
+    // Shows the best matches for the query, or every task when it is empty
+    private void runSearch(String query) {
+        if (query == null || query.trim().isEmpty()) {
+            updateTable();
+            return;
+        }
+        TableRefreshEvent event = TableRefreshEvent.start("search");
+        List<Task> matches = new ArrayList<>();
+        for (int id : searchIndex.search(query, SEARCH_LIMIT)) {
+            Task task = rowsById.get(id);
+            if (task != null) {
+                matches.add(task);
+            }
+        }
+        showRows(event, matches);
+    }
+
+    // Fetches the description of a summary row the first time it is needed
+    private void ensureDescriptionLoaded(Task task) {
+        // Rows cached from the last run can be selected before the store is open
+        if (task.getDescription() == null && repository != null && loadedDescriptions.add(task.getId())) {
+            task.setDescription(repository.findDescription(task.getId()));
+        }
+    }
+
+    private void showDescription(Task task) {
+        if (task == null) {
+            descriptionArea.clear();
+            return;
+        }
+        ensureDescriptionLoaded(task);
+        descriptionArea.setText(task.getDescription() == null ? "" : task.getDescription());
+    }
+
+    // Persists a status change, queued and shown immediately when write-behind is on
+    private void writeStatus(List<Task> tasks, String status) {
+        if (writeQueue != null) {
+            for (Task task : tasks) {
+                task.setStatus(status);
+                writeQueue.update(task.getId(), new TaskUpdate().set(TaskField.STATUS, status));
+                statistics.add(task);
+                reminders.schedule(task);
+            }
+            tableView.refresh();
+        } else {
+            repository.updateAll(taskIds(tasks), new TaskUpdate().set(TaskField.STATUS, status));
+            updateTable();
+        }
+    }
+
+    private void writeCategory(List<Task> tasks, String category) {
+        if (writeQueue != null) {
+            for (Task task : tasks) {
+                task.setCategory(category);
+                writeQueue.update(task.getId(), new TaskUpdate().set(TaskField.CATEGORY, category));
+                statistics.add(task);
+            }
+            tableView.refresh();
+        } else {
+            repository.updateAll(taskIds(tasks), new TaskUpdate().set(TaskField.CATEGORY, category));
+            updateTable();
+        }
+    }
+
+    private void writeDelete(List<Task> tasks) {
+        if (writeQueue != null) {
+            for (Task task : tasks) {
+                writeQueue.delete(task.getId());
+                statistics.remove(task.getId());
+                changeIndex(index -> index.remove(task.getId()));
+                reminders.cancel(task.getId());
+            }
+            tableView.getItems().removeAll(tasks);
+        } else {
+            if (tasks.size() == 1) {
+                repository.delete(tasks.get(0).getId());
+            } else {
+                repository.deleteAll(taskIds(tasks));
+            }
+            tasks.forEach(task -> changeIndex(index -> index.remove(task.getId())));
+            updateTable();
+        }
+    }
+
+    // Column of plain text cells
+    private static TableColumn<Task, String> textColumn(String title) {
+        TableColumn<Task, String> column = new TableColumn<>(title);
+        column.setCellFactory(c -> new TextCell());
+        return column;
+    }
+
+    // Text-only cell that leaves its label alone when a reused cell shows the same value again
+    private static final class TextCell extends TableCell<Task, String> {
+        @Override
+        protected void updateItem(String item, boolean empty) {
+            super.updateItem(item, empty);
+            String text = empty ? null : item;
+            if (!Objects.equals(text, getText())) {
+                setText(text);
+            }
+        }
     }
 
     private Button createButton(String text, double width, EventHandler<ActionEvent> action) {
@@ -132,19 +491,13 @@ public class TaskManagerFX extends Application {
     }
 
     private void showCategoryPieChart() {
-        // Uses PieChart to visualize task categories
-        List<Task> allTasks = DatabaseManager.getTasks();
+        // Uses PieChart to visualize task categories, from the counts kept with the rows
+        Map<String, Integer> categoryCounts = statistics.getCategoryCounts();
 
-        Map<String, Long> categoryCounts = allTasks.stream()
-                .collect(Collectors.groupingBy(Task::getCategory, Collectors.counting()));
+        ObservableList<PieChart.Data> pieChartData = FXCollections.observableArrayList();
+        categoryCounts.forEach((category, count) -> pieChartData.add(new PieChart.Data(category, count)));
 
-        ObservableList<PieChart.Data> pieChartData = FXCollections.observableArrayList(
-                new PieChart.Data("Personal", categoryCounts.getOrDefault("Personal", 0L)),
-                new PieChart.Data("Work", categoryCounts.getOrDefault("Work", 0L)),
-                new PieChart.Data("Study", categoryCounts.getOrDefault("Study", 0L))
-        );
-
-        if (pieChartData.stream().allMatch(data -> data.getPieValue() == 0)) {
+        if (pieChartData.isEmpty()) {
             showAlert("No task data available to display chart.");
             return;
         }
@@ -164,52 +517,76 @@ public class TaskManagerFX extends Application {
 
 
     private void filterByCategory(String category) {
+        TableRefreshEvent event = TableRefreshEvent.start("category");
         // Filtering tasks using Java Streams
         List<Task> filteredTasks = category.equals("All")
-                ? DatabaseManager.getTasks()
-                : DatabaseManager.getTasks().stream()
+                ? loadTasks()
+                : loadTasks().stream()
                 .filter(task -> category.equalsIgnoreCase(task.getCategory()))
                 .collect(Collectors.toList());
 
-        tableView.setItems(FXCollections.observableArrayList(filteredTasks));
+        showRows(event, filteredTasks);
+    }
+
+    private void filterByTag(String tag) {
+        if (tag == null) return;
+        if ("All".equals(tag)) {
+            updateTable();
+            return;
+        }
+        TableRefreshEvent event = TableRefreshEvent.start("tag");
+        List<Task> tasks = repository.find(new TaskQuery().tag(tag).summaries());
+        showRows(event, writeQueue == null ? tasks : writeQueue.overlay(tasks));
     }
 
     private void showSortedTasks() {
+        TableRefreshEvent event = TableRefreshEvent.start("sorted");
         // Sorting tasks by due date using Comparator
-        List<Task> sortedTasks = DatabaseManager.getTasks().stream()
+        List<Task> sortedTasks = loadTasks().stream()
                 .sorted(Comparator.comparing(Task::getDueDate))
                 .collect(Collectors.toList());
 
-        tableView.setItems(FXCollections.observableArrayList(sortedTasks));
+        showRows(event, sortedTasks);
     }
 
     private void showCompletedTasks() {
-        List<Task> filteredTasks = DatabaseManager.getTasks().stream()
+        TableRefreshEvent event = TableRefreshEvent.start("completed");
+        List<Task> filteredTasks = loadTasks().stream()
                 .filter(task -> "Completed".equalsIgnoreCase(task.getStatus()))
                 .collect(Collectors.toList());
 
         if (filteredTasks.isEmpty()) {
+            event.end(0);
             showAlert("No completed tasks found.");
         } else {
-            tableView.setItems(FXCollections.observableArrayList(filteredTasks));
+            showRows(event, filteredTasks);
         }
     }
 
     private void showPendingTasks() {
-        List<Task> filteredTasks = DatabaseManager.getTasks().stream()
+        TableRefreshEvent event = TableRefreshEvent.start("pending");
+        List<Task> filteredTasks = loadTasks().stream()
                 .filter(task -> "Pending".equalsIgnoreCase(task.getStatus()))
                 .collect(Collectors.toList());
 
         if (filteredTasks.isEmpty()) {
+            event.end(0);
             showAlert("No pending tasks found.");
         } else {
-            tableView.setItems(FXCollections.observableArrayList(filteredTasks));
+            showRows(event, filteredTasks);
         }
     }
 
     private void showDueTodayTasks() {
-        List<Task> filteredTasks = taskManager.getDueTodayTasks();
-        tableView.setItems(FXCollections.observableArrayList(filteredTasks));
+        TableRefreshEvent event = TableRefreshEvent.start("dueToday");
+        Date today = new Date();
+        try {
+            today = dateFormat.parse(dateFormat.format(today));
+        } catch (ParseException e) {
+            // Cannot happen: the text was just formatted with the same pattern
+        }
+        List<Task> filteredTasks = repository.find(new TaskQuery().dueBetween(today, today).summaries());
+        showRows(event, writeQueue == null ? filteredTasks : writeQueue.overlay(filteredTasks));
     }
 
 //    private void saveTasksToFile() {
@@ -270,28 +647,65 @@ public class TaskManagerFX extends Application {
         String category = categoryDialog.showAndWait().orElse(null);
         if (category == null) return;
 
+        Date parsedDueDate;
+        try {
+            parsedDueDate = dateFormat.parse(dueDate);
+        } catch (ParseException e) {
+            showAlert("Invalid date format! Use yyyy-MM-dd.");
+            return;
+        }
+
         String status = "Pending";
-        DatabaseManager.insertTask(title, description, dueDate, category, status);
+        Task task = new Task(0, title, description, parsedDueDate, category, status);
+        if (repository.insert(task)) {
+            changeIndex(index -> index.index(task));
+        }
         updateTable();
     }
 
+    // Copies the selected rows so bulk operations are not affected by table updates
+    private List<Task> selectedTasks() {
+        return new ArrayList<>(tableView.getSelectionModel().getSelectedItems());
+    }
+
+    private List<Integer> taskIds(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).collect(Collectors.toList());
+    }
+
     private void removeTask() {
-        Task selectedTask = tableView.getSelectionModel().getSelectedItem();
-        if (selectedTask == null) {
+        List<Task> selectedTasks = selectedTasks();
+        if (selectedTasks.isEmpty()) {
             showAlert("Please select a task to remove.");
             return;
         }
 
         Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
         confirmAlert.setTitle("Confirm Deletion");
-        confirmAlert.setHeaderText("Are you sure you want to delete this task?");
+        confirmAlert.setHeaderText(selectedTasks.size() == 1
+                ? "Are you sure you want to delete this task?"
+                : "Are you sure you want to delete these " + selectedTasks.size() + " tasks?");
         confirmAlert.setContentText("This action cannot be undone.");
         Optional<ButtonType> result = confirmAlert.showAndWait();
 
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            DatabaseManager.deleteTask(selectedTask.getId());
-            updateTable();
+            writeDelete(selectedTasks);
+        }
+    }
+
+    private void changeCategory() {
+        List<Task> selectedTasks = selectedTasks();
+        if (selectedTasks.isEmpty()) {
+            showAlert("Please select tasks to recategorise.");
+            return;
         }
+
+        ChoiceDialog<String> categoryDialog = new ChoiceDialog<>("Personal", "Personal", "Work", "Study");
+        categoryDialog.setTitle("Change Category");
+        categoryDialog.setHeaderText("Move " + selectedTasks.size() + " task(s) to category:");
+        String category = categoryDialog.showAndWait().orElse(null);
+        if (category == null) return;
+
+        writeCategory(selectedTasks, category);
     }
 
     private void editTask() {
@@ -301,78 +715,115 @@ public class TaskManagerFX extends Application {
             return;
         }
 
-        List<String> options = Arrays.asList("Title", "Description", "Due Date", "Category", "Status");
-        ChoiceDialog<String> choiceDialog = new ChoiceDialog<>("Title", options);
-        choiceDialog.setTitle("Edit Task");
-        choiceDialog.setHeaderText("Select the field you want to edit:");
-
-        String selectedOption = choiceDialog.showAndWait().orElse(null);
-        if (selectedOption == null) return;
-
-        String newValue = null;
-
-        switch (selectedOption) {
-            case "Title":
-                newValue = showInputDialog("Edit Title", "Enter new Task Title:", selectedTask.getTitle());
-                if (newValue == null || newValue.trim().isEmpty()) return;
-                selectedTask.setTitle(newValue);
-                break;
-
-            case "Description":
-                newValue = showInputDialog("Edit Description", "Enter new Task Description:", selectedTask.getDescription());
-                if (newValue == null) return;
-                selectedTask.setDescription(newValue);
-                break;
-
-            case "Due Date":
-                newValue = showInputDialog("Edit Due Date", "Enter new Due Date (yyyy-MM-dd):",
-                        new SimpleDateFormat("yyyy-MM-dd").format(selectedTask.getDueDate()));
-                if (newValue == null) return;
-
-                try {
-                    Date newDueDate = new SimpleDateFormat("yyyy-MM-dd").parse(newValue);
-                    selectedTask.setDueDate(newDueDate);
-                } catch (ParseException e) {
-                    showAlert("Invalid date format! Use yyyy-MM-dd.");
-                    return;
-                }
-                break;
-
-            case "Category":
-                List<String> categories = Arrays.asList("Personal", "Work", "Study");
-                ChoiceDialog<String> categoryDialog = new ChoiceDialog<>(selectedTask.getCategory(), categories);
-                categoryDialog.setTitle("Edit Category");
-                categoryDialog.setHeaderText("Select new category:");
-                newValue = categoryDialog.showAndWait().orElse(null);
-                if (newValue == null) return;
-                selectedTask.setCategory(newValue);
-                break;
-
-            case "Status":
-                List<String> statuses = Arrays.asList("Pending", "Completed");
-                ChoiceDialog<String> statusDialog = new ChoiceDialog<>(selectedTask.getStatus(), statuses);
-                statusDialog.setTitle("Edit Status");
-                statusDialog.setHeaderText("Select new status:");
-                newValue = statusDialog.showAndWait().orElse(null);
-                if (newValue == null) return;
-                selectedTask.setStatus(newValue);
-                break;
-
-            default:
-                showAlert("Invalid option selected.");
-                return;
+        ensureDescriptionLoaded(selectedTask);
+
+        // All fields are edited in one form so the changes go out as a single update
+        TextField titleField = new TextField(selectedTask.getTitle());
+        TextArea descriptionField = new TextArea(selectedTask.getDescription());
+        descriptionField.setPrefRowCount(3);
+        TextField dueDateField = new TextField(new SimpleDateFormat("yyyy-MM-dd").format(selectedTask.getDueDate()));
+        ComboBox<String> categoryBox = new ComboBox<>(FXCollections.observableArrayList("Personal", "Work", "Study"));
+        categoryBox.setValue(selectedTask.getCategory());
+        ComboBox<String> statusBox = new ComboBox<>(FXCollections.observableArrayList("Pending", "Completed"));
+        statusBox.setValue(selectedTask.getStatus());
+        TextField tagsField = new TextField(String.join(", ", selectedTask.getTags()));
+        TextField repeatField = new TextField(selectedTask.getRecurrence());
+        repeatField.setPromptText("e.g. WEEKLY;INTERVAL=2;COUNT=10");
+        TextField assignedField = new TextField(selectedTask.getAssignedUser());
+        assignedField.setPromptText("username");
+
+        GridPane form = new GridPane();
+        form.setHgap(10);
+        form.setVgap(10);
+        form.addRow(0, new Label("Title:"), titleField);
+        form.addRow(1, new Label("Description:"), descriptionField);
+        form.addRow(2, new Label("Due Date (yyyy-MM-dd):"), dueDateField);
+        form.addRow(3, new Label("Category:"), categoryBox);
+        form.addRow(4, new Label("Status:"), statusBox);
+        form.addRow(5, new Label("Tags (comma separated):"), tagsField);
+        form.addRow(6, new Label("Repeat (empty for none):"), repeatField);
+        form.addRow(7, new Label("Assigned to:"), assignedField);
+
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Edit Task");
+        dialog.setHeaderText("Edit the task fields:");
+        dialog.getDialogPane().setContent(form);
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        if (dialog.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) return;
+
+        if (titleField.getText().trim().isEmpty()) {
+            showAlert("Title cannot be empty.");
+            return;
+        }
+        Date newDueDate;
+        try {
+            newDueDate = new SimpleDateFormat("yyyy-MM-dd").parse(dueDateField.getText());
+        } catch (ParseException e) {
+            showAlert("Invalid date format! Use yyyy-MM-dd.");
+            return;
         }
 
-        DatabaseManager.updateTask(selectedTask.getId(), selectedOption, newValue);
-        updateTable();
-        tableView.refresh();
-    }
-
-    private String showInputDialog(String title, String header, String defaultValue) {
-        TextInputDialog dialog = new TextInputDialog(defaultValue);
-        dialog.setTitle(title);
-        dialog.setHeaderText(header);
-        return dialog.showAndWait().orElse(null);
+        // Only fields that actually changed are sent
+        TaskUpdate update = new TaskUpdate();
+        if (!titleField.getText().equals(selectedTask.getTitle())) update.set(TaskField.TITLE, titleField.getText());
+        if (!Objects.equals(descriptionField.getText(), selectedTask.getDescription())) update.set(TaskField.DESCRIPTION, descriptionField.getText());
+        if (!newDueDate.equals(selectedTask.getDueDate())) update.set(TaskField.DUE_DATE, newDueDate);
+        if (!Objects.equals(categoryBox.getValue(), selectedTask.getCategory())) update.set(TaskField.CATEGORY, categoryBox.getValue());
+        if (!Objects.equals(statusBox.getValue(), selectedTask.getStatus())) update.set(TaskField.STATUS, statusBox.getValue());
+        String repeat = repeatField.getText() == null || repeatField.getText().isBlank() ? null : repeatField.getText().trim();
+        if (repeat != null) {
+            try {
+                repeat = Recurrence.parse(repeat).toString();
+            } catch (IllegalArgumentException e) {
+                showAlert("Invalid repeat rule: " + e.getMessage() + ". Use e.g. DAILY, WEEKLY;INTERVAL=2 or MONTHLY;UNTIL=2025-12-31.");
+                return;
+            }
+        }
+        if (!Objects.equals(repeat, selectedTask.getRecurrence())) update.set(TaskField.RECURRENCE, repeat);
+        String assignee = assignedField.getText() == null || assignedField.getText().isBlank() ? null : assignedField.getText().trim();
+        if (assignee != null && assignee.length() > 50) {
+            showAlert("Usernames can be at most 50 characters long.");
+            return;
+        }
+        if (!Objects.equals(assignee, selectedTask.getAssignedUser())) update.set(TaskField.ASSIGNED_USER, assignee);
+        Set<String> newTags = new LinkedHashSet<>();
+        for (String tag : tagsField.getText().split(",")) {
+            if (!tag.isBlank()) newTags.add(tag.trim());
+        }
+        if (newTags.stream().anyMatch(tag -> tag.length() > 50)) {
+            showAlert("Tags can be at most 50 characters long.");
+            return;
+        }
+        boolean tagsChanged = !newTags.equals(selectedTask.getTags());
+        if (update.isEmpty() && !tagsChanged) return;
+
+        // Read now, since the index change may be replayed later onto a rebuilt index
+        String indexedTitle = titleField.getText();
+        String indexedDescription = descriptionField.getText();
+        Consumer<TaskSearchIndex> reindex = index -> index.index(selectedTask.getId(), indexedTitle, indexedDescription, newTags);
+
+        // Tags live in their own table and are saved directly, also in write-behind mode
+        if (tagsChanged && repository.setTags(selectedTask.getId(), newTags)) {
+            selectedTask.setTags(newTags);
+            changeIndex(reindex);
+        }
+        if (update.isEmpty()) {
+            tableView.refresh();
+        } else if (writeQueue != null) {
+            update.applyTo(selectedTask);
+            writeQueue.update(selectedTask.getId(), update);
+            statistics.add(selectedTask);
+            reminders.schedule(selectedTask);
+            changeIndex(reindex);
+            tableView.refresh();
+            showDescription(selectedTask);
+        } else if (repository.update(selectedTask.getId(), update, selectedTask.getVersion())) {
+            changeIndex(reindex);
+            updateTable();
+        } else {
+            showAlert("This task was changed or removed by someone else. The list has been reloaded, please try again.");
+            updateTable();
+        }
     }
 
     private void showAlert(String message) {
@@ -384,34 +835,36 @@ public class TaskManagerFX extends Application {
     }
 
     private void updateTable() {
+        TableRefreshEvent event = TableRefreshEvent.start("all");
         // Fetches tasks from MySQL using JDBC connection
-        List<Task> tasks = DatabaseManager.getTasks();
+        List<Task> tasks = loadTasks();
         tableView.getItems().clear();
-        tableView.setItems(FXCollections.observableArrayList(tasks));
+        showRows(event, tasks);
+    }
+
+    // Replaces the table rows; the event covers loading them as well
+    private void showRows(TableRefreshEvent event, List<Task> rows) {
+        tableView.setItems(FXCollections.observableArrayList(rows));
+        event.end(rows.size());
     }
 
     private void markTaskAsCompleted() {
         // Updating task status via user interaction
-        Task selectedTask = tableView.getSelectionModel().getSelectedItem();
-        if (selectedTask == null) {
+        List<Task> selectedTasks = selectedTasks();
+        if (selectedTasks.isEmpty()) {
             showAlert("Please select a task to mark as completed.");
             return;
         }
 
-        DatabaseManager.updateTaskStatus(selectedTask.getId(), "Completed");
-        updateTable();
+        writeStatus(selectedTasks, "Completed");
     }
 
     private void showAnalytics() {
-        // Generates completion statistics using filtering and percentage calculation
-        List<Task> allTasks = DatabaseManager.getTasks();
-
-        long completedTasks = allTasks.stream().filter(task -> "Completed".equalsIgnoreCase(task.getStatus())).count();
-        long pendingTasks = allTasks.stream().filter(task -> "Pending".equalsIgnoreCase(task.getStatus())).count();
-        long overdueTasks = allTasks.stream()
-                .filter(task -> task.getDueDate().before(new Date()) && "Pending".equalsIgnoreCase(task.getStatus()))
-                .count();
-        long totalTasks = allTasks.size();
+        // Completion statistics from the counts kept with the rows, so opening does not reload them
+        long completedTasks = statistics.getCompleted();
+        long pendingTasks = statistics.getPending();
+        long overdueTasks = statistics.getOverdue();
+        long totalTasks = statistics.getTotal();
 
         String statsMessage = String.format(
                 "Total Tasks: %d\nCompleted: %d (%.2f%%)\nPending: %d (%.2f%%)\nOverdue: %d",
@@ -430,33 +883,116 @@ public class TaskManagerFX extends Application {
         showCategoryPieChart();
     }
 
-    private void exportTasksToTextFile() {
-        // Exports tasks to a local .txt file
-        List<Task> tasks = DatabaseManager.getTasks();
-        if (tasks.isEmpty()) {
+    private void exportTasks(Stage owner) {
+        // Streams tasks from the database to a file in the background
+        long total = repository.count();
+        if (total == 0) {
             showAlert("No tasks available to download.");
             return;
         }
 
-        File file = new File("tasks.txt");
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Download Tasks");
+        chooser.setInitialFileName("tasks.txt");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Text (*.txt)", "*.txt"),
+                new FileChooser.ExtensionFilter("CSV (*.csv)", "*.csv"),
+                new FileChooser.ExtensionFilter("JSON lines (*.ndjson)", "*.ndjson"),
+                new FileChooser.ExtensionFilter("Compressed (*.gz)", "*.txt.gz", "*.csv.gz", "*.ndjson.gz"));
+        File file = chooser.showSaveDialog(owner);
+        if (file == null) return;
+
+        TaskExporter.Format format = TaskExporter.Format.fromFileName(file.getName());
+        boolean gzip = file.getName().toLowerCase().endsWith(".gz");
+
+        javafx.concurrent.Task<Long> export = new javafx.concurrent.Task<>() {
+            @Override
+            protected Long call() throws Exception {
+                return TaskExporter.export(repository, file, format, gzip,
+                        written -> updateProgress(written, total), this::isCancelled);
+            }
+        };
+
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setPrefWidth(300);
+        progressBar.progressProperty().bind(export.progressProperty());
+        Button cancelButton = new Button("Cancel");
+        cancelButton.setOnAction(e -> export.cancel());
+        VBox progressLayout = new VBox(10, new Label("Exporting to " + file.getName() + "..."), progressBar, cancelButton);
+        progressLayout.setPadding(new Insets(10));
+        progressLayout.setAlignment(Pos.CENTER);
+
+        Stage progressStage = new Stage();
+        progressStage.initOwner(owner);
+        progressStage.setTitle("Download Tasks");
+        progressStage.setScene(new Scene(progressLayout));
+        progressStage.setOnCloseRequest(e -> export.cancel());
+
+        export.setOnSucceeded(e -> {
+            progressStage.close();
+            showAlert(export.getValue() + " tasks successfully exported to " + file.getName() + "!");
+        });
+        export.setOnFailed(e -> {
+            progressStage.close();
+            showAlert("Error exporting tasks: " + export.getException().getMessage());
+        });
+        export.setOnCancelled(e -> progressStage.close());
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
-            writer.write("Task List:\n");
-            writer.write("===========================\n");
+        WorkScheduler.getDefault().executor(WorkScheduler.Lane.BULK).execute(export);
+        progressStage.show();
+    }
 
-            for (Task task : tasks) {
-                writer.write("Title: " + task.getTitle() + "\n");
-                writer.write("Description: " + task.getDescription() + "\n");
-                writer.write("Due Date: " + new SimpleDateFormat("yyyy-MM-dd").format(task.getDueDate()) + "\n");
-                writer.write("Category: " + task.getCategory() + "\n");
-                writer.write("Status: " + task.getStatus() + "\n");
-                writer.write("---------------------------\n");
+    private void importTasks(Stage owner) {
+        // Bulk-loads a backup or export file into the database in the background
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import Tasks");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Task files", "*.json", "*.ndjson", "*.csv", "*.txt", "*.gz"),
+                new FileChooser.ExtensionFilter("All files", "*.*"));
+        File file = chooser.showOpenDialog(owner);
+        if (file == null) return;
+
+        javafx.concurrent.Task<TaskImporter.Result> importJob = new javafx.concurrent.Task<>() {
+            @Override
+            protected TaskImporter.Result call() throws Exception {
+                return new TaskImporter(repository).importFile(file, imported -> updateMessage(imported + " tasks imported..."));
+            }
+        };
+
+        Label progressLabel = new Label();
+        progressLabel.textProperty().bind(importJob.messageProperty());
+        ProgressIndicator indicator = new ProgressIndicator();
+        VBox progressLayout = new VBox(10, new Label("Importing " + file.getName() + "..."), indicator, progressLabel);
+        progressLayout.setPadding(new Insets(10));
+        progressLayout.setAlignment(Pos.CENTER);
+
+        Stage progressStage = new Stage();
+        progressStage.initOwner(owner);
+        progressStage.setTitle("Import Tasks");
+        progressStage.setScene(new Scene(progressLayout, 300, 150));
+
+        importJob.setOnSucceeded(e -> {
+            progressStage.close();
+            TaskImporter.Result result = importJob.getValue();
+            StringBuilder message = new StringBuilder(result.toString());
+            if (!result.getRejectSamples().isEmpty()) {
+                message.append("\n\nFirst rejected rows:\n").append(String.join("\n", result.getRejectSamples()));
             }
+            Alert resultAlert = new Alert(Alert.AlertType.INFORMATION);
+            resultAlert.setTitle("Import Tasks");
+            resultAlert.setHeaderText("Import finished");
+            resultAlert.setContentText(message.toString());
+            resultAlert.showAndWait();
+            updateTable();
+            buildSearchIndex();
+        });
+        importJob.setOnFailed(e -> {
+            progressStage.close();
+            showAlert("Error importing tasks: " + importJob.getException().getMessage());
+            updateTable();
+        });
 
-            showAlert("Tasks successfully exported to tasks.txt!");
-        } catch (IOException e) {
-            showAlert("Error exporting tasks: " + e.getMessage());
-        }
+        WorkScheduler.getDefault().executor(WorkScheduler.Lane.BULK).execute(importJob);
+        progressStage.show();
     }
 }
-
@@ -1,17 +1,21 @@
-/*package ui;
+package ui;
 
 import model.Task;
 import model.TaskManager;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.function.Predicate;
 
+// Swing client; the table shows a live TaskView, so edits update single rows instead of reloading the list
 public class TaskManagerGUI {
-    private static DefaultTableModel tableModel;
+    private static TaskTableModel tableModel = new TaskTableModel();
     private static JTable table;
     private static TaskManager taskManager = new TaskManager();
     private static final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd"); // ✅ Formatter
@@ -25,8 +29,6 @@ public class TaskManagerGUI {
         panel.setLayout(new BorderLayout());
 
         // ✅ Table Model with Columns
-        String[] columnNames = {"Title", "Description", "Due Date", "Status"};
-        tableModel = new DefaultTableModel(columnNames, 0);
         table = new JTable(tableModel);
         panel.add(new JScrollPane(table), BorderLayout.CENTER);
 
@@ -90,9 +92,8 @@ public class TaskManagerGUI {
 
         try {
             Date dueDate = dateFormat.parse(dueDateStr); // ✅ Convert String to Date
-            Task task = new Task(title, description, dueDate, "Not Completed");
-            taskManager.addTask(task);
-            updateTable();
+            Task task = new Task(0, title, description, dueDate, "Personal", "Pending");
+            taskManager.addTask(task); // The view inserts the row itself
         } catch (ParseException e) {
             JOptionPane.showMessageDialog(null, "Invalid date format! Use yyyy-MM-dd.");
         }
@@ -106,9 +107,8 @@ public class TaskManagerGUI {
             return;
         }
 
-        String title = (String) tableModel.getValueAt(selectedRow, 0);
-        taskManager.removeTask(title);
-        updateTable(); // ✅ Update table after removal
+        String title = tableModel.getTaskAt(selectedRow).getTitle();
+        taskManager.removeTask(title); // ✅ The view removes the row
     }
 
     // ✅ Method to Edit a Task
@@ -119,23 +119,20 @@ public class TaskManagerGUI {
             return;
         }
 
-        String oldTitle = (String) tableModel.getValueAt(selectedRow, 0);
-        Task existingTask = taskManager.getTaskByTitle(oldTitle);
-        if (existingTask == null) {
-            JOptionPane.showMessageDialog(null, "Error: Task not found.");
-            return;
-        }
+        Task existingTask = tableModel.getTaskAt(selectedRow);
 
         String newTitle = JOptionPane.showInputDialog("Enter new Task Title:", existingTask.getTitle());
         String newDescription = JOptionPane.showInputDialog("Enter new Task Description:", existingTask.getDescription());
         String newDueDateStr = JOptionPane.showInputDialog("Enter new Due Date (yyyy-MM-dd):", dateFormat.format(existingTask.getDueDate()));
+        if (newTitle == null || newTitle.trim().isEmpty() || newDueDateStr == null) return;
 
         try {
             Date newDueDate = dateFormat.parse(newDueDateStr);
+            // ✅ Each setter updates the task's row through the view
             existingTask.setTitle(newTitle);
             existingTask.setDescription(newDescription);
             existingTask.setDueDate(newDueDate);
-            updateTable(); // ✅ Update table after editing
+            saveChanges();
         } catch (ParseException e) {
             JOptionPane.showMessageDialog(null, "Invalid date format! Use yyyy-MM-dd.");
         }
@@ -149,74 +146,50 @@ public class TaskManagerGUI {
             return;
         }
 
-        String title = (String) tableModel.getValueAt(selectedRow, 0);
-        taskManager.markTaskAsCompleted(title); // ✅ Now uses TaskManager method
-        updateTable();
+        Task task = tableModel.getTaskAt(selectedRow);
+        task.markCompleted(); // ✅ The row is repainted, or leaves a "pending" view
+        saveChanges();
+    }
+
+    // ✅ Saves edits; a task someone else changed first is reloaded instead of overwritten
+    private static void saveChanges() {
+        if (!taskManager.saveTasks().isEmpty()) {
+            JOptionPane.showMessageDialog(null, "This task was changed or removed by someone else. It has been reloaded, please try again.");
+        }
     }
 
     // ✅ Method to Show All Tasks (Default View)
     private static void updateTable() {
-        tableModel.setRowCount(0);
-        for (Task task : taskManager.getAllTasks()) {
-            tableModel.addRow(new Object[]{
-                    task.getTitle(),
-                    task.getDescription(),
-                    dateFormat.format(task.getDueDate()), // ✅ Format Due Date
-                    task.isCompleted() ? "Completed" : "Not Completed"
-            });
-        }
+        showView(task -> true, null);
     }
 
-    // ✅ Sorting: Show Tasks Sorted by Due Date
+    // ✅ Sorting: Show Tasks Sorted by Due Date, recurring tasks by their next occurrence
     private static void showSortedTasks() {
-        tableModel.setRowCount(0);
-        for (Task task : taskManager.getTasksSortedByDate()) {
-            tableModel.addRow(new Object[]{
-                    task.getTitle(),
-                    task.getDescription(),
-                    dateFormat.format(task.getDueDate()), // ✅ Format Date
-                    task.isCompleted() ? "Completed" : "Not Completed"
-            });
-        }
+        LocalDate today = LocalDate.now();
+        ZoneId zone = ZoneId.systemDefault();
+        showView(task -> true, Comparator.comparingLong(task -> task.hasRecurrence()
+                ? task.nextDueDate(today).atStartOfDay(zone).toInstant().toEpochMilli()
+                : task.getDueDate().getTime()));
     }
 
     // ✅ Filtering: Show Only Completed Tasks
     private static void showCompletedTasks() {
-        tableModel.setRowCount(0);
-        for (Task task : taskManager.getCompletedTasks()) {
-            tableModel.addRow(new Object[]{
-                    task.getTitle(),
-                    task.getDescription(),
-                    dateFormat.format(task.getDueDate()), // ✅ Format Date
-                    "Completed"
-            });
-        }
+        showView(task -> "Completed".equalsIgnoreCase(task.getStatus()), null);
     }
 
     // ✅ Filtering: Show Only Pending Tasks
     private static void showPendingTasks() {
-        tableModel.setRowCount(0);
-        for (Task task : taskManager.getPendingTasks()) {
-            tableModel.addRow(new Object[]{
-                    task.getTitle(),
-                    task.getDescription(),
-                    dateFormat.format(task.getDueDate()), // ✅ Format Date
-                    "Not Completed"
-            });
-        }
+        showView(task -> !"Completed".equalsIgnoreCase(task.getStatus()), null);
     }
 
     // ✅ Filtering: Show Only Tasks Due Today
     private static void showDueTodayTasks() {
-        tableModel.setRowCount(0);
-        for (Task task : taskManager.getDueTodayTasks()) {
-            tableModel.addRow(new Object[]{
-                    task.getTitle(),
-                    task.getDescription(),
-                    dateFormat.format(task.getDueDate()), // ✅ Format Date
-                    task.isCompleted() ? "Completed" : "Not Completed"
-            });
-        }
+        LocalDate today = LocalDate.now();
+        showView(task -> today.equals(task.nextDueDate(today)), null);
+    }
+
+    // Switches the table to a new live view; only an index of the tasks is built, no row copies
+    private static void showView(Predicate<Task> filter, Comparator<Task> order) {
+        tableModel.setView(taskManager.view(filter, order));
     }
 }
-*/
\ No newline at end of file
@@ -0,0 +1,73 @@
+package ui;
+
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import model.Task;
+import model.TaskField;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Display values of one table row, formatted once and handed to the cells as the same
+ * property objects every time the row scrolls into view. A row is reformatted only when
+ * one of the task's displayed fields was replaced since the last look.
+ */
+final class TaskRowModel {
+
+    // Rows are dropped together with their tasks once a reload replaces them; only touched on the FX thread
+    private static final Map<Task, TaskRowModel> rows = new WeakHashMap<>();
+
+    private final ReadOnlyStringWrapper title = new ReadOnlyStringWrapper();
+    private final ReadOnlyStringWrapper dueDate = new ReadOnlyStringWrapper();
+    private final ReadOnlyStringWrapper category = new ReadOnlyStringWrapper();
+    private final ReadOnlyStringWrapper status = new ReadOnlyStringWrapper();
+    private final ReadOnlyStringWrapper tags = new ReadOnlyStringWrapper();
+
+    // Field values the display strings were built from, compared by reference
+    private String shownTitle;
+    private Date shownDueDate;
+    private String shownCategory;
+    private String shownStatus;
+    private Set<String> shownTags;
+    private int shownTagCount = -1;
+
+    // The up-to-date row of a task
+    static TaskRowModel of(Task task) {
+        TaskRowModel row = rows.computeIfAbsent(task, t -> new TaskRowModel());
+        row.update(task);
+        return row;
+    }
+
+    ReadOnlyStringProperty titleProperty() { return title.getReadOnlyProperty(); }
+    ReadOnlyStringProperty dueDateProperty() { return dueDate.getReadOnlyProperty(); }
+    ReadOnlyStringProperty categoryProperty() { return category.getReadOnlyProperty(); }
+    ReadOnlyStringProperty statusProperty() { return status.getReadOnlyProperty(); }
+    ReadOnlyStringProperty tagsProperty() { return tags.getReadOnlyProperty(); }
+
+    private void update(Task task) {
+        if (task.getTitle() != shownTitle) {
+            shownTitle = task.getTitle();
+            title.set(shownTitle);
+        }
+        if (task.getDueDate() != shownDueDate) {
+            shownDueDate = task.getDueDate();
+            dueDate.set(TaskField.DUE_DATE.format(shownDueDate));
+        }
+        if (task.getCategory() != shownCategory) {
+            shownCategory = task.getCategory();
+            category.set(shownCategory);
+        }
+        if (task.getStatus() != shownStatus) {
+            shownStatus = task.getStatus();
+            status.set(shownStatus);
+        }
+        if (task.getTags() != shownTags || task.getTags().size() != shownTagCount) {
+            shownTags = task.getTags();
+            shownTagCount = shownTags.size();
+            tags.set(String.join(", ", shownTags));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package ui;
+
+import model.Task;
+import model.TaskField;
+import model.TaskView;
+
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Swing table model reading straight from a TaskView. Cells are formatted only when
+ * the table asks for them, i.e. for the rows on screen, and view changes arrive as
+ * single-row events, so switching views or editing a task never copies the data set.
+ */
+class TaskTableModel extends AbstractTableModel implements TaskView.Listener {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String[] COLUMNS = {"Title", "Description", "Due Date", "Category", "Status"};
+
+    private TaskView view;
+
+    // Shows another view; the previous one is closed
+    void setView(TaskView view) {
+        if (this.view != null) {
+            this.view.removeListener(this);
+            this.view.close();
+        }
+        this.view = view;
+        view.addListener(this);
+        fireTableDataChanged();
+    }
+
+    Task getTaskAt(int row) {
+        return view.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return view == null ? 0 : view.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Task task = view.get(row);
+        switch (column) {
+            case 0: return task.getTitle();
+            case 1: return task.getDescription();
+            case 2: return TaskField.DUE_DATE.format(task.getDueDate());
+            case 3: return task.getCategory();
+            default: return task.getStatus();
+        }
+    }
+
+    @Override
+    public void rowInserted(int row) {
+        fireTableRowsInserted(row, row);
+    }
+
+    @Override
+    public void rowUpdated(int row) {
+        fireTableRowsUpdated(row, row);
+    }
+
+    @Override
+    public void rowRemoved(int row) {
+        fireTableRowsDeleted(row, row);
+    }
+}
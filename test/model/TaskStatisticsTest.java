@@ -0,0 +1,161 @@
+package model;
+
+import java.time.*;
+import java.util.*;
+
+/**
+ * Checks TaskStatistics against a full recount: changes move a task only out of what it
+ * last contributed, and pending tasks become overdue when the clock passes their due day,
+ * including days skipped between calls. Run the main method; it exits with status 1 on
+ * the first failure.
+ */
+public class TaskStatisticsTest {
+
+    // A clock the test moves forward by hand
+    private static final class TestClock extends Clock {
+        private Instant now;
+
+        TestClock(Instant now) {
+            this.now = now;
+        }
+
+        void advanceDays(int days) {
+            now = now.plus(Duration.ofDays(days));
+        }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { throw new UnsupportedOperationException(); }
+        @Override public Instant instant() { return now; }
+    }
+
+    private static final Instant NOON = Instant.parse("2026-03-10T12:00:00Z");
+
+    public static void main(String[] args) {
+        run("counts follow status and category changes", TaskStatisticsTest::countsFollowChanges);
+        run("pending tasks become overdue at midnight", TaskStatisticsTest::pendingTasksBecomeOverdue);
+        run("removal after a rollover", TaskStatisticsTest::removalAfterRollover);
+        run("matches a full recount", TaskStatisticsTest::matchesFullRecount);
+        System.out.println("TaskStatisticsTest passed");
+    }
+
+    static void countsFollowChanges() {
+        TaskStatistics statistics = new TaskStatistics(new TestClock(NOON));
+        Task task = task(1, "Work", "Pending", 5);
+        statistics.add(task);
+        // Counting the same task again replaces what it contributed
+        statistics.add(task);
+        check(statistics.getTotal() == 1 && statistics.getPending() == 1, "pending task counted once");
+
+        task.setStatus("Completed");
+        task.setCategory("Study");
+        statistics.add(task);
+        check(statistics.getPending() == 0 && statistics.getCompleted() == 1, "status change");
+        check(statistics.getCategoryCounts().equals(Map.of("Study", 1)), "category change " + statistics.getCategoryCounts());
+
+        statistics.remove(1);
+        statistics.remove(1);
+        check(statistics.getTotal() == 0 && statistics.getCompleted() == 0, "removal");
+        check(statistics.getCategoryCounts().isEmpty(), "categories left after removal");
+    }
+
+    static void pendingTasksBecomeOverdue() {
+        TestClock clock = new TestClock(NOON);
+        TaskStatistics statistics = new TaskStatistics(clock);
+        statistics.add(task(1, "Work", "Pending", -1));
+        statistics.add(task(2, "Work", "Pending", 0));
+        statistics.add(task(3, "Work", "Pending", 1));
+        statistics.add(task(4, "Work", "Completed", -1));
+        check(statistics.getOverdue() == 1, "only yesterday's pending task is overdue");
+
+        clock.advanceDays(1);
+        check(statistics.getOverdue() == 2, "today's task overdue the next day");
+        // Several days pass without a call
+        clock.advanceDays(3);
+        check(statistics.getOverdue() == 3, "tomorrow's task overdue after skipped days");
+
+        Task done = task(3, "Work", "Completed", 1);
+        statistics.add(done);
+        check(statistics.getOverdue() == 2, "completing an overdue task");
+    }
+
+    static void removalAfterRollover() {
+        TestClock clock = new TestClock(NOON);
+        TaskStatistics statistics = new TaskStatistics(clock);
+        statistics.add(task(1, "Work", "Pending", 0));
+        clock.advanceDays(2);
+        // The first call after midnight rolls over before taking the task out
+        statistics.remove(1);
+        check(statistics.getOverdue() == 0 && statistics.getPending() == 0, "overdue " + statistics.getOverdue());
+    }
+
+    static void matchesFullRecount() {
+        Random random = new Random(7);
+        TestClock clock = new TestClock(NOON);
+        TaskStatistics statistics = new TaskStatistics(clock);
+        Map<Integer, Task> tasks = new HashMap<>();
+        String[] categories = {"Work", "Study", "Personal"};
+        String[] statuses = {"Pending", "Completed", "Waiting"};
+        for (int step = 0; step < 5000; step++) {
+            int id = random.nextInt(200);
+            int action = random.nextInt(10);
+            if (action < 6) {
+                Task task = task(id, categories[random.nextInt(3)], statuses[random.nextInt(3)], random.nextInt(20) - 10);
+                if (random.nextInt(10) == 0) task.setDueDate(null);
+                tasks.put(id, task);
+                statistics.add(task);
+            } else if (action < 9) {
+                tasks.remove(id);
+                statistics.remove(id);
+            } else {
+                clock.advanceDays(random.nextInt(3));
+            }
+            if (step % 50 == 0) {
+                checkRecount(statistics, tasks.values(), LocalDate.now(clock), "step " + step);
+            }
+        }
+        statistics.setTasks(new ArrayList<>(tasks.values()));
+        checkRecount(statistics, tasks.values(), LocalDate.now(clock), "after setTasks");
+    }
+
+    private static void checkRecount(TaskStatistics statistics, Collection<Task> tasks, LocalDate today, String when) {
+        int completed = 0;
+        int pending = 0;
+        int overdue = 0;
+        Map<String, Integer> categories = new TreeMap<>();
+        for (Task task : tasks) {
+            if ("Completed".equals(task.getStatus())) completed++;
+            if ("Pending".equals(task.getStatus())) {
+                pending++;
+                if (task.getDueDate() != null
+                        && task.getDueDate().toInstant().atZone(ZoneOffset.UTC).toLocalDate().isBefore(today)) {
+                    overdue++;
+                }
+            }
+            categories.merge(task.getCategory(), 1, Integer::sum);
+        }
+        check(statistics.getTotal() == tasks.size(), when + ": total");
+        check(statistics.getCompleted() == completed, when + ": completed");
+        check(statistics.getPending() == pending, when + ": pending");
+        check(statistics.getOverdue() == overdue, when + ": overdue " + statistics.getOverdue() + " != " + overdue);
+        check(statistics.getCategoryCounts().equals(categories), when + ": categories");
+    }
+
+    // A task due the given number of days from the test's start day
+    private static Task task(int id, String category, String status, int dueInDays) {
+        Date due = Date.from(NOON.plus(Duration.ofDays(dueInDays)));
+        return new Task(id, "Task " + id, "", due, category, status);
+    }
+
+    private static void run(String name, Runnable test) {
+        try {
+            test.run();
+        } catch (RuntimeException | AssertionError e) {
+            System.out.println("FAILED " + name + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+}
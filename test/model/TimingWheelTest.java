@@ -0,0 +1,120 @@
+package model;
+
+import java.util.*;
+
+/**
+ * Checks TimingWheel against a plain sorted map: every timeout fires in the first
+ * advance that reaches its deadline, never earlier, earliest first, and cancelled ones
+ * never fire. Deadlines are spread over the first four levels so timeouts cascade.
+ * Run the main method; it exits with status 1 on the first failure.
+ */
+public class TimingWheelTest {
+
+    public static void main(String[] args) {
+        run("fires on its tick", TimingWheelTest::firesOnItsTick);
+        run("cascades between levels", TimingWheelTest::cascadesBetweenLevels);
+        run("past deadlines fire on the next advance", TimingWheelTest::pastDeadlinesFireOnNextAdvance);
+        run("cancelled timeouts never fire", TimingWheelTest::cancelledTimeoutsNeverFire);
+        run("matches a sorted map", TimingWheelTest::matchesSortedMap);
+        System.out.println("TimingWheelTest passed");
+    }
+
+    static void firesOnItsTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 0);
+        wheel.schedule("a", 25);
+        check(wheel.advance(20).isEmpty(), "fired before its tick");
+        // Deadlines round up to the next tick
+        check(wheel.advance(29).isEmpty(), "fired before the rounded-up tick");
+        check(wheel.advance(30).equals(List.of("a")), "did not fire on its tick");
+        check(wheel.size() == 0, "size after firing");
+    }
+
+    static void cascadesBetweenLevels() {
+        TimingWheel<Long> wheel = new TimingWheel<>(1, 0);
+        // Slot boundaries of levels 0 to 3, and one tick either side
+        long[] deadlines = {1, 63, 64, 65, 4095, 4096, 4097, 262_143, 262_144, 262_145, 16_000_000};
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+        for (long deadline : deadlines) {
+            check(wheel.advance(deadline - 1).isEmpty(), "fired before " + deadline);
+            check(wheel.advance(deadline).equals(List.of(deadline)), "did not fire at " + deadline);
+        }
+        check(wheel.size() == 0, "size after all fired");
+    }
+
+    static void pastDeadlinesFireOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 1000);
+        wheel.schedule("late", 10);
+        wheel.schedule("now", 1000);
+        check(wheel.advance(1000).equals(List.of("late", "now")), "past deadlines not returned first");
+    }
+
+    static void cancelledTimeoutsNeverFire() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        TimingWheel.Timeout<String> near = wheel.schedule("near", 5);
+        TimingWheel.Timeout<String> far = wheel.schedule("far", 100_000);
+        wheel.schedule("kept", 100_000);
+        wheel.cancel(near);
+        wheel.cancel(far);
+        // A second cancel must not change the size again
+        wheel.cancel(far);
+        check(wheel.size() == 1, "size after cancel");
+        check(wheel.advance(200_000).equals(List.of("kept")), "cancelled timeout fired");
+    }
+
+    static void matchesSortedMap() {
+        Random random = new Random(42);
+        TimingWheel<Integer> wheel = new TimingWheel<>(1, 0);
+        Map<Integer, TimingWheel.Timeout<Integer>> handles = new HashMap<>();
+        TreeMap<Long, Set<Integer>> expected = new TreeMap<>();
+        long now = 0;
+        int next = 0;
+        for (int round = 0; round < 200; round++) {
+            for (int i = 0; i < 20; i++) {
+                long deadline = now + (long) (Math.pow(random.nextDouble(), 4) * 20_000_000L);
+                handles.put(next, wheel.schedule(next, deadline));
+                expected.computeIfAbsent(deadline, d -> new HashSet<>()).add(next);
+                next++;
+            }
+            for (int i = 0; i < 5 && !handles.isEmpty(); i++) {
+                int id = random.nextInt(next);
+                TimingWheel.Timeout<Integer> handle = handles.remove(id);
+                if (handle != null) {
+                    wheel.cancel(handle);
+                    expected.get(handle.deadline).remove(id);
+                }
+            }
+            now += random.nextInt(200_000);
+            Set<Integer> due = new HashSet<>();
+            for (Set<Integer> ids : expected.headMap(now, true).values()) {
+                due.addAll(ids);
+            }
+            expected.headMap(now, true).clear();
+            List<Integer> fired = wheel.advance(now);
+            check(new HashSet<>(fired).equals(due) && fired.size() == due.size(),
+                    "round " + round + ": expected " + due + " but fired " + fired);
+            // Order is only promised between ticks; values due on the same tick may come in any order
+            long last = Long.MIN_VALUE;
+            for (int id : fired) {
+                long deadline = handles.remove(id).deadline;
+                check(deadline >= last, "round " + round + ": " + id + " fired out of order");
+                last = deadline;
+            }
+            check(wheel.size() == handles.size(), "round " + round + ": size " + wheel.size() + " != " + handles.size());
+        }
+    }
+
+    private static void run(String name, Runnable test) {
+        try {
+            test.run();
+        } catch (RuntimeException | AssertionError e) {
+            System.out.println("FAILED " + name + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+}
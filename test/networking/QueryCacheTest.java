@@ -0,0 +1,167 @@
+package networking;
+
+import model.Task;
+import model.TaskField;
+import model.TaskQuery;
+import model.TaskUpdate;
+
+import java.util.*;
+
+/**
+ * Checks which cached results QueryCache keeps and which it drops: by contained id, by a
+ * filter a change now matches, by pages a removed task shifts, and by the LRU, row and
+ * time-to-live limits. The limits are set small before the cache is first used.
+ * Run the main method; it exits with status 1 on the first failure.
+ */
+public class QueryCacheTest {
+
+    public static void main(String[] args) {
+        System.setProperty(DatabaseConfig.CACHE_ENTRIES, "3");
+        System.setProperty(DatabaseConfig.CACHE_ROWS, "10");
+        System.setProperty(DatabaseConfig.CACHE_TTL_SECONDS, "1");
+        run("hits are copies", QueryCacheTest::hitsAreCopies);
+        run("stale reads are not stored", QueryCacheTest::staleReadsAreNotStored);
+        run("updates drop contained and newly matching results", QueryCacheTest::updatesDropAffectedResults);
+        run("inserts drop matching results", QueryCacheTest::insertsDropMatchingResults);
+        run("deletes drop shifted pages", QueryCacheTest::deletesDropShiftedPages);
+        run("tags drop tag-filtered results", QueryCacheTest::tagsDropTagFilteredResults);
+        run("least recently used is evicted", QueryCacheTest::leastRecentlyUsedIsEvicted);
+        run("row limit", QueryCacheTest::rowLimit);
+        run("entries expire", QueryCacheTest::entriesExpire);
+        System.out.println("QueryCacheTest passed");
+    }
+
+    static void hitsAreCopies() {
+        QueryCache.clear();
+        check(QueryCache.get("all") == null, "hit on an empty cache");
+        store("all", new TaskQuery(), tasks(1, 2));
+        List<Task> first = QueryCache.get("all");
+        first.get(0).setTitle("changed");
+        check(QueryCache.get("all").get(0).getTitle().equals("Task 1"), "caller's change reached the cache");
+    }
+
+    static void staleReadsAreNotStored() {
+        QueryCache.clear();
+        long readAt = QueryCache.generation();
+        QueryCache.deleted(List.of(99));
+        QueryCache.put("all", new TaskQuery(), readAt, tasks(1));
+        check(QueryCache.get("all") == null, "result read before a write was cached");
+    }
+
+    static void updatesDropAffectedResults() {
+        QueryCache.clear();
+        store("pending", new TaskQuery().status("Pending"), tasks(1, 2));
+        store("work", new TaskQuery().category("Work"), tasks(1, 2));
+        // Task 5 is in neither result; a new category cannot make it pending
+        QueryCache.updated(List.of(5), new TaskUpdate().set(TaskField.CATEGORY, "Study"));
+        check(cached("pending") && cached("work"), "unrelated update dropped a result");
+
+        // Task 5 may now be pending
+        QueryCache.updated(List.of(5), new TaskUpdate().set(TaskField.STATUS, "Pending"));
+        check(!cached("pending") && cached("work"), "newly matching update");
+
+        // Task 1 is in the result, whatever changed
+        QueryCache.updated(List.of(1), new TaskUpdate().set(TaskField.TITLE, "renamed"));
+        check(!cached("work"), "update of a contained task");
+    }
+
+    static void insertsDropMatchingResults() {
+        QueryCache.clear();
+        store("pending", new TaskQuery().status("Pending"), tasks(1));
+        store("completed", new TaskQuery().status("Completed"), tasks(2));
+        QueryCache.inserted(List.of(task(3)));
+        check(!cached("pending") && cached("completed"), "insert of a pending task");
+    }
+
+    static void deletesDropShiftedPages() {
+        QueryCache.clear();
+        store("page1", new TaskQuery().page(0, 5), tasks(1, 2, 3, 4, 5));
+        store("page3", new TaskQuery().page(10, 5), tasks(20, 21, 22));
+        // Task 50 comes after both pages
+        QueryCache.deleted(List.of(50));
+        check(cached("page1") && cached("page3"), "delete after every page");
+        // Task 8 is before page 3, which moves up by one
+        QueryCache.deleted(List.of(8));
+        check(cached("page1") && !cached("page3"), "delete before a later page");
+        QueryCache.deleted(List.of(3));
+        check(!cached("page1"), "delete of a contained task");
+    }
+
+    static void tagsDropTagFilteredResults() {
+        QueryCache.clear();
+        store("urgent", new TaskQuery().tag("urgent"), tasks(1));
+        store("all", new TaskQuery(), tasks(1, 2));
+        QueryCache.tagged(7, List.of("home"));
+        check(cached("urgent") && cached("all"), "unrelated tag change");
+        QueryCache.tagged(7, List.of("urgent"));
+        check(!cached("urgent") && cached("all"), "task gaining the filtered tag");
+    }
+
+    static void leastRecentlyUsedIsEvicted() {
+        QueryCache.clear();
+        long evictions = QueryCache.getEvictions();
+        store("a", new TaskQuery(), tasks(1));
+        store("b", new TaskQuery(), tasks(2));
+        store("c", new TaskQuery(), tasks(3));
+        QueryCache.get("a");
+        store("d", new TaskQuery(), tasks(4));
+        check(cached("a") && !cached("b") && cached("c") && cached("d"), "wrong entry evicted");
+        check(QueryCache.getEvictions() == evictions + 1, "eviction not counted");
+    }
+
+    static void rowLimit() {
+        QueryCache.clear();
+        store("six", new TaskQuery(), tasks(1, 2, 3, 4, 5, 6));
+        store("five", new TaskQuery(), tasks(7, 8, 9, 10, 11));
+        check(!cached("six") && cached("five"), "rows over the limit kept");
+        store("eleven", new TaskQuery(), tasks(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11));
+        check(!cached("eleven") && cached("five"), "result larger than the limit cached");
+    }
+
+    static void entriesExpire() {
+        QueryCache.clear();
+        long expirations = QueryCache.getExpirations();
+        store("all", new TaskQuery(), tasks(1));
+        try {
+            Thread.sleep(1100);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        check(!cached("all"), "entry outlived its time to live");
+        check(QueryCache.getExpirations() == expirations + 1, "expiry not counted");
+    }
+
+    private static void store(String key, TaskQuery query, List<Task> rows) {
+        QueryCache.put(key, query, QueryCache.generation(), rows);
+    }
+
+    private static boolean cached(String key) {
+        return QueryCache.get(key) != null;
+    }
+
+    private static List<Task> tasks(int... ids) {
+        List<Task> tasks = new ArrayList<>();
+        for (int id : ids) {
+            tasks.add(task(id));
+        }
+        return tasks;
+    }
+
+    // Pending work tasks without tags
+    private static Task task(int id) {
+        return new Task(id, "Task " + id, "", new Date(), "Work", "Pending");
+    }
+
+    private static void run(String name, Runnable test) {
+        try {
+            test.run();
+        } catch (RuntimeException | AssertionError e) {
+            System.out.println("FAILED " + name + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+}
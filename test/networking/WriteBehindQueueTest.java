@@ -0,0 +1,211 @@
+package networking;
+
+import model.Task;
+import model.TaskField;
+import model.TaskUpdate;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Checks the WriteBehindQueue journal: values survive the escape round trip, replay skips
+ * torn and garbled lines, edits to a task coalesce, and a delete wins over edits queued
+ * before or after it. Queues are made without a writer, so nothing is drained to a database.
+ * Run the main method; it exits with status 1 on the first failure.
+ */
+public class WriteBehindQueueTest {
+
+    public static void main(String[] args) {
+        run("escape round trip", WriteBehindQueueTest::escapeRoundTrip);
+        run("replay skips torn lines", WriteBehindQueueTest::replaySkipsTornLines);
+        run("edits coalesce", WriteBehindQueueTest::editsCoalesce);
+        run("delete after update", WriteBehindQueueTest::deleteAfterUpdate);
+        run("compaction keeps pending writes", WriteBehindQueueTest::compactionKeepsPendingWrites);
+        System.out.println("WriteBehindQueueTest passed");
+    }
+
+    static void escapeRoundTrip() {
+        String[] values = {"", "plain", "tab\there", "line\nbreak", "cr\r\nlf", "back\\slash", "\\N", "\\t literal",
+                "trailing\\", "ünïcödé"};
+        for (String value : values) {
+            String escaped = WriteBehindQueue.escape(value);
+            check(escaped.indexOf('\t') < 0 && escaped.indexOf('\n') < 0 && escaped.indexOf('\r') < 0,
+                    "escaped value spans fields: " + escaped);
+            check(value.equals(WriteBehindQueue.unescape(escaped)), "round trip of " + value);
+        }
+        check(WriteBehindQueue.unescape(WriteBehindQueue.escape(null)) == null, "null round trip");
+
+        // Through the journal as well
+        File journal = tempJournal();
+        WriteBehindQueue queue = open(journal);
+        for (int i = 0; i < values.length; i++) {
+            queue.update(i, new TaskUpdate().set(TaskField.DESCRIPTION, values[i]));
+        }
+        queue.update(values.length, new TaskUpdate().set(TaskField.ASSIGNED_USER, null));
+        queue.close(0);
+        Map<Integer, WriteBehindQueue.PendingWrite> replayed = read(journal);
+        for (int i = 0; i < values.length; i++) {
+            check(values[i].equals(replayed.get(i).getUpdate().get(TaskField.DESCRIPTION)), "journal round trip of " + values[i]);
+        }
+        TaskUpdate cleared = replayed.get(values.length).getUpdate();
+        check(cleared.getFields().contains(TaskField.ASSIGNED_USER) && cleared.get(TaskField.ASSIGNED_USER) == null,
+                "cleared field lost");
+    }
+
+    static void replaySkipsTornLines() {
+        File journal = tempJournal();
+        write(journal, "U\t1\ttitle\tfirst\n"
+                + "U\t1\tno_such_column\tx\n"
+                + "U\tnot-a-number\ttitle\tx\n"
+                + "X\t2\n"
+                + "U\t3\n"
+                + "\n"
+                + "U\t1\tdue_date\t2026-13-45\n"
+                + "D\t4\n"
+                + "U\t5\tstatus\tCompleted\n"
+                // A crash mid-write leaves the last record without its newline and its value cut short
+                + "U\t1\ttitle\tsecond but cut sh");
+        Map<Integer, WriteBehindQueue.PendingWrite> replayed = read(journal);
+        check(replayed.keySet().equals(Set.of(1, 4, 5)), "replayed ids " + replayed.keySet());
+        check("first".equals(replayed.get(1).getUpdate().get(TaskField.TITLE)), "torn last line applied");
+        check(replayed.get(1).getUpdate().getFields().equals(Set.of(TaskField.TITLE)), "garbled line applied");
+        check(replayed.get(4).isDelete(), "delete lost");
+        check("Completed".equals(replayed.get(5).getUpdate().get(TaskField.STATUS)), "update before the torn line lost");
+
+        // The queue replays the same writes and cuts the torn line off before appending
+        WriteBehindQueue queue = open(journal);
+        check(queue.getPendingCount() == 3, "pending after replay " + queue.getPendingCount());
+        queue.update(6, new TaskUpdate().set(TaskField.TITLE, "after crash"));
+        queue.close(0);
+        replayed = read(journal);
+        check(replayed.keySet().equals(Set.of(1, 4, 5, 6)), "ids after appending " + replayed.keySet());
+        check("first".equals(replayed.get(1).getUpdate().get(TaskField.TITLE)), "append joined the torn line");
+    }
+
+    static void editsCoalesce() {
+        File journal = tempJournal();
+        WriteBehindQueue queue = open(journal);
+        queue.update(1, new TaskUpdate().set(TaskField.TITLE, "a"));
+        queue.update(2, new TaskUpdate().set(TaskField.TITLE, "other"));
+        queue.update(1, new TaskUpdate().set(TaskField.STATUS, "Completed"));
+        queue.update(1, new TaskUpdate().set(TaskField.TITLE, "b"));
+        queue.update(1, new TaskUpdate());
+        check(queue.getPendingCount() == 2, "pending " + queue.getPendingCount());
+
+        List<Task> shown = queue.overlay(tasks(1, 2, 3));
+        check(shown.size() == 3, "overlay changed the rows");
+        check(shown.get(0).getTitle().equals("b") && shown.get(0).getStatus().equals("Completed"), "latest edits not merged");
+        check(shown.get(1).getTitle().equals("other") && shown.get(2).getTitle().equals("Task 3"), "edit applied to the wrong task");
+        queue.close(0);
+
+        Map<Integer, WriteBehindQueue.PendingWrite> replayed = read(journal);
+        check(new ArrayList<>(replayed.keySet()).equals(List.of(1, 2)), "replay order " + replayed.keySet());
+        TaskUpdate merged = replayed.get(1).getUpdate();
+        check("b".equals(merged.get(TaskField.TITLE)) && "Completed".equals(merged.get(TaskField.STATUS)), "replay did not coalesce");
+    }
+
+    static void deleteAfterUpdate() {
+        File journal = tempJournal();
+        WriteBehindQueue queue = open(journal);
+        queue.update(1, new TaskUpdate().set(TaskField.TITLE, "edited"));
+        queue.delete(1);
+        long length = journal.length();
+        // An edit to a task already going away is not journaled
+        queue.update(1, new TaskUpdate().set(TaskField.TITLE, "edited again"));
+        check(journal.length() == length, "edit after delete was journaled");
+        check(queue.getPendingCount() == 1, "pending " + queue.getPendingCount());
+
+        List<Task> shown = queue.overlay(tasks(1, 2));
+        check(shown.size() == 1 && shown.get(0).getId() == 2, "deleted task still shown");
+        queue.close(0);
+
+        // Replay honours a delete even when an edit follows it in the journal
+        write(journal, "U\t1\ttitle\tedited\nD\t1\nU\t1\ttitle\tedited again\n");
+        WriteBehindQueue.PendingWrite write = read(journal).get(1);
+        check(write.isDelete(), "replayed delete lost");
+        check("edited".equals(write.getUpdate().get(TaskField.TITLE)), "edit after the delete merged on replay");
+    }
+
+    static void compactionKeepsPendingWrites() {
+        File journal = tempJournal();
+        WriteBehindQueue queue = open(journal);
+        queue.update(1, new TaskUpdate().set(TaskField.TITLE, "x"));
+        queue.update(1, new TaskUpdate().set(TaskField.TITLE, "y\tz"));
+        queue.update(2, new TaskUpdate().set(TaskField.CATEGORY, "Work"));
+        queue.delete(3);
+        long length = journal.length();
+        synchronized (queue) {
+            queue.compactJournal();
+        }
+        check(journal.length() < length, "journal not compacted");
+        check(!new File(journal.getPath() + ".tmp").exists(), "temporary file left behind");
+        // Appends after compaction go to the new journal
+        queue.update(4, new TaskUpdate().set(TaskField.STATUS, "Pending"));
+        queue.close(0);
+
+        Map<Integer, WriteBehindQueue.PendingWrite> replayed = read(journal);
+        check(replayed.keySet().equals(Set.of(1, 2, 3, 4)), "compacted ids " + replayed.keySet());
+        check("y\tz".equals(replayed.get(1).getUpdate().get(TaskField.TITLE)), "compaction lost the latest edit");
+        check(replayed.get(3).isDelete(), "compaction lost a delete");
+    }
+
+    private static WriteBehindQueue open(File journal) {
+        try {
+            return new WriteBehindQueue(journal, false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Map<Integer, WriteBehindQueue.PendingWrite> read(File journal) {
+        try {
+            return WriteBehindQueue.readJournal(journal);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static File tempJournal() {
+        try {
+            File journal = Files.createTempFile("write-behind", ".journal").toFile();
+            journal.deleteOnExit();
+            new File(journal.getPath() + ".tmp").deleteOnExit();
+            return journal;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void write(File journal, String contents) {
+        try {
+            Files.write(journal.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<Task> tasks(int... ids) {
+        List<Task> tasks = new ArrayList<>();
+        for (int id : ids) {
+            tasks.add(new Task(id, "Task " + id, "", new Date(), "Work", "Pending"));
+        }
+        return tasks;
+    }
+
+    private static void run(String name, Runnable test) {
+        try {
+            test.run();
+        } catch (RuntimeException | AssertionError e) {
+            System.out.println("FAILED " + name + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+}